@@ -7,7 +7,7 @@ REM Check Java version
 echo Checking Java version...
 java -version >nul 2>&1
 if %errorlevel% neq 0 (
-    echo ❌ Java is not installed. Please install Java 17 or higher.
+    echo ❌ Java is not installed. Please install Java 21 or higher.
     exit /b 1
 )
 echo ✅ Java version check passed
@@ -0,0 +1,26 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Drops the lambda proxy entries from a class list written by {@code -XX:DumpLoadedClassList}.
+ * Run with the source launcher, as the {@code startup} profile does:
+ * {@code java src/build/ClassListFilter.java target/app.classlist}
+ *
+ * JDK 17 crashes dumping an archive that includes this application's lambda proxies. Without
+ * them the lambdas are spun at runtime as usual while the classes themselves still come from
+ * the archive.
+ */
+public class ClassListFilter {
+
+    public static void main(String[] args) throws IOException {
+        Path classList = Path.of(args[0]);
+        List<String> lines = Files.readAllLines(classList);
+        List<String> kept = lines.stream()
+            .filter(line -> !line.startsWith("@lambda-proxy"))
+            .toList();
+        Files.write(classList, kept);
+        System.out.printf("Kept %d of %d class list entries in %s%n", kept.size(), lines.size(), classList);
+    }
+}
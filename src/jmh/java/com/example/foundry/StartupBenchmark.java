@@ -0,0 +1,100 @@
+package com.example.foundry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching the packaged application to its first API call, against the in-process
+ * fake service. Each invocation starts a fresh JVM and stops it once the application logs that
+ * it is ready for the first call. Package first: {@code mvn -Pstartup package} for the thin jar
+ * and class-data archive the {@code cds} variants need, or {@code mvn package} to measure the
+ * plain executable jar with {@code default} only.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final String READY_MARKER = "Ready for the first API call";
+
+    @Param({"default", "aot", "cds", "aot+cds"})
+    public String variant;
+
+    @Param("target/foundry-agent-app-1.0.0.jar")
+    public String jar;
+
+    @Param("target/app.jsa")
+    public String archive;
+
+    private Process process;
+
+    @Benchmark
+    public void launchToFirstApiCall() throws IOException {
+        List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (variant.contains("cds")) {
+            if (!Files.exists(Path.of(archive))) {
+                throw new IllegalStateException("No class-data archive at " + archive + "; run mvn -Pstartup package");
+            }
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (variant.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar));
+
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("FAKE_SERVICE_ENABLED", "true");
+        builder.environment().put("JOURNAL_ENABLED", "false");
+        builder.environment().put("PYTHON_WORKER_POOL_ENABLED", "false");
+        process = builder.start();
+
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.contains(READY_MARKER)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Application exited with " + waitForExit() + " before its first API call");
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() {
+        if (process != null) {
+            process.destroyForcibly();
+            waitForExit();
+        }
+    }
+
+    private int waitForExit() {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.ThreadMessage;
+import com.azure.core.util.BinaryData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering a thread's messages and extracting the reply of the latest run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageRenderingBenchmark {
+
+    @Param({"2", "50"})
+    public int messageCount;
+
+    private List<ThreadMessage> messages;
+
+    @Setup
+    public void setUp() {
+        messages = new ArrayList<>();
+        // Newest first, alternating agent replies and user prompts
+        for (int i = messageCount; i > 0; i--) {
+            String role = i % 2 == 0 ? "assistant" : "user";
+            String runId = "run_" + (i + 1) / 2;
+            messages.add(BinaryData.fromString(message(i, role, runId)).toObject(ThreadMessage.class));
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        return AgentService.renderMessages(messages, "run_" + messageCount / 2);
+    }
+
+    private static String message(int index, String role, String runId) {
+        return "{\"id\":\"msg_" + index + "\",\"object\":\"thread.message\",\"created_at\":1700000000,"
+            + "\"thread_id\":\"thread_1\",\"status\":\"completed\",\"incomplete_details\":null,"
+            + "\"completed_at\":1700000001,\"incomplete_at\":null,\"role\":\"" + role + "\","
+            + "\"content\":[{\"type\":\"text\",\"text\":{\"value\":\"Message number " + index
+            + " with a few words of text in it.\",\"annotations\":[]}}],"
+            + "\"assistant_id\":\"asst_1\",\"run_id\":\"" + runId + "\",\"attachments\":[],\"metadata\":{}}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.PersistentAgentsClientBuilder;
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.azure.core.credential.AccessToken;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.fake.FakeAgentsHttpClient;
+import com.example.foundry.fake.FakeAgentsService;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.metrics.RunTimelineProfiler;
+import com.example.foundry.tool.AgentTool;
+import com.example.foundry.tool.FunctionToolRegistry;
+import com.example.foundry.tool.ToolParam;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of one conversation turn with a tool call (create thread, message, run,
+ * poll or stream, submit tool outputs, list messages) against the in-process fake service,
+ * so the numbers exclude network and model latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunOrchestrationBenchmark {
+
+    public static class EchoTool {
+        @AgentTool(name = "echo", description = "Echo the input")
+        public String echo(@ToolParam(name = "text") String text) {
+            return text;
+        }
+    }
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    private AgentService service;
+    private PersistentAgent agent;
+
+    @Setup
+    public void setUp() throws Exception {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setRunStreamingEnabled(streaming);
+        config.setPollInitialIntervalMs(1);
+        config.setPollMaxIntervalMs(1);
+        config.setAgentCacheEnabled(false);
+        config.setPythonWorkerPoolEnabled(false);
+        config.setHttpLoggingEnabled(false);
+        config.setMetricsEnabled(false);
+
+        FunctionToolRegistry registry = new FunctionToolRegistry(null);
+        Method echo = EchoTool.class.getMethod("echo", String.class);
+        registry.register(new EchoTool(), echo, echo.getAnnotation(AgentTool.class));
+        AgentMetrics metrics = new AgentMetrics(config);
+        service = AgentService.standalone(config, registry, metrics, new RunTimelineProfiler(config, metrics));
+
+        service.initializeClient(new PersistentAgentsClientBuilder()
+            .endpoint("https://fake.local/api/projects/bench")
+            .credential(request -> Mono.just(new AccessToken("fake-token", OffsetDateTime.now().plusHours(1))))
+            .httpClient(new FakeAgentsHttpClient(new FakeAgentsService("echo", "{\"text\":\"hello\"}"))));
+        agent = service.createAgent();
+    }
+
+    @Benchmark
+    public String converse() {
+        return service.converse(agent, "Say hello");
+    }
+}
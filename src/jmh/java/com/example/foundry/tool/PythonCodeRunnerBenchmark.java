@@ -0,0 +1,58 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawn-to-result latency of the pythonCodeRunner tool, on warm workers and with a fresh
+ * interpreter per call. Requires a Python interpreter on the PATH.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PythonCodeRunnerBenchmark {
+
+    @Param({"true", "false"})
+    public boolean workerPool;
+
+    private PythonWorkerPool pool;
+    private PythonCodeRunnerTool tool;
+
+    @Setup
+    public void setUp() {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setPythonWorkerPoolEnabled(workerPool);
+        config.setPythonWorkerPreloadModules("json");
+        pool = new PythonWorkerPool(config);
+        if (workerPool) {
+            pool.warmUp();
+        }
+        tool = new PythonCodeRunnerTool(config, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ToolExecutionResult runSmallScript() {
+        return tool.pythonCodeRunner("print(sum(i * i for i in range(1000)))");
+    }
+}
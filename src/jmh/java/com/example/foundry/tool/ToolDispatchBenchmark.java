@@ -0,0 +1,60 @@
+package com.example.foundry.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a function tool call into a method invocation: argument parsing the way
+ * it was done before the registry (a new mapper per call), and full registry dispatch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolDispatchBenchmark {
+
+    private static final String ARGUMENTS =
+        "{\"code\": \"import numpy as np\\nx = np.linspace(0, 10, 100)\\nprint(4 * x + 9)\"}";
+
+    public static class NoOpTool {
+        @AgentTool(name = "pythonCodeRunner", description = "Execute Python code")
+        public String pythonCodeRunner(@ToolParam(name = "code") String code) {
+            return code;
+        }
+    }
+
+    private FunctionToolRegistry registry;
+
+    @Setup
+    public void setUp() throws Exception {
+        registry = new FunctionToolRegistry(null);
+        Method method = NoOpTool.class.getMethod("pythonCodeRunner", String.class);
+        registry.register(new NoOpTool(), method, method.getAnnotation(AgentTool.class));
+    }
+
+    @Benchmark
+    public String parseArgumentsWithNewMapper() throws Exception {
+        JsonNode root = new JsonMapper().readTree(ARGUMENTS);
+        return root.get("code").asText();
+    }
+
+    @Benchmark
+    public ToolExecutionResult registryDispatch() {
+        return registry.invoke("pythonCodeRunner", ARGUMENTS);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.foundry.util;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.BinaryData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link HttpLoggingInterceptor} on a pipeline whose transport
+ * answers immediately: without the policy, logging every request with bodies, and sampling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpLoggingBenchmark {
+
+    private static final byte[] RESPONSE_BODY =
+        "{\"id\":\"run_abc\",\"object\":\"thread.run\",\"status\":\"in_progress\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"disabled", "enabled", "sampled"})
+    public String logging;
+
+    private HttpLoggingInterceptor interceptor;
+    private HttpPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        HttpPipelineBuilder builder = new HttpPipelineBuilder()
+            .httpClient(request -> Mono.just(response(request)));
+        if (!logging.equals("disabled")) {
+            double sampleRate = logging.equals("sampled") ? 0.01 : 1.0;
+            interceptor = new HttpLoggingInterceptor(true, true, sampleRate, 0, 4096, 1024, discard);
+            builder.policies(new HttpPipelinePolicy[]{interceptor});
+        }
+        pipeline = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (interceptor != null) {
+            interceptor.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] request() {
+        HttpRequest request = new HttpRequest(HttpMethod.POST, "https://example.test/threads/thread_1/runs")
+            .setHeader(HttpHeaderName.AUTHORIZATION, "Bearer token")
+            .setBody(BinaryData.fromString("{\"assistant_id\":\"asst_1\"}"));
+        return pipeline.send(request).flatMap(HttpResponse::getBodyAsByteArray).block();
+    }
+
+    private static HttpResponse response(HttpRequest request) {
+        return new HttpResponse(request) {
+            @Override
+            public int getStatusCode() {
+                return 200;
+            }
+
+            @Override
+            @Deprecated
+            public String getHeaderValue(String name) {
+                return null;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders().set(HttpHeaderName.CONTENT_TYPE, "application/json");
+            }
+
+            @Override
+            public Flux<ByteBuffer> getBody() {
+                return Flux.just(ByteBuffer.wrap(RESPONSE_BODY));
+            }
+
+            @Override
+            public Mono<byte[]> getBodyAsByteArray() {
+                return Mono.just(RESPONSE_BODY);
+            }
+
+            @Override
+            public Mono<String> getBodyAsString() {
+                return Mono.just(new String(RESPONSE_BODY, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public Mono<String> getBodyAsString(Charset charset) {
+                return Mono.just(new String(RESPONSE_BODY, charset));
+            }
+        };
+    }
+}
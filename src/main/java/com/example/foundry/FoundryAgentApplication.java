@@ -52,8 +52,13 @@ public class FoundryAgentApplication implements CommandLineRunner {
         // Display configuration info
         displayApplicationInfo();
         
-        // Execute the agent workflow
-        agentService.executeAgentWorkflow();
+        if (agentConfig.isServerModeEnabled()) {
+            // Serve the chat API until shutdown
+            agentService.serve();
+        } else {
+            // Execute the agent workflow
+            agentService.executeAgentWorkflow();
+        }
         
         logger.info("=== Foundry Agent Application Completed ===");
     }
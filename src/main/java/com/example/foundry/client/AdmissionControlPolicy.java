@@ -0,0 +1,135 @@
+package com.example.foundry.client;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.example.foundry.util.AdaptiveConcurrencyLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP pipeline policy that admits each attempt against its {@link AdmissionController} budget.
+ *
+ * The permit is held until the response headers arrive. A 429 or 503 shrinks the budget and
+ * pauses it for the delay in {@code retry-after-ms} or {@code Retry-After}; a throttled run
+ * creation shrinks the run budget as well. A response reporting
+ * {@code x-ratelimit-remaining-requests: 0} pauses the budget until
+ * {@code x-ratelimit-reset-requests} without shrinking it. Installed per retry, so the SDK's
+ * own retries are admitted and observed like first attempts.
+ */
+public class AdmissionControlPolicy implements HttpPipelinePolicy {
+
+    static final HttpHeaderName RATE_LIMIT_REMAINING = HttpHeaderName.fromString("x-ratelimit-remaining-requests");
+    static final HttpHeaderName RATE_LIMIT_RESET = HttpHeaderName.fromString("x-ratelimit-reset-requests");
+
+    /** Pause when the remaining budget is exhausted but no reset time is given */
+    private static final long DEFAULT_RESET_MS = 1000;
+
+    private final AdmissionController controller;
+
+    AdmissionControlPolicy(AdmissionController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        HttpRequest request = context.getHttpRequest();
+        AdaptiveConcurrencyLimiter limiter = controller.limiterFor(request);
+        return limiter.acquireAsync(controller.getMaxWaitMs())
+            .flatMap(permit -> next.process()
+                .doOnNext(response -> observe(request, response, limiter, permit))
+                .doOnError(error -> permit.release())
+                .doOnCancel(permit::release));
+    }
+
+    private void observe(HttpRequest request, HttpResponse response, AdaptiveConcurrencyLimiter limiter,
+                         AdaptiveConcurrencyLimiter.Permit permit) {
+        int status = response.getStatusCode();
+        if (status == 429 || status == 503) {
+            long retryAfterMs = retryAfterMs(response);
+            permit.throttled(retryAfterMs);
+            if (request.getHttpMethod() == HttpMethod.POST && request.getUrl().getPath().endsWith("/runs")) {
+                controller.runs().throttled(retryAfterMs);
+            }
+            return;
+        }
+        if (status >= 500) {
+            permit.release();
+        } else {
+            permit.success();
+        }
+        if ("0".equals(trim(response.getHeaderValue(RATE_LIMIT_REMAINING)))) {
+            long resetMs = durationMs(response.getHeaderValue(RATE_LIMIT_RESET));
+            limiter.pause(resetMs > 0 ? resetMs : DEFAULT_RESET_MS);
+        }
+    }
+
+    /**
+     * The delay a throttled response asks for, from {@code retry-after-ms} or a
+     * {@code Retry-After} in seconds; 0 if absent or in HTTP-date form.
+     */
+    public static long retryAfterMs(HttpResponse response) {
+        String millis = response.getHeaderValue(HttpHeaderName.RETRY_AFTER_MS);
+        String seconds = response.getHeaderValue(HttpHeaderName.RETRY_AFTER);
+        try {
+            if (millis != null) {
+                return Long.parseLong(millis.trim());
+            }
+            if (seconds != null) {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(seconds.trim()));
+            }
+        } catch (NumberFormatException e) {
+            // HTTP-date form; leave the delay to the caller's backoff
+        }
+        return 0;
+    }
+
+    /**
+     * Parse a rate-limit reset such as {@code 6}, {@code 1.5s}, {@code 250ms} or {@code 1m30s}.
+     */
+    static long durationMs(String value) {
+        value = trim(value);
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            if (Character.isDigit(value.charAt(value.length() - 1))) {
+                return Math.round(Double.parseDouble(value) * 1000);
+            }
+            long total = 0;
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isDigit(c) || c == '.') {
+                    continue;
+                }
+                double amount = Double.parseDouble(value.substring(start, i));
+                if (value.startsWith("ms", i)) {
+                    total += Math.round(amount);
+                    i++;
+                } else if (c == 's') {
+                    total += Math.round(amount * 1000);
+                } else if (c == 'm') {
+                    total += Math.round(amount * 60_000);
+                } else if (c == 'h') {
+                    total += Math.round(amount * 3_600_000);
+                } else {
+                    return 0;
+                }
+                start = i + 1;
+            }
+            return total;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.foundry.client;
+
+import com.azure.core.http.HttpRequest;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.util.AdaptiveConcurrencyLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Adaptive concurrency budgets for calls to the agents service.
+ *
+ * Control-plane calls (agents, threads) and data-plane calls (runs, run steps, messages,
+ * files) each have an {@link AdaptiveConcurrencyLimiter} applied per HTTP attempt by
+ * {@link AdmissionControlPolicy}, so a burst of polls cannot starve thread creation and
+ * vice versa. A third budget caps the runs in progress: callers take a run permit before
+ * creating a run and return it once the run is over, and throttled run creations shrink it.
+ * Limits, in-flight counts, throttles and rejections are registered as gauges in
+ * {@link AgentMetrics}. When {@code agent.admission-control-enabled} is false no policy is
+ * installed and the run budget is unbounded.
+ */
+@Component
+public class AdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+    private final AgentConfiguration config;
+    private final AdaptiveConcurrencyLimiter controlPlane;
+    private final AdaptiveConcurrencyLimiter dataPlane;
+    private final AdaptiveConcurrencyLimiter runs;
+
+    @Autowired
+    public AdmissionController(AgentConfiguration config, AgentMetrics metrics) {
+        this.config = config;
+        this.controlPlane = limiter(config, "control_plane", config.getAdmissionControlPlaneLimit());
+        this.dataPlane = limiter(config, "data_plane", config.getAdmissionDataPlaneLimit());
+        this.runs = limiter(config, "runs", config.getAdmissionRunLimit());
+        for (AdaptiveConcurrencyLimiter limiter : limiters()) {
+            String prefix = "admission " + limiter.getName() + " ";
+            metrics.gauge(prefix + "limit", limiter::getLimit);
+            metrics.gauge(prefix + "in_flight", limiter::getInFlight);
+            metrics.gauge(prefix + "throttled", limiter::getThrottled);
+            metrics.gauge(prefix + "rejected", limiter::getRejected);
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(AgentConfiguration config, String name, int maxLimit) {
+        if (!config.isAdmissionControlEnabled()) {
+            return new AdaptiveConcurrencyLimiter(name, Integer.MAX_VALUE, Integer.MAX_VALUE, 1.0);
+        }
+        return new AdaptiveConcurrencyLimiter(name, config.getAdmissionMinLimit(), maxLimit,
+            config.getAdmissionBackoffRatio());
+    }
+
+    public boolean isEnabled() {
+        return config.isAdmissionControlEnabled();
+    }
+
+    /**
+     * Pipeline policy that admits every HTTP attempt against its budget.
+     */
+    public AdmissionControlPolicy policy() {
+        return new AdmissionControlPolicy(this);
+    }
+
+    /**
+     * Take a run permit, blocking up to {@code agent.admission-max-wait-ms}.
+     */
+    public AdaptiveConcurrencyLimiter.Permit acquireRun() throws InterruptedException {
+        return runs.acquire(config.getAdmissionMaxWaitMs());
+    }
+
+    /**
+     * Take a run permit without blocking a thread.
+     */
+    public Mono<AdaptiveConcurrencyLimiter.Permit> acquireRunAsync() {
+        return runs.acquireAsync(config.getAdmissionMaxWaitMs());
+    }
+
+    AdaptiveConcurrencyLimiter limiterFor(HttpRequest request) {
+        String path = request.getUrl().getPath();
+        return path.contains("/runs") || path.contains("/messages") || path.contains("/files")
+            ? dataPlane : controlPlane;
+    }
+
+    AdaptiveConcurrencyLimiter runs() {
+        return runs;
+    }
+
+    long getMaxWaitMs() {
+        return config.getAdmissionMaxWaitMs();
+    }
+
+    private List<AdaptiveConcurrencyLimiter> limiters() {
+        return List.of(controlPlane, dataPlane, runs);
+    }
+
+    /**
+     * Log each budget's limit and how often it was throttled or turned callers away.
+     */
+    public void logSummary() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (AdaptiveConcurrencyLimiter limiter : limiters()) {
+            if (limiter.getThrottled() > 0 || limiter.getRejected() > 0) {
+                logger.info("Admission {}: limit {}, {} throttled, {} rejected", limiter.getName(),
+                    limiter.getLimit(), limiter.getThrottled(), limiter.getRejected());
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.foundry.client;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token credential that shares one access token per scope set across every client built
+ * from it and refreshes it before it expires.
+ *
+ * A refresh is scheduled {@code refreshBefore} ahead of each token's expiry, so requests
+ * keep using a valid cached token instead of waiting on Entra ID. Concurrent callers that
+ * find no usable token share a single acquisition. Requests carrying claims (CAE
+ * challenges) always go to the underlying credential.
+ */
+public class CachingTokenCredential implements TokenCredential, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingTokenCredential.class);
+
+    /** A cached token this close to expiry is not handed out */
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(30);
+
+    private static final class Entry {
+        volatile AccessToken token;
+        Mono<AccessToken> inflight;
+        Disposable scheduledRefresh;
+    }
+
+    private final TokenCredential delegate;
+    private final Duration refreshBefore;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param delegate      Credential that actually acquires tokens
+     * @param refreshBefore How long before expiry a token is refreshed in the background
+     */
+    public CachingTokenCredential(TokenCredential delegate, Duration refreshBefore) {
+        this.delegate = delegate;
+        this.refreshBefore = refreshBefore;
+    }
+
+    @Override
+    public Mono<AccessToken> getToken(TokenRequestContext request) {
+        if (request.getClaims() != null) {
+            return delegate.getToken(request);
+        }
+        Entry entry = entries.computeIfAbsent(key(request), key -> new Entry());
+        AccessToken token = entry.token;
+        if (token != null && isUsable(token)) {
+            return Mono.just(token);
+        }
+        return acquire(entry, request);
+    }
+
+    /**
+     * Number of tokens requested from the underlying credential.
+     */
+    public long getAcquisitionCount() {
+        return acquisitions.get();
+    }
+
+    private Mono<AccessToken> acquire(Entry entry, TokenRequestContext request) {
+        synchronized (entry) {
+            if (entry.inflight == null) {
+                entry.inflight = Mono.defer(() -> {
+                        acquisitions.incrementAndGet();
+                        return delegate.getToken(request);
+                    })
+                    .doOnNext(token -> {
+                        entry.token = token;
+                        scheduleRefresh(entry, request, token);
+                    })
+                    .doFinally(signal -> {
+                        synchronized (entry) {
+                            entry.inflight = null;
+                        }
+                    })
+                    .cache();
+            }
+            return entry.inflight;
+        }
+    }
+
+    private void scheduleRefresh(Entry entry, TokenRequestContext request, AccessToken token) {
+        long remainingMs = Duration.between(OffsetDateTime.now(), token.getExpiresAt()).toMillis();
+        long delayMs = remainingMs - refreshBefore.toMillis();
+        if (delayMs <= 0) {
+            // Short-lived token: refresh halfway through its lifetime instead
+            delayMs = remainingMs / 2;
+        }
+        synchronized (entry) {
+            if (entry.scheduledRefresh != null) {
+                entry.scheduledRefresh.dispose();
+            }
+            if (closed || delayMs < 1000) {
+                return;
+            }
+            entry.scheduledRefresh = Schedulers.parallel().schedule(() -> acquire(entry, request).subscribe(
+                refreshed -> logger.debug("Refreshed access token for {}, expires at {}",
+                    request.getScopes(), refreshed.getExpiresAt()),
+                error -> logger.warn("Background token refresh for {} failed: {}",
+                    request.getScopes(), error.getMessage())),
+                delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isUsable(AccessToken token) {
+        return token.getExpiresAt().isAfter(OffsetDateTime.now().plus(EXPIRY_SKEW));
+    }
+
+    private static String key(TokenRequestContext request) {
+        return String.join(" ", request.getScopes()) + "|" + request.getTenantId();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.scheduledRefresh != null) {
+                    entry.scheduledRefresh.dispose();
+                }
+            }
+        }
+    }
+}
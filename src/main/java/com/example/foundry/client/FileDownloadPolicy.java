@@ -0,0 +1,153 @@
+package com.example.foundry.client;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.FluxUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * HTTP pipeline policy that streams a response body straight into a file.
+ *
+ * The SDK buffers binary responses such as file contents on the heap. A request whose
+ * context carries a {@link Path} under {@link #TARGET} instead has its body written to that
+ * file through an {@link AsynchronousFileChannel} as it arrives, and the SDK receives an
+ * empty body. If the file already holds a prefix of the content, from an interrupted
+ * attempt or an earlier process, only the remainder is requested with a {@code Range}
+ * header; a server that ignores the range sends the whole body and the file is rewritten.
+ */
+public class FileDownloadPolicy implements HttpPipelinePolicy {
+
+    /** Context key of the file to write a response body to */
+    public static final String TARGET = "foundry-download-target";
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        Object target = context.getData(TARGET).orElse(null);
+        if (!(target instanceof Path path)) {
+            return next.process();
+        }
+        HttpRequest request = context.getHttpRequest();
+        long offset = existingLength(path);
+        if (offset > 0) {
+            request.setHeader(HttpHeaderName.RANGE, "bytes=" + offset + "-");
+        } else {
+            request.getHeaders().remove(HttpHeaderName.RANGE);
+        }
+        return next.process().flatMap(response -> {
+            int status = response.getStatusCode();
+            if (status == 416 && offset > 0) {
+                // The partial file is no prefix of the content; start over
+                deleteQuietly(path);
+                request.getHeaders().remove(HttpHeaderName.RANGE);
+                return response.getBody().then(next.clone().process()).flatMap(retry -> write(retry, path, 0));
+            }
+            return write(response, path, status == 206 ? offset : 0);
+        });
+    }
+
+    private static Mono<HttpResponse> write(HttpResponse response, Path path, long position) {
+        int status = response.getStatusCode();
+        if (status != 200 && status != 206) {
+            return Mono.just(response);
+        }
+        return Mono.using(
+                () -> position > 0
+                    ? AsynchronousFileChannel.open(path, StandardOpenOption.WRITE)
+                    : AsynchronousFileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING),
+                channel -> FluxUtil.writeFile(response.getBody(), channel, position),
+                FileDownloadPolicy::closeQuietly)
+            .then(Mono.<HttpResponse>fromSupplier(() -> new WrittenResponse(response)));
+    }
+
+    private static long existingLength(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Rewritten from the start with TRUNCATE_EXISTING anyway
+        }
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to flush
+        }
+    }
+
+    /**
+     * The original status and headers with an empty body, which has gone to the file.
+     */
+    private static final class WrittenResponse extends HttpResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+
+        WrittenResponse(HttpResponse original) {
+            super(original.getRequest());
+            this.status = original.getStatusCode();
+            this.headers = new HttpHeaders().setAllHttpHeaders(original.getHeaders())
+                .set(HttpHeaderName.CONTENT_LENGTH, "0");
+        }
+
+        @Override
+        public int getStatusCode() {
+            return status;
+        }
+
+        @Override
+        @Deprecated
+        public String getHeaderValue(String name) {
+            return headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.just(new byte[0]);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.just("");
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.just("");
+        }
+    }
+}
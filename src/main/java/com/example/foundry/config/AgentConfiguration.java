@@ -18,6 +18,105 @@ public class AgentConfiguration {
     private boolean httpLoggingEnabled = false;
     private boolean httpLogRequestBody = false;
     private boolean httpLogResponseBody = false;
+    private double httpLogSampleRate = 1.0;
+    private long httpLogSlowThresholdMs = 0;
+    private int httpLogMaxBodyBytes = 4096;
+    private int httpLogBufferCapacity = 1024;
+    private int httpMaxConnections = 100;
+    private long httpPendingAcquireTimeoutMs = 45000;
+    private long httpMaxIdleTimeMs = 60000;
+    private boolean httpKeepAlive = true;
+    private boolean httpHttp2Enabled = false;
+    private long httpConnectTimeoutMs = 10000;
+    private long httpResponseTimeoutMs = 60000;
+    private long httpReadTimeoutMs = 60000;
+    private long httpWriteTimeoutMs = 60000;
+    private String httpProxyUrl = "";
+    private int httpPrewarmConnections = 2;
+    private long tokenRefreshBeforeExpiryMs = 300000;
+    private boolean clientPreinitEnabled = true;
+    private boolean runStreamingEnabled = true;
+    private boolean reactiveModeEnabled = false;
+    private long pollInitialIntervalMs = 250;
+    private long pollMaxIntervalMs = 5000;
+    private double pollBackoffMultiplier = 1.5;
+    private double pollJitter = 0.2;
+    private long runSchedulerTickMs = 10;
+    private int runSchedulerWheelSize = 512;
+    private int runPollConcurrency = 16;
+    private long runTimeoutMs = 300000;
+    private long requestDeadlineMs = 0;
+    private double requestDeadlineCreateShare = 0.2;
+    private boolean runCancelEnabled = true;
+    private long runCancelWaitMs = 10000;
+    private String batchInput;
+    private String batchOutput = "batch-results.jsonl";
+    private int batchConcurrency = 16;
+    private int messagePageSize = 20;
+    private int messageCacheMaxThreads = 1024;
+    private int messageCacheMaxMessagesPerThread = 100;
+    private String imageDownloadDir = "";
+    private int imageDownloadConcurrency = 4;
+    private boolean journalEnabled = true;
+    private String journalFile = ".conversation-journal";
+    private String pythonCommand = "python";
+    private boolean pythonWorkerPoolEnabled = true;
+    private int pythonWorkerPoolSize = 4;
+    private int pythonWorkerMaxExecutions = 100;
+    private int pythonWorkerMaxMemoryMb = 512;
+    private long pythonWorkerHealthCheckIntervalMs = 30000;
+    private String pythonWorkerPreloadModules = "numpy,matplotlib.pyplot";
+    private long pythonExecutionTimeoutMs = 60000;
+    private int toolExecutionConcurrency = 8;
+    private long toolCallTimeoutMs = 90000;
+    private int toolOutputMaxBytes = 65536;
+    private long pythonCpuTimeoutMs = 30000;
+    private String toolCacheTools = "";
+    private long toolCacheMemoryMaxBytes = 16777216;
+    private boolean toolCacheDiskEnabled = false;
+    private String toolCacheDiskDirectory = ".tool-cache";
+    private long toolCacheDiskMaxBytes = 268435456;
+    private int toolCacheDiskIndexSlots = 65536;
+    private boolean responseCacheEnabled = false;
+    private long responseCacheTtlMs = 86400000;
+    private long responseCacheMemoryMaxBytes = 4194304;
+    private int responseCacheInlineMaxBytes = 4096;
+    private String responseCacheDiskDirectory = ".response-cache";
+    private long responseCacheDiskMaxBytes = 268435456;
+    private int responseCacheDiskIndexSlots = 16384;
+    private boolean agentCacheEnabled = false;
+    private String agentCacheFile = ".agent-cache.json";
+    private int cleanupConcurrency = 8;
+    private double cleanupRatePerSecond = 20.0;
+    private int cleanupMaxRetries = 5;
+    private boolean cleanupInBackground = false;
+    private long cleanupShutdownTimeoutMs = 30000;
+    private boolean metricsEnabled = true;
+    private String metricsSnapshotFile = "";
+    private long metricsSnapshotIntervalMs = 10000;
+    private boolean runProfilerEnabled = false;
+    private String runProfilerTraceFile = "";
+    private int runProfilerMaxRuns = 1000;
+    private boolean serverModeEnabled = false;
+    private String serverHost = "localhost";
+    private int serverPort = 8080;
+    private int serverWarmThreads = 4;
+    private boolean admissionControlEnabled = true;
+    private int admissionControlPlaneLimit = 16;
+    private int admissionDataPlaneLimit = 64;
+    private int admissionRunLimit = 32;
+    private int admissionMinLimit = 1;
+    private double admissionBackoffRatio = 0.7;
+    private long admissionMaxWaitMs = 120000;
+    private boolean fakeServiceEnabled = false;
+    private int fakeServicePort = 0;
+    private String fakeServiceLatency = "lognormal:50,400";
+    private double fakeServiceThrottleRate = 0.0;
+    private double fakeServiceFailureRate = 0.0;
+    private long fakeServiceRetryAfterMs = 100;
+    private String loadTestConcurrencyLevels = "";
+    private int loadTestRequestsPerLevel = 50;
+    private String loadTestOutput = "load-test-results.csv";
     
     // Getters and setters
     public String getProjectEndpoint() {
@@ -75,4 +174,796 @@ public class AgentConfiguration {
     public void setHttpLogResponseBody(boolean httpLogResponseBody) {
         this.httpLogResponseBody = httpLogResponseBody;
     }
+
+    public double getHttpLogSampleRate() {
+        return httpLogSampleRate;
+    }
+
+    public void setHttpLogSampleRate(double httpLogSampleRate) {
+        this.httpLogSampleRate = httpLogSampleRate;
+    }
+
+    public long getHttpLogSlowThresholdMs() {
+        return httpLogSlowThresholdMs;
+    }
+
+    public void setHttpLogSlowThresholdMs(long httpLogSlowThresholdMs) {
+        this.httpLogSlowThresholdMs = httpLogSlowThresholdMs;
+    }
+
+    public int getHttpLogMaxBodyBytes() {
+        return httpLogMaxBodyBytes;
+    }
+
+    public void setHttpLogMaxBodyBytes(int httpLogMaxBodyBytes) {
+        this.httpLogMaxBodyBytes = httpLogMaxBodyBytes;
+    }
+
+    public int getHttpLogBufferCapacity() {
+        return httpLogBufferCapacity;
+    }
+
+    public void setHttpLogBufferCapacity(int httpLogBufferCapacity) {
+        this.httpLogBufferCapacity = httpLogBufferCapacity;
+    }
+    
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+    
+    public void setHttpMaxConnections(int httpMaxConnections) {
+        this.httpMaxConnections = httpMaxConnections;
+    }
+    
+    public long getHttpPendingAcquireTimeoutMs() {
+        return httpPendingAcquireTimeoutMs;
+    }
+    
+    public void setHttpPendingAcquireTimeoutMs(long httpPendingAcquireTimeoutMs) {
+        this.httpPendingAcquireTimeoutMs = httpPendingAcquireTimeoutMs;
+    }
+    
+    public long getHttpMaxIdleTimeMs() {
+        return httpMaxIdleTimeMs;
+    }
+    
+    public void setHttpMaxIdleTimeMs(long httpMaxIdleTimeMs) {
+        this.httpMaxIdleTimeMs = httpMaxIdleTimeMs;
+    }
+    
+    public boolean isHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+    
+    public void setHttpKeepAlive(boolean httpKeepAlive) {
+        this.httpKeepAlive = httpKeepAlive;
+    }
+    
+    public boolean isHttpHttp2Enabled() {
+        return httpHttp2Enabled;
+    }
+    
+    public void setHttpHttp2Enabled(boolean httpHttp2Enabled) {
+        this.httpHttp2Enabled = httpHttp2Enabled;
+    }
+    
+    public long getHttpConnectTimeoutMs() {
+        return httpConnectTimeoutMs;
+    }
+    
+    public void setHttpConnectTimeoutMs(long httpConnectTimeoutMs) {
+        this.httpConnectTimeoutMs = httpConnectTimeoutMs;
+    }
+    
+    public long getHttpResponseTimeoutMs() {
+        return httpResponseTimeoutMs;
+    }
+    
+    public void setHttpResponseTimeoutMs(long httpResponseTimeoutMs) {
+        this.httpResponseTimeoutMs = httpResponseTimeoutMs;
+    }
+    
+    public long getHttpReadTimeoutMs() {
+        return httpReadTimeoutMs;
+    }
+    
+    public void setHttpReadTimeoutMs(long httpReadTimeoutMs) {
+        this.httpReadTimeoutMs = httpReadTimeoutMs;
+    }
+    
+    public long getHttpWriteTimeoutMs() {
+        return httpWriteTimeoutMs;
+    }
+    
+    public void setHttpWriteTimeoutMs(long httpWriteTimeoutMs) {
+        this.httpWriteTimeoutMs = httpWriteTimeoutMs;
+    }
+    
+    public String getHttpProxyUrl() {
+        return httpProxyUrl;
+    }
+    
+    public void setHttpProxyUrl(String httpProxyUrl) {
+        this.httpProxyUrl = httpProxyUrl;
+    }
+    
+    public int getHttpPrewarmConnections() {
+        return httpPrewarmConnections;
+    }
+    
+    public void setHttpPrewarmConnections(int httpPrewarmConnections) {
+        this.httpPrewarmConnections = httpPrewarmConnections;
+    }
+    
+    public long getTokenRefreshBeforeExpiryMs() {
+        return tokenRefreshBeforeExpiryMs;
+    }
+    
+    public void setTokenRefreshBeforeExpiryMs(long tokenRefreshBeforeExpiryMs) {
+        this.tokenRefreshBeforeExpiryMs = tokenRefreshBeforeExpiryMs;
+    }
+    
+    public boolean isClientPreinitEnabled() {
+        return clientPreinitEnabled;
+    }
+    
+    public void setClientPreinitEnabled(boolean clientPreinitEnabled) {
+        this.clientPreinitEnabled = clientPreinitEnabled;
+    }
+    
+    public boolean isRunStreamingEnabled() {
+        return runStreamingEnabled;
+    }
+    
+    public void setRunStreamingEnabled(boolean runStreamingEnabled) {
+        this.runStreamingEnabled = runStreamingEnabled;
+    }
+    
+    public boolean isReactiveModeEnabled() {
+        return reactiveModeEnabled;
+    }
+    
+    public void setReactiveModeEnabled(boolean reactiveModeEnabled) {
+        this.reactiveModeEnabled = reactiveModeEnabled;
+    }
+    
+    public long getPollInitialIntervalMs() {
+        return pollInitialIntervalMs;
+    }
+    
+    public void setPollInitialIntervalMs(long pollInitialIntervalMs) {
+        this.pollInitialIntervalMs = pollInitialIntervalMs;
+    }
+    
+    public long getPollMaxIntervalMs() {
+        return pollMaxIntervalMs;
+    }
+    
+    public void setPollMaxIntervalMs(long pollMaxIntervalMs) {
+        this.pollMaxIntervalMs = pollMaxIntervalMs;
+    }
+    
+    public double getPollBackoffMultiplier() {
+        return pollBackoffMultiplier;
+    }
+    
+    public void setPollBackoffMultiplier(double pollBackoffMultiplier) {
+        this.pollBackoffMultiplier = pollBackoffMultiplier;
+    }
+    
+    public double getPollJitter() {
+        return pollJitter;
+    }
+    
+    public void setPollJitter(double pollJitter) {
+        this.pollJitter = pollJitter;
+    }
+    
+    public long getRunSchedulerTickMs() {
+        return runSchedulerTickMs;
+    }
+    
+    public void setRunSchedulerTickMs(long runSchedulerTickMs) {
+        this.runSchedulerTickMs = runSchedulerTickMs;
+    }
+    
+    public int getRunSchedulerWheelSize() {
+        return runSchedulerWheelSize;
+    }
+    
+    public void setRunSchedulerWheelSize(int runSchedulerWheelSize) {
+        this.runSchedulerWheelSize = runSchedulerWheelSize;
+    }
+    
+    public int getRunPollConcurrency() {
+        return runPollConcurrency;
+    }
+    
+    public void setRunPollConcurrency(int runPollConcurrency) {
+        this.runPollConcurrency = runPollConcurrency;
+    }
+    
+    public long getRunTimeoutMs() {
+        return runTimeoutMs;
+    }
+    
+    public void setRunTimeoutMs(long runTimeoutMs) {
+        this.runTimeoutMs = runTimeoutMs;
+    }
+    
+    public long getRequestDeadlineMs() {
+        return requestDeadlineMs;
+    }
+    
+    public void setRequestDeadlineMs(long requestDeadlineMs) {
+        this.requestDeadlineMs = requestDeadlineMs;
+    }
+    
+    public double getRequestDeadlineCreateShare() {
+        return requestDeadlineCreateShare;
+    }
+    
+    public void setRequestDeadlineCreateShare(double requestDeadlineCreateShare) {
+        this.requestDeadlineCreateShare = requestDeadlineCreateShare;
+    }
+    
+    public boolean isRunCancelEnabled() {
+        return runCancelEnabled;
+    }
+    
+    public void setRunCancelEnabled(boolean runCancelEnabled) {
+        this.runCancelEnabled = runCancelEnabled;
+    }
+    
+    public long getRunCancelWaitMs() {
+        return runCancelWaitMs;
+    }
+    
+    public void setRunCancelWaitMs(long runCancelWaitMs) {
+        this.runCancelWaitMs = runCancelWaitMs;
+    }
+    
+    public String getBatchInput() {
+        return batchInput;
+    }
+    
+    public void setBatchInput(String batchInput) {
+        this.batchInput = batchInput;
+    }
+    
+    public String getBatchOutput() {
+        return batchOutput;
+    }
+    
+    public void setBatchOutput(String batchOutput) {
+        this.batchOutput = batchOutput;
+    }
+    
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+    
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+    
+    public int getMessagePageSize() {
+        return messagePageSize;
+    }
+    
+    public void setMessagePageSize(int messagePageSize) {
+        this.messagePageSize = messagePageSize;
+    }
+    
+    public int getMessageCacheMaxThreads() {
+        return messageCacheMaxThreads;
+    }
+    
+    public void setMessageCacheMaxThreads(int messageCacheMaxThreads) {
+        this.messageCacheMaxThreads = messageCacheMaxThreads;
+    }
+    
+    public int getMessageCacheMaxMessagesPerThread() {
+        return messageCacheMaxMessagesPerThread;
+    }
+    
+    public void setMessageCacheMaxMessagesPerThread(int messageCacheMaxMessagesPerThread) {
+        this.messageCacheMaxMessagesPerThread = messageCacheMaxMessagesPerThread;
+    }
+    
+    public String getImageDownloadDir() {
+        return imageDownloadDir;
+    }
+    
+    public void setImageDownloadDir(String imageDownloadDir) {
+        this.imageDownloadDir = imageDownloadDir;
+    }
+    
+    public int getImageDownloadConcurrency() {
+        return imageDownloadConcurrency;
+    }
+    
+    public void setImageDownloadConcurrency(int imageDownloadConcurrency) {
+        this.imageDownloadConcurrency = imageDownloadConcurrency;
+    }
+    
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+    
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+    
+    public String getJournalFile() {
+        return journalFile;
+    }
+    
+    public void setJournalFile(String journalFile) {
+        this.journalFile = journalFile;
+    }
+    
+    public String getPythonCommand() {
+        return pythonCommand;
+    }
+    
+    public void setPythonCommand(String pythonCommand) {
+        this.pythonCommand = pythonCommand;
+    }
+    
+    public boolean isPythonWorkerPoolEnabled() {
+        return pythonWorkerPoolEnabled;
+    }
+    
+    public void setPythonWorkerPoolEnabled(boolean pythonWorkerPoolEnabled) {
+        this.pythonWorkerPoolEnabled = pythonWorkerPoolEnabled;
+    }
+    
+    public int getPythonWorkerPoolSize() {
+        return pythonWorkerPoolSize;
+    }
+    
+    public void setPythonWorkerPoolSize(int pythonWorkerPoolSize) {
+        this.pythonWorkerPoolSize = pythonWorkerPoolSize;
+    }
+    
+    public int getPythonWorkerMaxExecutions() {
+        return pythonWorkerMaxExecutions;
+    }
+    
+    public void setPythonWorkerMaxExecutions(int pythonWorkerMaxExecutions) {
+        this.pythonWorkerMaxExecutions = pythonWorkerMaxExecutions;
+    }
+    
+    public int getPythonWorkerMaxMemoryMb() {
+        return pythonWorkerMaxMemoryMb;
+    }
+    
+    public void setPythonWorkerMaxMemoryMb(int pythonWorkerMaxMemoryMb) {
+        this.pythonWorkerMaxMemoryMb = pythonWorkerMaxMemoryMb;
+    }
+    
+    public long getPythonWorkerHealthCheckIntervalMs() {
+        return pythonWorkerHealthCheckIntervalMs;
+    }
+    
+    public void setPythonWorkerHealthCheckIntervalMs(long pythonWorkerHealthCheckIntervalMs) {
+        this.pythonWorkerHealthCheckIntervalMs = pythonWorkerHealthCheckIntervalMs;
+    }
+    
+    public String getPythonWorkerPreloadModules() {
+        return pythonWorkerPreloadModules;
+    }
+    
+    public void setPythonWorkerPreloadModules(String pythonWorkerPreloadModules) {
+        this.pythonWorkerPreloadModules = pythonWorkerPreloadModules;
+    }
+    
+    public long getPythonExecutionTimeoutMs() {
+        return pythonExecutionTimeoutMs;
+    }
+    
+    public void setPythonExecutionTimeoutMs(long pythonExecutionTimeoutMs) {
+        this.pythonExecutionTimeoutMs = pythonExecutionTimeoutMs;
+    }
+    
+    public int getToolExecutionConcurrency() {
+        return toolExecutionConcurrency;
+    }
+    
+    public void setToolExecutionConcurrency(int toolExecutionConcurrency) {
+        this.toolExecutionConcurrency = toolExecutionConcurrency;
+    }
+    
+    public long getToolCallTimeoutMs() {
+        return toolCallTimeoutMs;
+    }
+    
+    public void setToolCallTimeoutMs(long toolCallTimeoutMs) {
+        this.toolCallTimeoutMs = toolCallTimeoutMs;
+    }
+    
+    public int getToolOutputMaxBytes() {
+        return toolOutputMaxBytes;
+    }
+    
+    public void setToolOutputMaxBytes(int toolOutputMaxBytes) {
+        this.toolOutputMaxBytes = toolOutputMaxBytes;
+    }
+    
+    public long getPythonCpuTimeoutMs() {
+        return pythonCpuTimeoutMs;
+    }
+    
+    public void setPythonCpuTimeoutMs(long pythonCpuTimeoutMs) {
+        this.pythonCpuTimeoutMs = pythonCpuTimeoutMs;
+    }
+    
+    public String getToolCacheTools() {
+        return toolCacheTools;
+    }
+    
+    public void setToolCacheTools(String toolCacheTools) {
+        this.toolCacheTools = toolCacheTools;
+    }
+    
+    public long getToolCacheMemoryMaxBytes() {
+        return toolCacheMemoryMaxBytes;
+    }
+    
+    public void setToolCacheMemoryMaxBytes(long toolCacheMemoryMaxBytes) {
+        this.toolCacheMemoryMaxBytes = toolCacheMemoryMaxBytes;
+    }
+    
+    public boolean isToolCacheDiskEnabled() {
+        return toolCacheDiskEnabled;
+    }
+    
+    public void setToolCacheDiskEnabled(boolean toolCacheDiskEnabled) {
+        this.toolCacheDiskEnabled = toolCacheDiskEnabled;
+    }
+    
+    public String getToolCacheDiskDirectory() {
+        return toolCacheDiskDirectory;
+    }
+    
+    public void setToolCacheDiskDirectory(String toolCacheDiskDirectory) {
+        this.toolCacheDiskDirectory = toolCacheDiskDirectory;
+    }
+    
+    public long getToolCacheDiskMaxBytes() {
+        return toolCacheDiskMaxBytes;
+    }
+    
+    public void setToolCacheDiskMaxBytes(long toolCacheDiskMaxBytes) {
+        this.toolCacheDiskMaxBytes = toolCacheDiskMaxBytes;
+    }
+    
+    public int getToolCacheDiskIndexSlots() {
+        return toolCacheDiskIndexSlots;
+    }
+    
+    public void setToolCacheDiskIndexSlots(int toolCacheDiskIndexSlots) {
+        this.toolCacheDiskIndexSlots = toolCacheDiskIndexSlots;
+    }
+    
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+    
+    public void setResponseCacheEnabled(boolean responseCacheEnabled) {
+        this.responseCacheEnabled = responseCacheEnabled;
+    }
+    
+    public long getResponseCacheTtlMs() {
+        return responseCacheTtlMs;
+    }
+    
+    public void setResponseCacheTtlMs(long responseCacheTtlMs) {
+        this.responseCacheTtlMs = responseCacheTtlMs;
+    }
+    
+    public long getResponseCacheMemoryMaxBytes() {
+        return responseCacheMemoryMaxBytes;
+    }
+    
+    public void setResponseCacheMemoryMaxBytes(long responseCacheMemoryMaxBytes) {
+        this.responseCacheMemoryMaxBytes = responseCacheMemoryMaxBytes;
+    }
+    
+    public int getResponseCacheInlineMaxBytes() {
+        return responseCacheInlineMaxBytes;
+    }
+    
+    public void setResponseCacheInlineMaxBytes(int responseCacheInlineMaxBytes) {
+        this.responseCacheInlineMaxBytes = responseCacheInlineMaxBytes;
+    }
+    
+    public String getResponseCacheDiskDirectory() {
+        return responseCacheDiskDirectory;
+    }
+    
+    public void setResponseCacheDiskDirectory(String responseCacheDiskDirectory) {
+        this.responseCacheDiskDirectory = responseCacheDiskDirectory;
+    }
+    
+    public long getResponseCacheDiskMaxBytes() {
+        return responseCacheDiskMaxBytes;
+    }
+    
+    public void setResponseCacheDiskMaxBytes(long responseCacheDiskMaxBytes) {
+        this.responseCacheDiskMaxBytes = responseCacheDiskMaxBytes;
+    }
+    
+    public int getResponseCacheDiskIndexSlots() {
+        return responseCacheDiskIndexSlots;
+    }
+    
+    public void setResponseCacheDiskIndexSlots(int responseCacheDiskIndexSlots) {
+        this.responseCacheDiskIndexSlots = responseCacheDiskIndexSlots;
+    }
+    
+    public boolean isAgentCacheEnabled() {
+        return agentCacheEnabled;
+    }
+    
+    public void setAgentCacheEnabled(boolean agentCacheEnabled) {
+        this.agentCacheEnabled = agentCacheEnabled;
+    }
+    
+    public String getAgentCacheFile() {
+        return agentCacheFile;
+    }
+    
+    public void setAgentCacheFile(String agentCacheFile) {
+        this.agentCacheFile = agentCacheFile;
+    }
+    
+    public int getCleanupConcurrency() {
+        return cleanupConcurrency;
+    }
+    
+    public void setCleanupConcurrency(int cleanupConcurrency) {
+        this.cleanupConcurrency = cleanupConcurrency;
+    }
+    
+    public double getCleanupRatePerSecond() {
+        return cleanupRatePerSecond;
+    }
+    
+    public void setCleanupRatePerSecond(double cleanupRatePerSecond) {
+        this.cleanupRatePerSecond = cleanupRatePerSecond;
+    }
+    
+    public int getCleanupMaxRetries() {
+        return cleanupMaxRetries;
+    }
+    
+    public void setCleanupMaxRetries(int cleanupMaxRetries) {
+        this.cleanupMaxRetries = cleanupMaxRetries;
+    }
+    
+    public boolean isCleanupInBackground() {
+        return cleanupInBackground;
+    }
+    
+    public void setCleanupInBackground(boolean cleanupInBackground) {
+        this.cleanupInBackground = cleanupInBackground;
+    }
+    
+    public long getCleanupShutdownTimeoutMs() {
+        return cleanupShutdownTimeoutMs;
+    }
+    
+    public void setCleanupShutdownTimeoutMs(long cleanupShutdownTimeoutMs) {
+        this.cleanupShutdownTimeoutMs = cleanupShutdownTimeoutMs;
+    }
+    
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+    
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+    
+    public String getMetricsSnapshotFile() {
+        return metricsSnapshotFile;
+    }
+    
+    public void setMetricsSnapshotFile(String metricsSnapshotFile) {
+        this.metricsSnapshotFile = metricsSnapshotFile;
+    }
+    
+    public long getMetricsSnapshotIntervalMs() {
+        return metricsSnapshotIntervalMs;
+    }
+    
+    public void setMetricsSnapshotIntervalMs(long metricsSnapshotIntervalMs) {
+        this.metricsSnapshotIntervalMs = metricsSnapshotIntervalMs;
+    }
+    
+    public boolean isRunProfilerEnabled() {
+        return runProfilerEnabled;
+    }
+    
+    public void setRunProfilerEnabled(boolean runProfilerEnabled) {
+        this.runProfilerEnabled = runProfilerEnabled;
+    }
+    
+    public String getRunProfilerTraceFile() {
+        return runProfilerTraceFile;
+    }
+    
+    public void setRunProfilerTraceFile(String runProfilerTraceFile) {
+        this.runProfilerTraceFile = runProfilerTraceFile;
+    }
+    
+    public int getRunProfilerMaxRuns() {
+        return runProfilerMaxRuns;
+    }
+    
+    public void setRunProfilerMaxRuns(int runProfilerMaxRuns) {
+        this.runProfilerMaxRuns = runProfilerMaxRuns;
+    }
+    
+    public boolean isServerModeEnabled() {
+        return serverModeEnabled;
+    }
+    
+    public void setServerModeEnabled(boolean serverModeEnabled) {
+        this.serverModeEnabled = serverModeEnabled;
+    }
+    
+    public String getServerHost() {
+        return serverHost;
+    }
+    
+    public void setServerHost(String serverHost) {
+        this.serverHost = serverHost;
+    }
+    
+    public int getServerPort() {
+        return serverPort;
+    }
+    
+    public void setServerPort(int serverPort) {
+        this.serverPort = serverPort;
+    }
+    
+    public int getServerWarmThreads() {
+        return serverWarmThreads;
+    }
+    
+    public void setServerWarmThreads(int serverWarmThreads) {
+        this.serverWarmThreads = serverWarmThreads;
+    }
+    
+    public boolean isAdmissionControlEnabled() {
+        return admissionControlEnabled;
+    }
+    
+    public void setAdmissionControlEnabled(boolean admissionControlEnabled) {
+        this.admissionControlEnabled = admissionControlEnabled;
+    }
+    
+    public int getAdmissionControlPlaneLimit() {
+        return admissionControlPlaneLimit;
+    }
+    
+    public void setAdmissionControlPlaneLimit(int admissionControlPlaneLimit) {
+        this.admissionControlPlaneLimit = admissionControlPlaneLimit;
+    }
+    
+    public int getAdmissionDataPlaneLimit() {
+        return admissionDataPlaneLimit;
+    }
+    
+    public void setAdmissionDataPlaneLimit(int admissionDataPlaneLimit) {
+        this.admissionDataPlaneLimit = admissionDataPlaneLimit;
+    }
+    
+    public int getAdmissionRunLimit() {
+        return admissionRunLimit;
+    }
+    
+    public void setAdmissionRunLimit(int admissionRunLimit) {
+        this.admissionRunLimit = admissionRunLimit;
+    }
+    
+    public int getAdmissionMinLimit() {
+        return admissionMinLimit;
+    }
+    
+    public void setAdmissionMinLimit(int admissionMinLimit) {
+        this.admissionMinLimit = admissionMinLimit;
+    }
+    
+    public double getAdmissionBackoffRatio() {
+        return admissionBackoffRatio;
+    }
+    
+    public void setAdmissionBackoffRatio(double admissionBackoffRatio) {
+        this.admissionBackoffRatio = admissionBackoffRatio;
+    }
+    
+    public long getAdmissionMaxWaitMs() {
+        return admissionMaxWaitMs;
+    }
+    
+    public void setAdmissionMaxWaitMs(long admissionMaxWaitMs) {
+        this.admissionMaxWaitMs = admissionMaxWaitMs;
+    }
+    
+    public boolean isFakeServiceEnabled() {
+        return fakeServiceEnabled;
+    }
+    
+    public void setFakeServiceEnabled(boolean fakeServiceEnabled) {
+        this.fakeServiceEnabled = fakeServiceEnabled;
+    }
+    
+    public int getFakeServicePort() {
+        return fakeServicePort;
+    }
+    
+    public void setFakeServicePort(int fakeServicePort) {
+        this.fakeServicePort = fakeServicePort;
+    }
+    
+    public String getFakeServiceLatency() {
+        return fakeServiceLatency;
+    }
+    
+    public void setFakeServiceLatency(String fakeServiceLatency) {
+        this.fakeServiceLatency = fakeServiceLatency;
+    }
+    
+    public double getFakeServiceThrottleRate() {
+        return fakeServiceThrottleRate;
+    }
+    
+    public void setFakeServiceThrottleRate(double fakeServiceThrottleRate) {
+        this.fakeServiceThrottleRate = fakeServiceThrottleRate;
+    }
+    
+    public double getFakeServiceFailureRate() {
+        return fakeServiceFailureRate;
+    }
+    
+    public void setFakeServiceFailureRate(double fakeServiceFailureRate) {
+        this.fakeServiceFailureRate = fakeServiceFailureRate;
+    }
+    
+    public long getFakeServiceRetryAfterMs() {
+        return fakeServiceRetryAfterMs;
+    }
+    
+    public void setFakeServiceRetryAfterMs(long fakeServiceRetryAfterMs) {
+        this.fakeServiceRetryAfterMs = fakeServiceRetryAfterMs;
+    }
+    
+    public String getLoadTestConcurrencyLevels() {
+        return loadTestConcurrencyLevels;
+    }
+    
+    public void setLoadTestConcurrencyLevels(String loadTestConcurrencyLevels) {
+        this.loadTestConcurrencyLevels = loadTestConcurrencyLevels;
+    }
+    
+    public int getLoadTestRequestsPerLevel() {
+        return loadTestRequestsPerLevel;
+    }
+    
+    public void setLoadTestRequestsPerLevel(int loadTestRequestsPerLevel) {
+        this.loadTestRequestsPerLevel = loadTestRequestsPerLevel;
+    }
+    
+    public String getLoadTestOutput() {
+        return loadTestOutput;
+    }
+    
+    public void setLoadTestOutput(String loadTestOutput) {
+        this.loadTestOutput = loadTestOutput;
+    }
 }
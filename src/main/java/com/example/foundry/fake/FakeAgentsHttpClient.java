@@ -0,0 +1,98 @@
+package com.example.foundry.fake;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.BinaryData;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Azure {@link HttpClient} that answers requests from a {@link FakeAgentsService} without
+ * any network I/O, so the real SDK client can be driven entirely in-process.
+ */
+public class FakeAgentsHttpClient implements HttpClient {
+
+    private final FakeAgentsService service;
+
+    public FakeAgentsHttpClient(FakeAgentsService service) {
+        this.service = service;
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        return Mono.fromSupplier(() -> {
+            BinaryData body = request.getBodyAsBinaryData();
+            FakeAgentsService.Response response = service.handle(request.getHttpMethod().toString(),
+                request.getUrl().getFile(), body != null ? body.toString() : null,
+                request.getHeaders().getValue(HttpHeaderName.RANGE));
+            return new FakeHttpResponse(request, response);
+        });
+    }
+
+    /**
+     * Fully buffered response carrying a {@link FakeAgentsService.Response}.
+     */
+    static final class FakeHttpResponse extends HttpResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        FakeHttpResponse(HttpRequest request, FakeAgentsService.Response response) {
+            super(request);
+            this.status = response.status();
+            this.body = response.body().getBytes(StandardCharsets.UTF_8);
+            this.headers = new HttpHeaders()
+                .set(HttpHeaderName.CONTENT_TYPE, response.contentType())
+                .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(body.length));
+        }
+
+        @Override
+        public int getStatusCode() {
+            return status;
+        }
+
+        @Override
+        @Deprecated
+        public String getHeaderValue(String name) {
+            return headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.just(ByteBuffer.wrap(body));
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.just(body);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.just(new String(body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.just(new String(body, charset));
+        }
+
+        @Override
+        public BinaryData getBodyAsBinaryData() {
+            return BinaryData.fromBytes(body);
+        }
+    }
+}
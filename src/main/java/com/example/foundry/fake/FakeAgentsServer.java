@@ -0,0 +1,175 @@
+package com.example.foundry.fake;
+
+import com.azure.ai.agents.persistent.PersistentAgentsClientBuilder;
+import com.azure.core.credential.AccessToken;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Netty HTTP server exposing a {@link FakeAgentsService} on localhost, so the
+ * application can be load-tested without a Foundry project.
+ *
+ * Every request is delayed by a latency drawn from the configured distribution and may
+ * then be rejected with 429 (with a {@code retry-after-ms} header) or fail with 500
+ * before it reaches the fake service. The server speaks plain HTTP; the SDK only sends
+ * bearer tokens over HTTPS, so clients use {@link #clientBuilder()}, whose HTTP client
+ * rewrites the scheme just before each request goes on the wire.
+ */
+public class FakeAgentsServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeAgentsServer.class);
+
+    /**
+     * Injected latency and faults.
+     *
+     * @param latency      Delay added to every request
+     * @param throttleRate Fraction of requests answered with 429
+     * @param failureRate  Fraction of requests answered with 500
+     * @param retryAfterMs Value of the {@code retry-after-ms} header on 429 responses
+     */
+    public record Faults(LatencyDistribution latency, double throttleRate, double failureRate, long retryAfterMs) {
+
+        public static final Faults NONE = new Faults(LatencyDistribution.NONE, 0, 0, 0);
+    }
+
+    public record Stats(long requests, long throttled, long failed) {
+    }
+
+    private final FakeAgentsService service;
+    private final Faults faults;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private DisposableServer server;
+
+    public FakeAgentsServer(FakeAgentsService service, Faults faults) {
+        this.service = service;
+        this.faults = faults;
+    }
+
+    /**
+     * Bind the server on localhost.
+     *
+     * @param port Port to listen on, or 0 for an ephemeral port
+     */
+    public FakeAgentsServer start(int port) {
+        server = HttpServer.create()
+            .host("localhost")
+            .port(port)
+            .handle(this::handle)
+            .bindNow();
+        logger.info("Fake agents service listening on port {} (latency {}, throttle rate {}, failure rate {})",
+            server.port(), faults.latency(), faults.throttleRate(), faults.failureRate());
+        return this;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+    /**
+     * Project endpoint to configure clients with.
+     */
+    public String getEndpoint() {
+        return "https://localhost:" + getPort() + "/api/projects/fake";
+    }
+
+    public Stats getStats() {
+        return new Stats(requests.get(), throttled.get(), failed.get());
+    }
+
+    /**
+     * A client builder pointed at this server with a static token.
+     */
+    public PersistentAgentsClientBuilder clientBuilder() {
+        return clientBuilder(HttpClient.createDefault());
+    }
+
+    /**
+     * A client builder pointed at this server that sends requests through the given transport.
+     */
+    public PersistentAgentsClientBuilder clientBuilder(HttpClient transport) {
+        return new PersistentAgentsClientBuilder()
+            .endpoint(getEndpoint())
+            .credential(request -> Mono.just(new AccessToken("fake-token", OffsetDateTime.now().plusHours(1))))
+            .httpClient(new PlainHttpClient(transport));
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        long delayMs = faults.latency().sampleMs();
+        Mono<String> body = request.receive().aggregate().asString(StandardCharsets.UTF_8).defaultIfEmpty("");
+        if (delayMs > 0) {
+            body = body.delayElement(Duration.ofMillis(delayMs));
+        }
+        return body.flatMap(content -> {
+            FakeAgentsService.Response result;
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < faults.throttleRate()) {
+                throttled.incrementAndGet();
+                response.header("retry-after-ms", String.valueOf(faults.retryAfterMs()));
+                result = FakeAgentsService.error(429, "rate_limit_exceeded", "Rate limit is exceeded.");
+            } else if (roll < faults.throttleRate() + faults.failureRate()) {
+                failed.incrementAndGet();
+                result = FakeAgentsService.error(500, "server_error", "Injected failure.");
+            } else {
+                result = service.handle(request.method().name(), request.uri(), content,
+                    request.requestHeaders().get("Range"));
+            }
+            return response.status(HttpResponseStatus.valueOf(result.status()))
+                .header("content-type", result.contentType())
+                .sendString(Mono.just(result.body()))
+                .then();
+        });
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    /**
+     * Sends HTTPS requests to the plain-HTTP server. The request is copied so a retried
+     * request still carries its original URL through the authentication policy.
+     */
+    private static final class PlainHttpClient implements HttpClient {
+
+        private final HttpClient delegate;
+
+        PlainHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<com.azure.core.http.HttpResponse> send(HttpRequest request) {
+            URL url = request.getUrl();
+            String port = url.getPort() >= 0 ? ":" + url.getPort() : "";
+            try {
+                return delegate.send(request.copy().setUrl(
+                    URI.create("http://" + url.getHost() + port + url.getFile()).toURL()));
+            } catch (MalformedURLException | IllegalArgumentException e) {
+                return Mono.error(e);
+            }
+        }
+    }
+}
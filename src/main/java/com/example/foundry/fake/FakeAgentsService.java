@@ -0,0 +1,752 @@
+package com.example.foundry.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the Foundry Agents REST API used by {@code PersistentAgentsClient}.
+ *
+ * Implements the agent, thread, message, run and file content endpoints, including
+ * server-sent event streams for streaming runs, which carry the reply as word-by-word
+ * message deltas. Each run follows a scripted sequence of statuses: every
+ * {@code getRun} advances it one step through QUEUED, IN_PROGRESS and, when a tool call is
+ * scripted, REQUIRES_ACTION; after tool outputs are submitted it completes and posts an
+ * assistant message echoing them, optionally with a generated image file attached (see
+ * {@link #withReplyImages(int)}). Each IN_PROGRESS stretch is recorded as a run step (a
+ * tool call step before REQUIRES_ACTION, a message creation step otherwise) with token usage
+ * estimated from word counts, and the completed run carries the total usage. Like the real
+ * service, a thread takes one active run at a time and a cancelled run stops where it is.
+ * Transport concerns (HTTP server, latency, fault injection) are layered on top by the callers.
+ */
+public class FakeAgentsService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String JSON = "application/json";
+    private static final String EVENT_STREAM = "text/event-stream";
+    private static final List<String> TERMINAL = List.of("completed", "failed", "cancelled", "expired");
+    /** How long after creation a run would expire, as the service reports it in {@code expires_at}. */
+    private static final long RUN_EXPIRY_SECONDS = 600;
+
+    /**
+     * A response to hand back to the client.
+     */
+    public record Response(int status, String contentType, String body) {
+    }
+
+    private static final class Run {
+        final ObjectNode json;
+        final List<String> script;
+        final List<ObjectNode> steps = new ArrayList<>();
+        final long sequence;
+        int step;
+        String toolOutput;
+
+        Run(ObjectNode json, List<String> script, long sequence) {
+            this.json = json;
+            this.script = script;
+            this.sequence = sequence;
+        }
+    }
+
+    private final String toolName;
+    private final List<ObjectNode> toolFunctions = new CopyOnWriteArrayList<>();
+    private final Map<String, ObjectNode> agents = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> threads = new ConcurrentHashMap<>();
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> files = new ConcurrentHashMap<>();
+    private final AtomicLong messagesListed = new AtomicLong();
+    private final AtomicLong runsCreated = new AtomicLong();
+    private final AtomicInteger droppedRunStreams = new AtomicInteger();
+    private final AtomicLong fileBytesServed = new AtomicLong();
+    private volatile int replyImageBytes;
+
+    /**
+     * Create a fake whose runs request one call of the given tool before completing.
+     *
+     * @param toolName      Function tool to call, or null for runs that complete directly
+     * @param toolArguments JSON arguments of the tool call
+     */
+    public FakeAgentsService(String toolName, String toolArguments) {
+        this.toolName = toolName;
+        if (toolName != null) {
+            toolFunctions.add(toolFunction(toolName, toolArguments));
+        }
+    }
+
+    /**
+     * Request another tool call alongside the first, as a model making parallel tool calls
+     * does. The reply echoes the outputs in the order the calls were requested.
+     */
+    public FakeAgentsService withToolCall(String toolName, String toolArguments) {
+        toolFunctions.add(toolFunction(toolName, toolArguments));
+        return this;
+    }
+
+    private static ObjectNode toolFunction(String toolName, String toolArguments) {
+        return MAPPER.createObjectNode().put("name", toolName).put("arguments", toolArguments);
+    }
+
+    /**
+     * Attach an image file of the given size to every assistant reply.
+     */
+    public FakeAgentsService withReplyImages(int bytes) {
+        this.replyImageBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Drop the event stream of the next streamed runs right after creating them, before
+     * any event is sent, as a broken connection would.
+     */
+    public FakeAgentsService withDroppedRunStreams(int count) {
+        droppedRunStreams.set(count);
+        return this;
+    }
+
+    /**
+     * Create a file of the given size with generated content.
+     *
+     * @return The file ID
+     */
+    public String addFile(int bytes) {
+        String fileId = newId("assistant");
+        files.put(fileId, bytes);
+        return fileId;
+    }
+
+    /**
+     * Handle one request.
+     *
+     * @param path Request path, optionally with a query string; anything before the first
+     *             {@code /assistants}, {@code /threads} or {@code /files} segment (the project
+     *             prefix) is ignored
+     */
+    public Response handle(String method, String path, String body) {
+        return handle(method, path, body, null);
+    }
+
+    /**
+     * Handle one request carrying a {@code Range} header.
+     *
+     * @param range Value of the {@code Range} header, or null
+     */
+    public Response handle(String method, String path, String body, String range) {
+        try {
+            int queryStart = path.indexOf('?');
+            Map<String, String> query = parseQuery(queryStart >= 0 ? path.substring(queryStart + 1) : "");
+            String[] segments = resourcePath(queryStart >= 0 ? path.substring(0, queryStart) : path).split("/");
+            JsonNode request = body == null || body.isBlank() ? MAPPER.createObjectNode() : MAPPER.readTree(body);
+            if (segments[0].equals("files")) {
+                return fileContent(method, segments, range);
+            }
+            return route(method, segments, query, request);
+        } catch (IOException e) {
+            return error(400, "invalid_request", e.getMessage());
+        } catch (RuntimeException e) {
+            return error(500, "server_error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private Response route(String method, String[] s, Map<String, String> query, JsonNode request) {
+        int n = s.length;
+        if (s[0].equals("assistants")) {
+            if (n == 1 && method.equals("POST")) {
+                return json(createAgent(request));
+            }
+            if (n == 2) {
+                ObjectNode agent = agents.get(s[1]);
+                if (agent == null) {
+                    return notFound("assistant", s[1]);
+                }
+                if (method.equals("DELETE")) {
+                    agents.remove(s[1]);
+                    return json(deleted(s[1], "assistant.deleted"));
+                }
+                return json(agent);
+            }
+        } else if (s[0].equals("threads")) {
+            if (n == 1 && method.equals("POST")) {
+                String id = newId("thread");
+                threads.put(id, new ArrayList<>());
+                return json(object(id, "thread").putNull("tool_resources").set("metadata", MAPPER.createObjectNode()));
+            }
+            List<ObjectNode> messages = threads.get(s[1]);
+            if (messages == null) {
+                return notFound("thread", s[1]);
+            }
+            if (n == 2 && method.equals("DELETE")) {
+                threads.remove(s[1]);
+                return json(deleted(s[1], "thread.deleted"));
+            }
+            if (n == 3 && s[2].equals("messages")) {
+                if (method.equals("POST")) {
+                    ObjectNode message = message(s[1], request.path("role").asText("user"),
+                        request.path("content").asText(), null, null);
+                    synchronized (messages) {
+                        messages.add(message);
+                    }
+                    return json(message);
+                }
+                return json(listMessages(messages, query));
+            }
+            if (n == 3 && s[2].equals("runs") && method.equals("POST")) {
+                String activeRunId = activeRunId(s[1]);
+                if (activeRunId != null) {
+                    return error(400, "invalid_request",
+                        "Thread " + s[1] + " already has an active run " + activeRunId);
+                }
+                Run run = createRun(s[1], request);
+                if (request.path("stream").asBoolean(false)) {
+                    boolean dropped = droppedRunStreams.getAndUpdate(count -> Math.max(0, count - 1)) > 0;
+                    return events(dropped ? List.of() : advanceStream(run));
+                }
+                return json(run.json);
+            }
+            if (n == 3 && s[2].equals("runs") && method.equals("GET")) {
+                return json(listRuns(s[1], query));
+            }
+            if (n >= 4 && s[2].equals("runs")) {
+                Run run = runs.get(s[3]);
+                if (run == null) {
+                    return notFound("run", s[3]);
+                }
+                if (n == 4) {
+                    return json(advance(run));
+                }
+                if (n == 5 && s[4].equals("submit_tool_outputs")) {
+                    submitToolOutputs(run, request);
+                    if (request.path("stream").asBoolean(false)) {
+                        return events(advanceStream(run));
+                    }
+                    return json(run.json);
+                }
+                if (n == 5 && s[4].equals("steps") && method.equals("GET")) {
+                    return json(listSteps(run));
+                }
+                if (n == 5 && s[4].equals("cancel")) {
+                    synchronized (run) {
+                        String status = run.json.path("status").asText();
+                        if (TERMINAL.contains(status)) {
+                            return error(400, "invalid_request", "Cannot cancel run with status '" + status + "'");
+                        }
+                        run.json.put("status", "cancelled");
+                        run.json.put("cancelled_at", now());
+                        run.json.putNull("required_action");
+                        run.step = run.script.size();
+                        ObjectNode step = currentStep(run);
+                        if (step != null && step.path("status").asText().equals("in_progress")) {
+                            step.put("status", "cancelled");
+                            step.put("cancelled_at", now());
+                        }
+                        return json(run.json.deepCopy());
+                    }
+                }
+            }
+        }
+        return error(404, "not_found", "No route for " + method + " /" + String.join("/", s));
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static String resourcePath(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        for (String root : List.of("assistants", "threads", "files")) {
+            int index = ("/" + trimmed + "/").indexOf("/" + root + "/");
+            if (index >= 0) {
+                return trimmed.substring(index);
+            }
+        }
+        return trimmed;
+    }
+
+    private ObjectNode createAgent(JsonNode request) {
+        String id = newId("asst");
+        ObjectNode agent = object(id, "assistant");
+        agent.set("name", request.path("name"));
+        agent.putNull("description");
+        agent.set("model", request.path("model"));
+        agent.set("instructions", request.path("instructions"));
+        agent.set("tools", request.has("tools") ? request.get("tools") : MAPPER.createArrayNode());
+        agent.set("tool_resources", MAPPER.createObjectNode());
+        agent.putNull("temperature");
+        agent.putNull("top_p");
+        agent.set("metadata", MAPPER.createObjectNode());
+        agents.put(id, agent);
+        return agent;
+    }
+
+    private Run createRun(String threadId, JsonNode request) {
+        String id = newId("run");
+        ObjectNode json = object(id, "thread.run");
+        json.put("thread_id", threadId);
+        json.set("assistant_id", request.path("assistant_id"));
+        json.put("status", "queued");
+        json.putNull("required_action");
+        json.putNull("last_error");
+        json.put("model", "fake-model");
+        json.put("instructions", "");
+        json.set("tools", MAPPER.createArrayNode());
+        for (String field : List.of("started_at", "completed_at", "cancelled_at", "failed_at",
+                "incomplete_details", "usage", "max_prompt_tokens", "max_completion_tokens",
+                "truncation_strategy", "tool_choice", "response_format", "temperature", "top_p", "tool_resources")) {
+            json.putNull(field);
+        }
+        json.put("expires_at", json.path("created_at").asLong() + RUN_EXPIRY_SECONDS);
+        json.set("metadata", request.path("metadata").isObject()
+            ? request.path("metadata").deepCopy() : MAPPER.createObjectNode());
+        json.put("parallel_tool_calls", true);
+
+        List<String> script = toolName != null
+            ? List.of("queued", "in_progress", "requires_action", "in_progress", "completed")
+            : List.of("queued", "in_progress", "completed");
+        Run run = new Run(json, script, runsCreated.incrementAndGet());
+        runs.put(id, run);
+        return run;
+    }
+
+    /**
+     * The ID of a run on the thread that has not finished, or null; a thread takes one run at a time.
+     */
+    private String activeRunId(String threadId) {
+        for (Run run : runs.values()) {
+            synchronized (run) {
+                if (run.json.path("thread_id").asText().equals(threadId)
+                        && !TERMINAL.contains(run.json.path("status").asText())) {
+                    return run.json.path("id").asText();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Move the run one scripted step forward, stopping at REQUIRES_ACTION until outputs arrive.
+     */
+    private ObjectNode advance(Run run) {
+        synchronized (run) {
+            String status = run.json.path("status").asText();
+            if (!status.equals("requires_action") && run.step < run.script.size() - 1
+                    && !status.equals("cancelled")) {
+                run.step++;
+                setStatus(run, run.script.get(run.step));
+            }
+            return run.json.deepCopy();
+        }
+    }
+
+    /**
+     * Advance the run until it needs input or finishes, returning the stream events.
+     */
+    private List<String[]> advanceStream(Run run) {
+        List<String[]> events = new ArrayList<>();
+        synchronized (run) {
+            if (run.step == 0) {
+                events.add(event("thread.run.created", run.json));
+            }
+            while (true) {
+                ObjectNode snapshot = advance(run);
+                String status = snapshot.path("status").asText();
+                if (status.equals("completed")) {
+                    events.addAll(replyDeltas(snapshot.path("thread_id").asText(), snapshot.path("id").asText()));
+                }
+                events.add(event("thread.run." + status, snapshot));
+                if (status.equals("requires_action")) {
+                    break;
+                }
+                if (status.equals("completed") || status.equals("cancelled")) {
+                    break;
+                }
+            }
+        }
+        events.add(new String[]{"done", "[DONE]"});
+        return events;
+    }
+
+    /**
+     * The text of the reply the run posted, as one delta event per word.
+     */
+    private List<String[]> replyDeltas(String threadId, String runId) {
+        List<ObjectNode> messages = threads.get(threadId);
+        List<String[]> events = new ArrayList<>();
+        if (messages == null) {
+            return events;
+        }
+        ObjectNode reply;
+        synchronized (messages) {
+            reply = messages.stream().filter(message -> message.path("run_id").asText().equals(runId))
+                .reduce((first, second) -> second).orElse(null);
+        }
+        if (reply == null) {
+            return events;
+        }
+        String text = reply.path("content").path(0).path("text").path("value").asText();
+        for (String word : text.split("(?<= )")) {
+            ObjectNode delta = MAPPER.createObjectNode().put("id", reply.path("id").asText())
+                .put("object", "thread.message.delta");
+            ObjectNode content = delta.putObject("delta").putArray("content").addObject()
+                .put("index", 0).put("type", "text");
+            content.putObject("text").put("value", word);
+            events.add(event("thread.message.delta", delta));
+        }
+        return events;
+    }
+
+    private void setStatus(Run run, String status) {
+        run.json.put("status", status);
+        long now = now();
+        if (status.equals("in_progress") && run.json.path("started_at").isNull()) {
+            run.json.put("started_at", now);
+        }
+        if (status.equals("in_progress")) {
+            boolean toolCall = run.step + 1 < run.script.size() && run.script.get(run.step + 1).equals("requires_action");
+            run.steps.add(step(run, toolCall ? "tool_calls" : "message_creation"));
+        }
+        if (status.equals("requires_action")) {
+            ObjectNode action = MAPPER.createObjectNode().put("type", "submit_tool_outputs");
+            ArrayNode calls = action.putObject("submit_tool_outputs").putArray("tool_calls");
+            long argumentWords = 0;
+            for (ObjectNode function : toolFunctions) {
+                ObjectNode call = MAPPER.createObjectNode().put("id", newId("call")).put("type", "function");
+                call.set("function", function.deepCopy());
+                calls.add(call);
+                argumentWords += words(function.path("arguments").asText());
+            }
+            run.json.set("required_action", action);
+            ObjectNode step = currentStep(run);
+            if (step != null) {
+                step.putObject("step_details").put("type", "tool_calls").set("tool_calls", calls.deepCopy());
+                step.set("usage", usage(promptTokens(run), argumentWords));
+            }
+        }
+        if (status.equals("completed")) {
+            run.json.put("completed_at", now);
+            long promptTokens = promptTokens(run);
+            String reply = run.toolOutput != null ? "Tool said: " + run.toolOutput : "Done.";
+            List<ObjectNode> messages = threads.get(run.json.path("thread_id").asText());
+            if (messages != null) {
+                ObjectNode message = message(run.json.path("thread_id").asText(), "assistant", reply,
+                    run.json.path("assistant_id").asText(), run.json.path("id").asText());
+                if (replyImageBytes > 0) {
+                    String fileId = addFile(replyImageBytes);
+                    ObjectNode image = MAPPER.createObjectNode().put("type", "image_file");
+                    image.putObject("image_file").put("file_id", fileId);
+                    ((ArrayNode) message.get("content")).add(image);
+                }
+                synchronized (messages) {
+                    messages.add(message);
+                }
+                ObjectNode step = currentStep(run);
+                if (step != null) {
+                    step.putObject("step_details").put("type", "message_creation")
+                        .putObject("message_creation").put("message_id", message.path("id").asText());
+                    step.set("usage", usage(promptTokens, words(reply)));
+                    completeStep(step, now);
+                }
+            }
+            long prompt = 0;
+            long completion = 0;
+            for (ObjectNode step : run.steps) {
+                prompt += step.path("usage").path("prompt_tokens").asLong();
+                completion += step.path("usage").path("completion_tokens").asLong();
+            }
+            run.json.set("usage", usage(prompt, completion));
+        }
+    }
+
+    private ObjectNode step(Run run, String type) {
+        ObjectNode step = object(newId("step"), "thread.run.step");
+        step.put("type", type);
+        step.set("assistant_id", run.json.path("assistant_id"));
+        step.set("thread_id", run.json.path("thread_id"));
+        step.set("run_id", run.json.path("id"));
+        step.put("status", "in_progress");
+        step.putObject("step_details").put("type", type);
+        for (String field : List.of("last_error", "expired_at", "completed_at", "cancelled_at", "failed_at", "usage")) {
+            step.putNull(field);
+        }
+        step.set("metadata", MAPPER.createObjectNode());
+        return step;
+    }
+
+    private static ObjectNode currentStep(Run run) {
+        return run.steps.isEmpty() ? null : run.steps.get(run.steps.size() - 1);
+    }
+
+    private static void completeStep(ObjectNode step, long now) {
+        step.put("status", "completed");
+        step.put("completed_at", now);
+    }
+
+    private static ObjectNode usage(long promptTokens, long completionTokens) {
+        return MAPPER.createObjectNode().put("prompt_tokens", promptTokens)
+            .put("completion_tokens", completionTokens).put("total_tokens", promptTokens + completionTokens);
+    }
+
+    /**
+     * Prompt size of the run's next model call: every word on its thread so far.
+     */
+    private long promptTokens(Run run) {
+        List<ObjectNode> messages = threads.get(run.json.path("thread_id").asText());
+        long tokens = run.toolOutput != null ? words(run.toolOutput) : 0;
+        if (messages != null) {
+            synchronized (messages) {
+                for (ObjectNode message : messages) {
+                    tokens += words(message.path("content").path(0).path("text").path("value").asText());
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static long words(String text) {
+        return text.isBlank() ? 0 : text.trim().split("\\s+").length;
+    }
+
+    /**
+     * All steps of the run, oldest first.
+     */
+    /**
+     * One page of a thread's runs, newest first unless {@code order=asc}, honouring {@code limit}.
+     */
+    private ObjectNode listRuns(String threadId, Map<String, String> query) {
+        List<Run> threadRuns = new ArrayList<>();
+        for (Run run : runs.values()) {
+            if (run.json.path("thread_id").asText().equals(threadId)) {
+                threadRuns.add(run);
+            }
+        }
+        threadRuns.sort(Comparator.comparingLong(run -> run.sequence));
+        if (!"asc".equals(query.get("order"))) {
+            Collections.reverse(threadRuns);
+        }
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : 20;
+        ObjectNode list = MAPPER.createObjectNode().put("object", "list");
+        ArrayNode data = list.putArray("data");
+        for (Run run : threadRuns.subList(0, Math.min(limit, threadRuns.size()))) {
+            synchronized (run) {
+                data.add(run.json.deepCopy());
+            }
+        }
+        list.put("first_id", data.isEmpty() ? null : data.get(0).path("id").asText());
+        list.put("last_id", data.isEmpty() ? null : data.get(data.size() - 1).path("id").asText());
+        list.put("has_more", threadRuns.size() > limit);
+        return list;
+    }
+
+    private static ObjectNode listSteps(Run run) {
+        ObjectNode list = MAPPER.createObjectNode().put("object", "list");
+        ArrayNode data = list.putArray("data");
+        synchronized (run) {
+            run.steps.forEach(step -> data.add(step.deepCopy()));
+        }
+        list.put("first_id", data.isEmpty() ? null : data.get(0).path("id").asText());
+        list.put("last_id", data.isEmpty() ? null : data.get(data.size() - 1).path("id").asText());
+        list.put("has_more", false);
+        return list;
+    }
+
+    private void submitToolOutputs(Run run, JsonNode request) {
+        synchronized (run) {
+            if (!run.json.path("status").asText().equals("requires_action")) {
+                throw new IllegalStateException("Run " + run.json.path("id").asText() + " is not waiting for tool outputs");
+            }
+            StringBuilder outputs = new StringBuilder();
+            Map<String, String> outputsByCall = new HashMap<>();
+            for (JsonNode output : request.path("tool_outputs")) {
+                outputs.append(output.path("output").asText());
+                outputsByCall.put(output.path("tool_call_id").asText(), output.path("output").asText());
+            }
+            run.json.putNull("required_action");
+            run.toolOutput = outputs.toString();
+            ObjectNode step = currentStep(run);
+            if (step != null) {
+                for (JsonNode call : step.path("step_details").path("tool_calls")) {
+                    ((ObjectNode) call.path("function")).put("output", outputsByCall.get(call.path("id").asText()));
+                }
+                completeStep(step, now());
+            }
+            run.json.put("status", "queued");
+        }
+    }
+
+    private ObjectNode message(String threadId, String role, String text, String agentId, String runId) {
+        ObjectNode message = object(newId("msg"), "thread.message");
+        message.put("thread_id", threadId);
+        message.put("status", "completed");
+        message.putNull("incomplete_details");
+        message.put("completed_at", now());
+        message.putNull("incomplete_at");
+        message.put("role", role);
+        ObjectNode content = MAPPER.createObjectNode().put("type", "text");
+        content.putObject("text").put("value", text).putArray("annotations");
+        message.putArray("content").add(content);
+        message.put("assistant_id", agentId);
+        message.put("run_id", runId);
+        message.putArray("attachments");
+        message.set("metadata", MAPPER.createObjectNode());
+        return message;
+    }
+
+    /**
+     * One page of messages, honouring {@code order} (newest first by default), {@code limit}
+     * and the {@code after}/{@code before} cursors like the real service.
+     */
+    private ObjectNode listMessages(List<ObjectNode> messages, Map<String, String> query) {
+        List<ObjectNode> ordered;
+        synchronized (messages) {
+            ordered = new ArrayList<>(messages);
+        }
+        if (!"asc".equals(query.get("order"))) {
+            Collections.reverse(ordered);
+        }
+        int from = 0;
+        int to = ordered.size();
+        if (query.containsKey("after")) {
+            from = indexOf(ordered, query.get("after")) + 1;
+        }
+        if (query.containsKey("before")) {
+            int index = indexOf(ordered, query.get("before"));
+            to = index >= 0 ? index : to;
+        }
+        int limit = Integer.parseInt(query.getOrDefault("limit", "20"));
+        messagesListed.addAndGet(Math.max(0, Math.min(to - from, limit)));
+
+        ObjectNode list = MAPPER.createObjectNode().put("object", "list");
+        ArrayNode data = list.putArray("data");
+        for (int i = from; i < to && i < from + limit; i++) {
+            data.add(ordered.get(i));
+        }
+        list.put("first_id", data.isEmpty() ? null : data.get(0).path("id").asText());
+        list.put("last_id", data.isEmpty() ? null : data.get(data.size() - 1).path("id").asText());
+        list.put("has_more", to - from > limit);
+        return list;
+    }
+
+    /**
+     * The content of a generated file, honouring a {@code bytes=N-} range with a 206 response.
+     */
+    private Response fileContent(String method, String[] s, String range) {
+        if (s.length != 3 || !s[2].equals("content") || !method.equals("GET")) {
+            return error(404, "not_found", "No route for " + method + " /" + String.join("/", s));
+        }
+        Integer size = files.get(s[1]);
+        if (size == null) {
+            return notFound("file", s[1]);
+        }
+        StringBuilder content = new StringBuilder(size);
+        while (content.length() < size) {
+            content.append(s[1]).append('\n');
+        }
+        content.setLength(size);
+        int status = 200;
+        if (range != null && range.startsWith("bytes=") && range.endsWith("-")) {
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            if (from >= size) {
+                return error(416, "range_not_satisfiable", "Range " + range + " is beyond the file.");
+            }
+            content.delete(0, from);
+            status = 206;
+        }
+        fileBytesServed.addAndGet(content.length());
+        return new Response(status, "application/octet-stream", content.toString());
+    }
+
+    private static int indexOf(List<ObjectNode> messages, String id) {
+        for (int i = 0; i < messages.size(); i++) {
+            if (messages.get(i).path("id").asText().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Total number of messages returned by list calls so far.
+     */
+    public long getMessagesListed() {
+        return messagesListed.get();
+    }
+
+    /**
+     * Total number of runs created so far.
+     */
+    public long getRunsCreated() {
+        return runsCreated.get();
+    }
+
+    /**
+     * Total number of file content bytes sent so far.
+     */
+    public long getFileBytesServed() {
+        return fileBytesServed.get();
+    }
+
+    private static ObjectNode object(String id, String type) {
+        return MAPPER.createObjectNode().put("id", id).put("object", type).put("created_at", now());
+    }
+
+    private static ObjectNode deleted(String id, String type) {
+        return MAPPER.createObjectNode().put("id", id).put("object", type).put("deleted", true);
+    }
+
+    private static String[] event(String name, JsonNode data) {
+        return new String[]{name, data.toString()};
+    }
+
+    private static Response json(JsonNode body) {
+        return new Response(200, JSON, body.toString());
+    }
+
+    private static Response events(List<String[]> events) {
+        StringBuilder body = new StringBuilder();
+        for (String[] event : events) {
+            body.append("event: ").append(event[0]).append('\n').append("data: ").append(event[1]).append("\n\n");
+        }
+        return new Response(200, EVENT_STREAM, body.toString());
+    }
+
+    private static Response notFound(String kind, String id) {
+        return error(404, "not_found", "No " + kind + " found with id '" + id + "'.");
+    }
+
+    static Response error(int status, String code, String message) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.putObject("error").put("code", code).put("message", message);
+        return new Response(status, JSON, body.toString());
+    }
+
+    private static String newId(String prefix) {
+        return prefix + "_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
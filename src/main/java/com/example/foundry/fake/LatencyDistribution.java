@@ -0,0 +1,106 @@
+package com.example.foundry.fake;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service-time distribution for the fake agents server, parsed from a short spec:
+ * <ul>
+ *   <li>{@code fixed:20} - always 20 ms</li>
+ *   <li>{@code uniform:10-50} - uniformly between 10 and 50 ms</li>
+ *   <li>{@code lognormal:30,200} - log-normal with a median of 30 ms and a p99 of 200 ms</li>
+ * </ul>
+ */
+public final class LatencyDistribution {
+
+    /** z-score of the 99th percentile of the standard normal distribution */
+    private static final double Z_99 = 2.3263;
+
+    public static final LatencyDistribution NONE = new LatencyDistribution("fixed", 0, 0);
+
+    private final String kind;
+    private final double a;
+    private final double b;
+
+    private LatencyDistribution(String kind, double a, double b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static LatencyDistribution fixed(long millis) {
+        return new LatencyDistribution("fixed", millis, millis);
+    }
+
+    public static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("Uniform latency maximum is below its minimum");
+        }
+        return new LatencyDistribution("uniform", minMillis, maxMillis);
+    }
+
+    public static LatencyDistribution logNormal(long medianMillis, long p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("Log-normal latency needs 0 < median <= p99");
+        }
+        // ln(X) ~ N(mu, sigma) with mu = ln(median) and p99 = exp(mu + Z_99 * sigma)
+        double mu = Math.log(medianMillis);
+        return new LatencyDistribution("lognormal", mu, (Math.log(p99Millis) - mu) / Z_99);
+    }
+
+    /**
+     * Parse a spec such as {@code lognormal:30,200}; a blank spec means no added latency.
+     */
+    public static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return NONE;
+        }
+        String[] parts = spec.trim().split(":", 2);
+        try {
+            String kind = parts[0].trim().toLowerCase();
+            String args = parts.length > 1 ? parts[1] : "";
+            switch (kind) {
+                case "fixed":
+                    return fixed(Long.parseLong(args.trim()));
+                case "uniform": {
+                    String[] range = args.split("-");
+                    return uniform(Long.parseLong(range[0].trim()), Long.parseLong(range[1].trim()));
+                }
+                case "lognormal": {
+                    String[] values = args.split(",");
+                    return logNormal(Long.parseLong(values[0].trim()), Long.parseLong(values[1].trim()));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution '" + kind + "'");
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid latency spec '" + spec + "'", e);
+        }
+    }
+
+    /**
+     * Draw one latency in milliseconds.
+     */
+    public long sampleMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (kind) {
+            case "uniform":
+                return (long) a + random.nextLong((long) b - (long) a + 1);
+            case "lognormal":
+                return Math.round(Math.exp(a + b * random.nextGaussian()));
+            default:
+                return (long) a;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case "uniform":
+                return "uniform:" + (long) a + "-" + (long) b;
+            case "lognormal":
+                return "lognormal:" + Math.round(Math.exp(a)) + "," + Math.round(Math.exp(a + Z_99 * b));
+            default:
+                return "fixed:" + (long) a;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.foundry.metrics;
+
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.util.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Latency histograms per operation and outcome, plus per-run phase metrics.
+ *
+ * HTTP calls are recorded by {@link MetricsHttpPolicy}; {@code AgentService} records its
+ * logical operations, tool executions and run lifecycle. For every run it tracks the time
+ * from creation to the first status past queued, the total time spent executing tools and
+ * the number of status polls. Components may also register gauges, current values read
+ * when a snapshot is taken. Runs are identified by a caller-chosen key; since a thread
+ * has at most one active run, the thread ID works. The same run events feed the
+ * {@link RunTimelineProfiler} when it is enabled. When {@code agent.metrics-snapshot-file}
+ * is set, a JSON snapshot is rewritten every {@code agent.metrics-snapshot-interval-ms} and
+ * on shutdown.
+ */
+@Component
+public class AgentMetrics implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentMetrics.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final class RunTracker {
+        final long createdNanos = System.nanoTime();
+        final AtomicLong toolNanos = new AtomicLong();
+        final AtomicInteger polls = new AtomicInteger();
+        volatile boolean progressed;
+    }
+
+    private final AgentConfiguration config;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> distributions = new ConcurrentHashMap<>();
+    private final Map<String, RunTracker> runs = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService snapshotScheduler;
+    private volatile RunTimelineProfiler profiler;
+
+    @Autowired
+    public AgentMetrics(AgentConfiguration config) {
+        this.config = config;
+    }
+
+    public boolean isEnabled() {
+        return config.isMetricsEnabled();
+    }
+
+    /**
+     * Record the latency of one operation.
+     *
+     * @param operation Operation name, e.g. "http GET /threads/{id}/runs/{id}" or "createThread"
+     * @param outcome   Status code or "ok"/"error"
+     */
+    public void record(String operation, String outcome, long nanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        latencies.computeIfAbsent(operation + " " + outcome, key -> new LatencyHistogram())
+            .record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        startSnapshots();
+    }
+
+    /**
+     * Run an operation and record its latency, with outcome "ok" or "error".
+     */
+    public <T> T time(String operation, Supplier<T> action) {
+        if (!isEnabled()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "ok";
+            return result;
+        } finally {
+            record(operation, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record the latency of an asynchronous operation, measured from subscription until
+     * it completes or fails.
+     */
+    public <T> Mono<T> time(String operation, Mono<T> action) {
+        if (!isEnabled()) {
+            return action;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return action
+                .doOnSuccess(result -> record(operation, "ok", System.nanoTime() - start))
+                .doOnError(error -> record(operation, "error", System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Register a value to report in every snapshot, e.g. a current limit or a counter.
+     */
+    public void gauge(String name, LongSupplier value) {
+        if (isEnabled()) {
+            gauges.put(name, value);
+        }
+    }
+
+    /**
+     * Forward run events to the profiler as well.
+     */
+    void profileRuns(RunTimelineProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void runCreated(String runKey) {
+        if (isEnabled()) {
+            runs.putIfAbsent(runKey, new RunTracker());
+        }
+        if (profiler != null) {
+            profiler.runCreated(runKey);
+        }
+    }
+
+    /**
+     * Observe a run status; the first status past queued marks first progress.
+     */
+    public void runStatus(String runKey, RunStatus status) {
+        RunTracker tracker = runs.get(runKey);
+        if (tracker != null && !tracker.progressed && status != RunStatus.QUEUED) {
+            tracker.progressed = true;
+            record("run queue_to_first_progress", "ok", System.nanoTime() - tracker.createdNanos);
+        }
+        if (profiler != null) {
+            profiler.runStatus(runKey, status);
+        }
+    }
+
+    public void runPolled(String runKey) {
+        RunTracker tracker = runs.get(runKey);
+        if (tracker != null) {
+            tracker.polls.incrementAndGet();
+        }
+        if (profiler != null) {
+            profiler.runPolled(runKey);
+        }
+    }
+
+    public void runToolTime(String runKey, long nanos) {
+        RunTracker tracker = runs.get(runKey);
+        if (tracker != null) {
+            tracker.toolNanos.addAndGet(nanos);
+        }
+        if (profiler != null) {
+            profiler.runToolTime(runKey, nanos);
+        }
+    }
+
+    /**
+     * Record the per-run totals once the run reached a terminal status or was abandoned.
+     */
+    public void runFinished(String runKey, RunStatus status) {
+        if (profiler != null) {
+            profiler.runFinished(runKey, status);
+        }
+        RunTracker tracker = runs.remove(runKey);
+        if (tracker == null) {
+            return;
+        }
+        String outcome = status != null ? status.toString().toLowerCase() : "abandoned";
+        record("run total", outcome, System.nanoTime() - tracker.createdNanos);
+        record("run tool_time", outcome, tracker.toolNanos.get());
+        distributions.computeIfAbsent("run polls", key -> new LatencyHistogram()).record(tracker.polls.get());
+    }
+
+    /**
+     * Current values of all histograms; latencies are reported in milliseconds.
+     */
+    public ObjectNode snapshot() {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("timestamp", System.currentTimeMillis());
+        ObjectNode latencyNode = root.putObject("latencies");
+        new TreeMap<>(latencies).forEach((name, histogram) -> describe(latencyNode.putObject(name), histogram, 1000.0));
+        ObjectNode distributionNode = root.putObject("distributions");
+        new TreeMap<>(distributions).forEach((name, histogram) -> describe(distributionNode.putObject(name), histogram, 1.0));
+        ObjectNode gaugeNode = root.putObject("gauges");
+        new TreeMap<>(gauges).forEach((name, value) -> gaugeNode.put(name, value.getAsLong()));
+        return root;
+    }
+
+    private static void describe(ObjectNode node, LatencyHistogram histogram, double scale) {
+        node.put("count", histogram.getCount());
+        node.put("mean", histogram.getMean() / scale);
+        node.put("p50", histogram.getValueAtPercentile(50) / scale);
+        node.put("p90", histogram.getValueAtPercentile(90) / scale);
+        node.put("p99", histogram.getValueAtPercentile(99) / scale);
+        node.put("p999", histogram.getValueAtPercentile(99.9) / scale);
+        node.put("max", histogram.getMax() / scale);
+    }
+
+    /**
+     * Atomically replace the snapshot file with the current values.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), snapshot());
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void startSnapshots() {
+        if (snapshotScheduler != null || config.getMetricsSnapshotFile().isBlank()) {
+            return;
+        }
+        synchronized (this) {
+            if (snapshotScheduler == null) {
+                snapshotScheduler = Executors.newSingleThreadScheduledExecutor(
+                    VirtualThreads.daemonThreadFactory("metrics-snapshot"));
+                long interval = Math.max(100, config.getMetricsSnapshotIntervalMs());
+                snapshotScheduler.scheduleWithFixedDelay(this::writeSnapshotQuietly, interval, interval,
+                    TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot(Path.of(config.getMetricsSnapshotFile()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to write metrics snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+            writeSnapshotQuietly();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.foundry.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values with bounded relative error.
+ *
+ * Values below 64 are counted exactly; larger values fall into log-linear buckets with
+ * 32 sub-buckets per power of two, so any reported percentile is within about 3% of the
+ * recorded value, in the manner of HdrHistogram. Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKETS = EXACT_LIMIT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one value; negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        count.increment();
+        sum.add(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Nearest-rank percentile, reported as the highest value equivalent to its bucket.
+     *
+     * @param percentile Percentile between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return EXACT_LIMIT + (exponent - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int offset = index - EXACT_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long lowest = (long) (offset % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.foundry.metrics;
+
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP pipeline policy that records the latency of every attempt into {@link AgentMetrics}.
+ *
+ * Operations are named by method and URL path with resource IDs replaced by {@code {id}},
+ * e.g. {@code http GET /threads/{id}/runs/{id}}, and split by response status code.
+ * Latency is measured until the response headers arrive.
+ */
+public class MetricsHttpPolicy implements HttpPipelinePolicy {
+
+    private static final Pattern RESOURCE_ID = Pattern.compile("[a-z]+[_-][A-Za-z0-9]+");
+    /** Path segments naming a collection; the segment after one is a resource ID. */
+    private static final Set<String> COLLECTIONS = Set.of("projects", "assistants", "threads", "runs",
+        "messages", "steps", "files", "vector_stores", "file_batches");
+
+    private final AgentMetrics metrics;
+
+    public MetricsHttpPolicy(AgentMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        HttpRequest request = context.getHttpRequest();
+        String operation = "http " + request.getHttpMethod() + " " + normalize(request.getUrl().getPath());
+        long start = System.nanoTime();
+        return next.process()
+            .doOnNext(response -> metrics.record(operation, String.valueOf(response.getStatusCode()),
+                System.nanoTime() - start))
+            .doOnError(error -> metrics.record(operation, "error", System.nanoTime() - start));
+    }
+
+    /**
+     * Replace resource IDs, such as {@code thread_abc123}, {@code assistant-AbC123} or any
+     * segment following a collection name, in a request path with {@code {id}}.
+     */
+    static String normalize(String path) {
+        String[] segments = path.split("/");
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            boolean id = !COLLECTIONS.contains(segment) && (RESOURCE_ID.matcher(segment).matches()
+                || (i > 0 && COLLECTIONS.contains(segments[i - 1])));
+            normalized.append('/').append(id ? "{id}" : segment);
+        }
+        return normalized.length() == 0 ? "/" : normalized.toString();
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.foundry.metrics;
+
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.azure.ai.agents.persistent.models.RunStep;
+import com.azure.ai.agents.persistent.models.RunStepCompletionUsage;
+import com.azure.ai.agents.persistent.models.RunStepFunctionToolCall;
+import com.azure.ai.agents.persistent.models.RunStepToolCall;
+import com.azure.ai.agents.persistent.models.RunStepToolCallDetails;
+import com.azure.ai.agents.persistent.models.ThreadRun;
+import com.example.foundry.config.AgentConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-run timelines that split a run's latency into queue, model, tool and polling time.
+ *
+ * Client-side timestamps come from the run hooks of {@link AgentMetrics}: run creation, every
+ * status observed by polling or streaming, each poll and each batch of tool executions. Time is
+ * attributed to the status the client last saw: QUEUED counts as queue time, IN_PROGRESS as
+ * model time, and tool executions as tool time; the rest, such as creating the run and
+ * submitting tool outputs, is other time. A status change found by a poll happened at
+ * some point since the previous poll, so half of that interval is counted as polling delay
+ * instead. When a run completes, {@link #runCompleted} correlates its timeline with the steps
+ * and token usage reported by the service; the service's timestamps have one-second
+ * resolution and are placed on the client's clock relative to the run's creation.
+ *
+ * Breakdowns are aggregated across all runs, recorded as "run_profile" latencies and logged by
+ * {@link #logSummary()}. The most recent {@code agent.run-profiler-max-runs} timelines are kept
+ * and, when {@code agent.run-profiler-trace-file} is set, written as Chrome trace JSON on close.
+ */
+@Component
+public final class RunTimelineProfiler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunTimelineProfiler.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> LANES = List.of("run", "status", "client", "service");
+
+    /**
+     * What a run's latency was spent on, in nanoseconds.
+     */
+    public record Breakdown(long totalNanos, long queueNanos, long modelNanos, long toolNanos, long pollDelayNanos) {
+
+        public long otherNanos() {
+            return Math.max(0, totalNanos - queueNanos - modelNanos - toolNanos - pollDelayNanos);
+        }
+    }
+
+    /**
+     * A span on one lane of a timeline, or an instant if the duration is negative. Times are
+     * microseconds since the epoch.
+     */
+    public record Span(String lane, String name, long startMicros, long durationMicros, Map<String, Object> args) {
+    }
+
+    public record RunTimeline(String threadId, String runId, String status, Breakdown breakdown,
+                              long promptTokens, long completionTokens, List<Span> spans) {
+
+        /**
+         * Completion tokens generated per second of model time.
+         */
+        public double completionTokensPerSecond() {
+            return breakdown.modelNanos() == 0 ? 0 : completionTokens * 1e9 / breakdown.modelNanos();
+        }
+    }
+
+    private record Observation(RunStatus status, long nanos, long pollDelayNanos) {
+    }
+
+    private static final class Tracker {
+        final long createdNanos = System.nanoTime();
+        final List<Observation> observations = new ArrayList<>();
+        final List<Long> polls = new ArrayList<>();
+        final List<long[]> toolSpans = new ArrayList<>();
+        RunStatus status;
+        long lastEventNanos = createdNanos;
+        long pollDelayNanos = -1;
+        long terminalNanos;
+    }
+
+    private final AgentConfiguration config;
+    private final AgentMetrics agentMetrics;
+    private final long originNanos = System.nanoTime();
+    private final long originMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final Map<String, Tracker> runs = new ConcurrentHashMap<>();
+    private final Deque<RunTimeline> timelines = new ArrayDeque<>();
+    private long profiledRuns;
+    private long totalNanos;
+    private long queueNanos;
+    private long modelNanos;
+    private long toolNanos;
+    private long pollDelayNanos;
+    private long promptTokens;
+    private long completionTokens;
+    private long firstStartNanos = Long.MAX_VALUE;
+    private long lastEndNanos = Long.MIN_VALUE;
+
+    @Autowired
+    public RunTimelineProfiler(AgentConfiguration config, AgentMetrics agentMetrics) {
+        this.config = config;
+        this.agentMetrics = agentMetrics;
+        if (config.isRunProfilerEnabled()) {
+            agentMetrics.profileRuns(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isRunProfilerEnabled();
+    }
+
+    void runCreated(String runKey) {
+        runs.put(runKey, new Tracker());
+    }
+
+    void runPolled(String runKey) {
+        Tracker tracker = runs.get(runKey);
+        if (tracker == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (tracker) {
+            tracker.polls.add(now);
+            tracker.pollDelayNanos = (now - tracker.lastEventNanos) / 2;
+            tracker.lastEventNanos = now;
+        }
+    }
+
+    void runStatus(String runKey, RunStatus status) {
+        Tracker tracker = runs.get(runKey);
+        if (tracker == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (tracker) {
+            if (status != tracker.status) {
+                tracker.observations.add(new Observation(status, now, Math.max(0, tracker.pollDelayNanos)));
+                tracker.status = status;
+                if (isTerminal(status)) {
+                    tracker.terminalNanos = now;
+                }
+            }
+            tracker.pollDelayNanos = -1;
+            tracker.lastEventNanos = now;
+        }
+    }
+
+    void runToolTime(String runKey, long nanos) {
+        Tracker tracker = runs.get(runKey);
+        if (tracker == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (tracker) {
+            tracker.toolSpans.add(new long[]{now - nanos, now});
+            tracker.lastEventNanos = now;
+        }
+    }
+
+    /**
+     * A completed run stays tracked until {@link #runCompleted} supplies the service's view of
+     * it; runs that failed are profiled from the client's timestamps alone, abandoned ones dropped.
+     */
+    void runFinished(String runKey, RunStatus status) {
+        if (status == RunStatus.COMPLETED) {
+            return;
+        }
+        Tracker tracker = runs.remove(runKey);
+        if (tracker != null && status != null) {
+            add(profile(runKey, null, tracker, null, List.of()));
+        }
+    }
+
+    /**
+     * Correlate a completed run's client-side timeline with its steps and usage as reported
+     * by the service, and add it to the aggregate.
+     */
+    public void runCompleted(String runKey, ThreadRun run, List<RunStep> steps) {
+        Tracker tracker = runs.remove(runKey);
+        if (tracker != null) {
+            add(profile(runKey, run.getId(), tracker, run, steps));
+        }
+    }
+
+    private RunTimeline profile(String threadId, String runId, Tracker tracker, ThreadRun run, List<RunStep> steps) {
+        synchronized (tracker) {
+            long end = tracker.terminalNanos != 0 ? tracker.terminalNanos : System.nanoTime();
+            List<Span> spans = new ArrayList<>();
+            long[] byStatus = new long[3];
+            long pollDelay = 0;
+            RunStatus status = null;
+            long from = tracker.createdNanos;
+            for (Observation observation : tracker.observations) {
+                long elapsed = observation.nanos() - from;
+                long delay = Math.min(observation.pollDelayNanos(), elapsed);
+                attribute(byStatus, status, elapsed - delay);
+                pollDelay += delay;
+                spans.add(new Span("status", name(status), micros(from), micros(observation.nanos()) - micros(from),
+                    delay > 0 ? Map.of("poll_delay_ms", millis(delay)) : Map.of()));
+                status = observation.status();
+                from = observation.nanos();
+            }
+            if (end > from) {
+                attribute(byStatus, status, end - from);
+                spans.add(new Span("status", name(status), micros(from), micros(end) - micros(from), Map.of()));
+            }
+            long tool = 0;
+            for (long[] toolSpan : tracker.toolSpans) {
+                tool += toolSpan[1] - toolSpan[0];
+                spans.add(new Span("client", "tools", micros(toolSpan[0]), micros(toolSpan[1]) - micros(toolSpan[0]),
+                    Map.of()));
+            }
+            for (long poll : tracker.polls) {
+                spans.add(new Span("client", "poll", micros(poll), -1, Map.of()));
+            }
+            Breakdown breakdown = new Breakdown(end - tracker.createdNanos, byStatus[0], byStatus[1], tool, pollDelay);
+
+            long prompt = 0;
+            long completion = 0;
+            if (run != null && run.getUsage() != null) {
+                prompt = run.getUsage().getPromptTokens();
+                completion = run.getUsage().getCompletionTokens();
+            } else {
+                for (RunStep step : steps) {
+                    if (step.getUsage() != null) {
+                        prompt += step.getUsage().getPromptTokens();
+                        completion += step.getUsage().getCompletionTokens();
+                    }
+                }
+            }
+            if (run != null && run.getCreatedAt() != null) {
+                long serverOrigin = epochMicros(run.getCreatedAt());
+                for (RunStep step : steps) {
+                    spans.add(stepSpan(step, micros(tracker.createdNanos) - serverOrigin));
+                }
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("status", name(tracker.status));
+            summary.put("queue_ms", millis(breakdown.queueNanos()));
+            summary.put("model_ms", millis(breakdown.modelNanos()));
+            summary.put("tool_ms", millis(breakdown.toolNanos()));
+            summary.put("poll_delay_ms", millis(breakdown.pollDelayNanos()));
+            summary.put("other_ms", millis(breakdown.otherNanos()));
+            summary.put("prompt_tokens", prompt);
+            summary.put("completion_tokens", completion);
+            spans.add(0, new Span("run", runId != null ? runId : threadId, micros(tracker.createdNanos),
+                micros(end) - micros(tracker.createdNanos), summary));
+
+            synchronized (this) {
+                firstStartNanos = Math.min(firstStartNanos, tracker.createdNanos);
+                lastEndNanos = Math.max(lastEndNanos, end);
+            }
+            return new RunTimeline(threadId, runId, name(tracker.status), breakdown,
+                prompt, completion, List.copyOf(spans));
+        }
+    }
+
+    private static Span stepSpan(RunStep step, long offsetMicros) {
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("id", step.getId());
+        args.put("status", String.valueOf(step.getStatus()));
+        RunStepCompletionUsage usage = step.getUsage();
+        if (usage != null) {
+            args.put("prompt_tokens", usage.getPromptTokens());
+            args.put("completion_tokens", usage.getCompletionTokens());
+        }
+        if (step.getStepDetails() instanceof RunStepToolCallDetails details && details.getToolCalls() != null) {
+            List<String> tools = new ArrayList<>();
+            for (RunStepToolCall call : details.getToolCalls()) {
+                tools.add(call instanceof RunStepFunctionToolCall function ? function.getFunction().getName()
+                    : call.getType());
+            }
+            args.put("tools", tools);
+        }
+        long start = epochMicros(step.getCreatedAt()) + offsetMicros;
+        OffsetDateTime ended = step.getCompletedAt() != null ? step.getCompletedAt()
+            : step.getFailedAt() != null ? step.getFailedAt() : step.getCreatedAt();
+        return new Span("service", "step " + step.getType(), start,
+            Math.max(0, epochMicros(ended) + offsetMicros - start), args);
+    }
+
+    private static void attribute(long[] byStatus, RunStatus status, long nanos) {
+        if (status == RunStatus.QUEUED) {
+            byStatus[0] += nanos;
+        } else if (status == RunStatus.IN_PROGRESS) {
+            byStatus[1] += nanos;
+        } else {
+            byStatus[2] += nanos;
+        }
+    }
+
+    private void add(RunTimeline timeline) {
+        Breakdown breakdown = timeline.breakdown();
+        String outcome = timeline.status();
+        agentMetrics.record("run_profile queue", outcome, breakdown.queueNanos());
+        agentMetrics.record("run_profile model", outcome, breakdown.modelNanos());
+        agentMetrics.record("run_profile tool", outcome, breakdown.toolNanos());
+        agentMetrics.record("run_profile poll_delay", outcome, breakdown.pollDelayNanos());
+        synchronized (this) {
+            profiledRuns++;
+            totalNanos += breakdown.totalNanos();
+            queueNanos += breakdown.queueNanos();
+            modelNanos += breakdown.modelNanos();
+            toolNanos += breakdown.toolNanos();
+            pollDelayNanos += breakdown.pollDelayNanos();
+            promptTokens += timeline.promptTokens();
+            completionTokens += timeline.completionTokens();
+            timelines.addLast(timeline);
+            while (timelines.size() > Math.max(1, config.getRunProfilerMaxRuns())) {
+                timelines.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * The most recent run timelines, oldest first.
+     */
+    public synchronized List<RunTimeline> getTimelines() {
+        return List.copyOf(timelines);
+    }
+
+    /**
+     * Log how the time of all profiled runs divides up and the token throughput.
+     */
+    public synchronized void logSummary() {
+        if (profiledRuns == 0) {
+            return;
+        }
+        long other = Math.max(0, totalNanos - queueNanos - modelNanos - toolNanos - pollDelayNanos);
+        long wallNanos = Math.max(1, lastEndNanos - firstStartNanos);
+        logger.info("Run profile of {} runs, {} ms in total: queue {}%, model {}%, tool {}%, poll delay {}%, other {}%",
+            profiledRuns, TimeUnit.NANOSECONDS.toMillis(totalNanos), percent(queueNanos), percent(modelNanos),
+            percent(toolNanos), percent(pollDelayNanos), percent(other));
+        logger.info("Run tokens: {} prompt, {} completion; {} completion tokens/s of model time, {} tokens/s overall",
+            promptTokens, completionTokens,
+            String.format("%.1f", modelNanos == 0 ? 0.0 : completionTokens * 1e9 / modelNanos),
+            String.format("%.1f", (promptTokens + completionTokens) * 1e9 / wallNanos));
+    }
+
+    private long percent(long nanos) {
+        return totalNanos == 0 ? 0 : Math.round(100.0 * nanos / totalNanos);
+    }
+
+    /**
+     * The kept timelines as a Chrome trace: one process per run, with the run, client-observed
+     * statuses, client events and service steps on separate threads.
+     */
+    public ObjectNode toChromeTrace() {
+        ObjectNode root = MAPPER.createObjectNode();
+        ArrayNode events = root.putArray("traceEvents");
+        int pid = 0;
+        for (RunTimeline timeline : getTimelines()) {
+            pid++;
+            String label = timeline.runId() != null ? timeline.runId() + " (" + timeline.threadId() + ")"
+                : timeline.threadId();
+            metadata(events, "process_name", pid, 0).put("name", label);
+            for (int tid = 0; tid < LANES.size(); tid++) {
+                metadata(events, "thread_name", pid, tid).put("name", LANES.get(tid));
+            }
+            for (Span span : timeline.spans()) {
+                ObjectNode event = events.addObject()
+                    .put("name", span.name())
+                    .put("cat", span.lane())
+                    .put("ph", span.durationMicros() < 0 ? "i" : "X")
+                    .put("ts", span.startMicros())
+                    .put("pid", pid)
+                    .put("tid", LANES.indexOf(span.lane()));
+                if (span.durationMicros() < 0) {
+                    event.put("s", "t");
+                } else {
+                    event.put("dur", span.durationMicros());
+                }
+                event.set("args", MAPPER.valueToTree(span.args()));
+            }
+        }
+        root.put("displayTimeUnit", "ms");
+        return root;
+    }
+
+    private static ObjectNode metadata(ArrayNode events, String name, int pid, int tid) {
+        return events.addObject().put("name", name).put("ph", "M").put("pid", pid).put("tid", tid).putObject("args");
+    }
+
+    /**
+     * Atomically replace the trace file with the kept timelines.
+     */
+    public void writeTrace(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        MAPPER.writeValue(temp.toFile(), toChromeTrace());
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long micros(long nanos) {
+        return originMicros + TimeUnit.NANOSECONDS.toMicros(nanos - originNanos);
+    }
+
+    private static long epochMicros(OffsetDateTime time) {
+        return TimeUnit.SECONDS.toMicros(time.toEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(time.getNano());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Status names as spans show them; before the first status is seen the run is being created.
+     */
+    private static String name(RunStatus status) {
+        return status != null ? status.toString().toLowerCase() : "creating";
+    }
+
+    private static boolean isTerminal(RunStatus status) {
+        return status == RunStatus.COMPLETED || status == RunStatus.FAILED
+            || status == RunStatus.CANCELLED || status == RunStatus.EXPIRED;
+    }
+
+    @Override
+    public void close() {
+        if (!isEnabled() || config.getRunProfilerTraceFile().isBlank()) {
+            return;
+        }
+        Path file = Path.of(config.getRunProfilerTraceFile());
+        try {
+            writeTrace(file);
+            logger.info("Run timelines written to {}", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to write run timelines: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.FunctionToolDefinition;
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.example.foundry.config.AgentConfiguration;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reuses agent definitions across runs instead of creating and deleting one every time.
+ *
+ * Agents are keyed by a fingerprint of the model deployment, name, instructions and tool
+ * schemas. The fingerprint-to-agent mapping is persisted in a local JSON file guarded by a
+ * file lock, so workers started together share one agent. A persisted agent is validated
+ * against the service the first time this process uses it; a new agent is only created
+ * when the fingerprint changes or the stored agent no longer exists.
+ *
+ * Only an entry proven invalid, because its agent is gone or no longer matches its
+ * definition, is handed back for deletion. Entries for other fingerprints stay: workers
+ * still running an older configuration keep using their agent, and cached agents are
+ * never deleted by this application.
+ */
+@Component
+public class AgentDefinitionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentDefinitionCache.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * A persisted cache entry.
+     */
+    public record Entry(String agentId, String name, long createdAt) {
+    }
+
+    private final AgentConfiguration config;
+    private final Map<String, PersistentAgent> validated = new ConcurrentHashMap<>();
+    private final Set<String> knownAgentIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public AgentDefinitionCache(AgentConfiguration config) {
+        this.config = config;
+    }
+
+    public boolean isEnabled() {
+        return config.isAgentCacheEnabled();
+    }
+
+    /**
+     * Compute the fingerprint of an agent definition.
+     */
+    public String fingerprint(String model, String name, String instructions, List<FunctionToolDefinition> tools) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, model);
+            update(digest, name);
+            update(digest, instructions);
+            for (FunctionToolDefinition tool : tools) {
+                update(digest, tool.getFunction().getName());
+                update(digest, tool.getFunction().getDescription());
+                update(digest, String.valueOf(tool.getFunction().getParameters()));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Return the agent for a fingerprint, creating it only when no valid agent is cached.
+     *
+     * @param validator Fetches a stored agent by ID and returns null if it is gone or no longer matches
+     * @param creator   Creates a new agent for this definition
+     * @param retired   Receives the ID of a stored agent that turned out invalid, to be deleted
+     */
+    @SuppressWarnings("try") // The file lock is held for the scope of the try block, never referenced
+    public PersistentAgent getOrCreate(String fingerprint, Function<String, PersistentAgent> validator,
+                                       Supplier<PersistentAgent> creator, Consumer<String> retired) {
+        PersistentAgent agent = validated.get(fingerprint);
+        if (agent != null) {
+            return agent;
+        }
+        synchronized (this) {
+            agent = validated.get(fingerprint);
+            if (agent != null) {
+                return agent;
+            }
+            try (FileChannel lockChannel = FileChannel.open(lockFile(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockChannel.lock()) {
+                Map<String, Entry> entries = load();
+                entries.values().forEach(entry -> knownAgentIds.add(entry.agentId()));
+                Entry entry = entries.get(fingerprint);
+                if (entry != null) {
+                    agent = validator.apply(entry.agentId());
+                    if (agent != null) {
+                        logger.info("Reusing cached agent {} ({})", agent.getId(), entry.name());
+                    } else {
+                        logger.info("Cached agent {} is no longer valid, creating a new one", entry.agentId());
+                        knownAgentIds.remove(entry.agentId());
+                        entries.remove(fingerprint);
+                        retired.accept(entry.agentId());
+                    }
+                }
+                if (agent == null) {
+                    agent = creator.get();
+                    entries.put(fingerprint, new Entry(agent.getId(), agent.getName(), System.currentTimeMillis()));
+                    knownAgentIds.add(agent.getId());
+                    save(entries);
+                }
+            } catch (IOException e) {
+                logger.warn("Agent cache unavailable, creating agent without reuse: {}", e.getMessage());
+                agent = creator.get();
+            }
+            validated.put(fingerprint, agent);
+            return agent;
+        }
+    }
+
+    /**
+     * Whether the agent is referenced by the cache and must survive cleanup.
+     */
+    public boolean isCached(String agentId) {
+        return knownAgentIds.contains(agentId);
+    }
+
+    private Map<String, Entry> load() {
+        Path file = Path.of(config.getAgentCacheFile());
+        if (!Files.exists(file)) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return MAPPER.readValue(file.toFile(), new TypeReference<LinkedHashMap<String, Entry>>() { });
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable agent cache {}: {}", file, e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private void save(Map<String, Entry> entries) throws IOException {
+        Path file = Path.of(config.getAgentCacheFile()).toAbsolutePath();
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), entries);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path lockFile() {
+        return Path.of(config.getAgentCacheFile() + ".lock");
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+}
@@ -7,30 +7,80 @@ import com.azure.ai.agents.persistent.PersistentAgentsClientBuilder;
 import com.azure.ai.agents.persistent.RunsClient;
 import com.azure.ai.agents.persistent.ThreadsClient;
 import com.azure.ai.agents.persistent.models.*;
-import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.azure.core.exception.ResourceNotFoundException;
 import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.http.policy.HttpLogOptions;
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.RequestOptions;
 import com.azure.core.util.BinaryData;
+import com.azure.core.util.UrlBuilder;
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.example.foundry.client.AdmissionController;
+import com.example.foundry.client.FileDownloadPolicy;
+import com.example.foundry.client.SharedClientResources;
 import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.fake.FakeAgentsServer;
+import com.example.foundry.fake.FakeAgentsService;
+import com.example.foundry.fake.LatencyDistribution;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.metrics.MetricsHttpPolicy;
+import com.example.foundry.metrics.RunTimelineProfiler;
+import com.example.foundry.service.BatchConversationEngine.BatchPrompt;
+import com.example.foundry.service.BatchConversationEngine.BatchResult;
+import com.example.foundry.service.BatchConversationEngine.BatchSummary;
+import com.example.foundry.tool.FunctionToolRegistry;
+import com.example.foundry.tool.PythonWorkerPool;
+import com.example.foundry.tool.ToolExecutionResult;
+import com.example.foundry.tool.ToolResultCache;
+import com.example.foundry.util.AdaptiveConcurrencyLimiter;
+import com.example.foundry.util.Deadline;
 import com.example.foundry.util.HttpLoggingInterceptor;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.foundry.util.VirtualThreads;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Service class that handles Azure AI Foundry agent operations.
@@ -42,21 +92,79 @@ import java.io.IOException;
  * - Handle image outputs from the agent
  */
 @Service
-public class AgentService {
+public class AgentService implements AutoCloseable {
     
     private static final Logger logger = LoggerFactory.getLogger(AgentService.class);
+    private static final JsonMapper JSON_MAPPER = new JsonMapper();
+    private static final String DEFAULT_MESSAGE = "Hi, Agent! Draw a graph for a line with a slope of 4 and y-intercept of 9 using Python code and run the code using the pythonCodeRunner tool.";
+    private static final String FAKE_TOOL_ARGUMENTS = "{\"code\": \"print(4 * 2 + 9)\"}";
+    static final String RUN_ATTEMPT_METADATA_KEY = "attempt_id";
+    static final int RUN_ATTEMPT_LOOKBACK = 5;
     
     private final AgentConfiguration config;
+    private final PythonWorkerPool pythonWorkerPool;
+    private final ToolResultCache toolResultCache;
+    private final FunctionToolRegistry functionToolRegistry;
+    private final AgentDefinitionCache agentDefinitionCache;
+    private final ResourceCleaner resourceCleaner;
+    private final AgentMetrics agentMetrics;
+    private final SharedClientResources clientResources;
+    private final ThreadMessageCache messageCache;
+    private final ConversationJournal journal;
+    private final AdmissionController admission;
+    private final ResponseCache responseCache;
+    private final RunTimelineProfiler runProfiler;
+    private final Set<String> createdThreadIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> createdAgentIds = ConcurrentHashMap.newKeySet();
+    private final ExecutorService toolExecutor;
     private PersistentAgentsClient agentsClient;
     private PersistentAgentsAdministrationClient administrationClient;
     private ThreadsClient threadsClient;
     private MessagesClient messagesClient;
     private RunsClient runsClient;
-    private FunctionToolDefinition pythonCodeRunnerToolDefinition;
+    private FakeAgentsServer fakeServer;
+    private HttpLoggingInterceptor httpLogger;
+    private ReactiveConversationRunner reactiveRunner;
+    private RunScheduler runScheduler;
+    private RunCanceller runCanceller;
+    private ImageFileDownloader imageDownloader;
+    private volatile CompletableFuture<Void> pendingCleanup = CompletableFuture.completedFuture(null);
 
     @Autowired
-    public AgentService(AgentConfiguration config) {
+    public AgentService(AgentConfiguration config, PythonWorkerPool pythonWorkerPool,
+                        ToolResultCache toolResultCache, FunctionToolRegistry functionToolRegistry,
+                        AgentDefinitionCache agentDefinitionCache, ResourceCleaner resourceCleaner,
+                        AgentMetrics agentMetrics, SharedClientResources clientResources,
+                        ThreadMessageCache messageCache, ConversationJournal journal,
+                        AdmissionController admission, ResponseCache responseCache,
+                        RunTimelineProfiler runProfiler) {
         this.config = config;
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.toolResultCache = toolResultCache;
+        this.functionToolRegistry = functionToolRegistry;
+        this.agentDefinitionCache = agentDefinitionCache;
+        this.resourceCleaner = resourceCleaner;
+        this.agentMetrics = agentMetrics;
+        this.clientResources = clientResources;
+        this.messageCache = messageCache;
+        this.journal = journal;
+        this.admission = admission;
+        this.responseCache = responseCache;
+        this.runProfiler = runProfiler;
+        this.toolExecutor = Executors.newFixedThreadPool(Math.max(1, config.getToolExecutionConcurrency()),
+            VirtualThreads.daemonThreadFactory("tool-call"));
+    }
+    
+    /**
+     * Wire a service outside Spring, e.g. in tests and benchmarks. Collaborators other than
+     * the given ones are built from the configuration.
+     */
+    static AgentService standalone(AgentConfiguration config, FunctionToolRegistry functionToolRegistry,
+                                   AgentMetrics agentMetrics, RunTimelineProfiler runProfiler) {
+        return new AgentService(config, new PythonWorkerPool(config), new ToolResultCache(config),
+            functionToolRegistry, new AgentDefinitionCache(config), new ResourceCleaner(config), agentMetrics,
+            new SharedClientResources(config), new ThreadMessageCache(config), new ConversationJournal(config),
+            new AdmissionController(config, agentMetrics), new ResponseCache(config, agentMetrics), runProfiler);
     }
     
     /**
@@ -66,34 +174,209 @@ public class AgentService {
         logger.info("=== Starting Foundry Agent Workflow ===");
         
         try {
-            // Validate configuration
-            validateConfiguration();
-            
-            // Initialize the Azure AI client
-            initializeClient();
-            
-            // Create an agent
-            PersistentAgent agent = createAgent();
+            PersistentAgent agent = startUp();
             
-            // Create a thread for conversation
-            PersistentAgentThread thread = createThread();
+            // Each prompt gets its own thread for conversation
+            IntFunction<BatchConversationEngine> engines = reactiveRunner != null
+                ? concurrency -> BatchConversationEngine.reactive(
+                    prompt -> reactiveConverse(agent, prompt.prompt(), prompt.cacheable()), concurrency)
+                : concurrency -> new BatchConversationEngine(
+                    prompt -> converse(agent, prompt.prompt(), prompt.cacheable()), concurrency);
             
-            // Send a message and get response
-            String message = "Hi, Agent! Draw a graph for a line with a slope of 4 and y-intercept of 9 using Python code and run the code using the pythonCodeRunner tool.";
-            sendMessageAndProcessResponse(agent, thread, message);
+            if (!config.getLoadTestConcurrencyLevels().isBlank()) {
+                runLoadTest(agent);
+            } else if (config.getBatchInput() != null && !config.getBatchInput().isBlank()) {
+                runBatch(engines.apply(config.getBatchConcurrency()));
+            } else {
+                // Send a message and get response
+                AtomicReference<BatchResult> outcome = new AtomicReference<>();
+                BatchSummary summary = engines.apply(1)
+                    .run(Stream.of(new BatchPrompt("1", DEFAULT_MESSAGE)), outcome::set);
+                if (summary.failed() > 0) {
+                    throw new RuntimeException("Conversation failed: " + outcome.get().error());
+                }
+            }
             
         } catch (Exception e) {
             logger.error("Error in agent workflow: {}", e.getMessage(), e);
             throw new RuntimeException("Agent workflow failed", e);
         } finally {
-            // Clean up resources
-            cleanup();
+            shutDown();
         }
         
         logger.info("Agent workflow completed!");
     }
     
+    /**
+     * Keep the client and agent warm and serve the chat API until the JVM shuts down.
+     */
+    public void serve() {
+        logger.info("=== Starting Foundry Agent Server ===");
+        CountDownLatch stopped = new CountDownLatch(1);
+        
+        try {
+            PersistentAgent agent = startUp();
+            try (ChatServer server = new ChatServer(config, this, agent).start()) {
+                // Let a shutdown signal stop the server and wait for cleanup before the JVM exits
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.stop();
+                    try {
+                        stopped.await(config.getCleanupShutdownTimeoutMs(), TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "chat-server-shutdown"));
+                server.awaitTermination();
+            }
+        } catch (Exception e) {
+            logger.error("Error in agent server: {}", e.getMessage(), e);
+            throw new RuntimeException("Agent server failed", e);
+        } finally {
+            shutDown();
+            stopped.countDown();
+        }
+        
+        logger.info("Agent server stopped");
+    }
+    
+    /**
+     * Validate the configuration, build the clients, finish what a previous process left
+     * in flight and create the agent.
+     */
+    private PersistentAgent startUp() {
+        // Validate configuration
+        validateConfiguration();
+        
+        // Initialize the Azure AI client off the main thread; building it loads most of the SDK
+        CompletableFuture<Void> clients = CompletableFuture.runAsync(this::initializeClient,
+            task -> VirtualThreads.daemonThreadFactory("client-init").newThread(task).start());
+        
+        // Open connections and fetch a token while Python workers start
+        CompletableFuture<Void> prewarm = config.isFakeServiceEnabled()
+            ? CompletableFuture.completedFuture(null)
+            : clientResources.initializeAsync()
+                .exceptionally(e -> null)
+                .thenCompose(ignored -> clientResources.prewarm(config.getProjectEndpoint()));
+        
+        // Start Python workers while the client and agent are being set up
+        if (config.isPythonWorkerPoolEnabled()) {
+            pythonWorkerPool.warmUp();
+        }
+        
+        // Replay what a previous process left behind before anything new is created
+        ConversationJournal.Recovery recovery = journal.open();
+        
+        try {
+            clients.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        prewarm.join();
+        recordTimeToFirstApiCall();
+        
+        if (!recovery.isEmpty()) {
+            resumeJournaledConversations(recovery);
+        }
+        
+        // Create an agent
+        return createAgent();
+    }
+    
+    /**
+     * Log how long after JVM start the first API call is about to be made, the figure the
+     * startup-optimized build and {@code StartupBenchmark} are judged by.
+     */
+    private void recordTimeToFirstApiCall() {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        logger.info("Ready for the first API call {} ms after JVM start", uptimeMs);
+        agentMetrics.gauge("startup first_api_call_ms", () -> uptimeMs);
+    }
+    
+    private void shutDown() {
+        // Let image downloads finish before their threads are deleted
+        finishImageDownloads();
+        // Clean up resources
+        pendingCleanup = cleanup();
+        logToolCacheStats();
+        responseCache.logSummary();
+        runProfiler.logSummary();
+        if (runCanceller != null) {
+            runCanceller.logSummary();
+        }
+        admission.logSummary();
+        // Deletions left to the background are awaited when the application context closes
+        if (!config.isCleanupInBackground()) {
+            close();
+        }
+    }
+    
+    /**
+     * Wait up to {@code agent.cleanup-shutdown-timeout-ms} for deletions still in flight, which
+     * record their progress in the journal and go through the clients, then close the journal
+     * and release the clients.
+     */
+    @Override
+    public void close() {
+        try {
+            pendingCleanup.get(config.getCleanupShutdownTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Cleanup did not finish within {} ms; the journal keeps what is left for the next start",
+                config.getCleanupShutdownTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Error during cleanup: {}", e.getCause().getMessage());
+        }
+        journal.close();
+        releaseClientResources();
+    }
+    
+    private void runBatch(BatchConversationEngine engine) throws IOException {
+        String input = config.getBatchInput();
+        Path outputPath = Path.of(config.getBatchOutput());
+        logger.info("Running batch from {} with concurrency {}, writing results to {}",
+            "-".equals(input) ? "stdin" : input, config.getBatchConcurrency(), outputPath);
+        
+        BatchSummary summary;
+        try (BufferedReader reader = "-".equals(input)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            summary = engine.run(BatchConversationEngine.readPrompts(reader),
+                BatchConversationEngine.jsonLinesSink(writer));
+        }
+        
+        logger.info("Batch completed: {} prompts ({} failed) in {} ms, {} prompts/s",
+            summary.total(), summary.failed(), summary.elapsedMs(),
+            String.format("%.2f", summary.throughputPerSecond()));
+        logger.info("End-to-end latency: p50={} ms, p95={} ms, p99={} ms",
+            summary.p50Ms(), summary.p95Ms(), summary.p99Ms());
+    }
+    
+    private void runLoadTest(PersistentAgent agent) throws IOException {
+        int[] levels = LoadTestDriver.parseLevels(config.getLoadTestConcurrencyLevels());
+        LoadTestDriver driver = reactiveRunner != null
+            ? LoadTestDriver.reactive(prompt -> reactiveConverse(agent, prompt.prompt(), prompt.cacheable()),
+                config.getLoadTestRequestsPerLevel())
+            : new LoadTestDriver(prompt -> converse(agent, prompt.prompt(), prompt.cacheable()),
+                config.getLoadTestRequestsPerLevel());
+        List<LoadTestDriver.LevelResult> results = driver.sweep(levels, DEFAULT_MESSAGE);
+        
+        LoadTestDriver.logResults(results);
+        Path outputPath = Path.of(config.getLoadTestOutput());
+        LoadTestDriver.writeCsv(results, outputPath);
+        logger.info("Load test results written to {}", outputPath);
+        if (fakeServer != null) {
+            FakeAgentsServer.Stats stats = fakeServer.getStats();
+            logger.info("Fake service handled {} requests ({} throttled, {} failed)",
+                stats.requests(), stats.throttled(), stats.failed());
+        }
+    }
+    
     private void validateConfiguration() {
+        if (config.isFakeServiceEnabled()) {
+            return;
+        }
         if (config.getProjectEndpoint() == null || config.getProjectEndpoint().trim().isEmpty()) {
             throw new IllegalStateException(
                 "PROJECT_ENDPOINT environment variable is required. " +
@@ -103,11 +386,27 @@ public class AgentService {
     }
     
     private void initializeClient() {
-        logger.debug("Initializing Azure AI Agents client...");
-        
-        PersistentAgentsClientBuilder builder = new PersistentAgentsClientBuilder()
+        if (config.isFakeServiceEnabled()) {
+            FakeAgentsServer.Faults faults = new FakeAgentsServer.Faults(
+                LatencyDistribution.parse(config.getFakeServiceLatency()), config.getFakeServiceThrottleRate(),
+                config.getFakeServiceFailureRate(), config.getFakeServiceRetryAfterMs());
+            fakeServer = new FakeAgentsServer(new FakeAgentsService("pythonCodeRunner", FAKE_TOOL_ARGUMENTS), faults)
+                .start(config.getFakeServicePort());
+            initializeClient(fakeServer.clientBuilder(clientResources.getHttpClient()));
+            return;
+        }
+        initializeClient(new PersistentAgentsClientBuilder()
                 .endpoint(config.getProjectEndpoint())
-                .credential(new DefaultAzureCredentialBuilder().build());
+                .credential(clientResources.getCredential())
+                .httpClient(clientResources.getHttpClient()));
+    }
+    
+    /**
+     * Build the clients from a builder that already has its endpoint and credential,
+     * e.g. one pointed at an in-process fake service.
+     */
+    void initializeClient(PersistentAgentsClientBuilder builder) {
+        logger.debug("Initializing Azure AI Agents client...");
         
         // Configure HTTP logging if enabled
         if (config.isHttpLoggingEnabled()) {
@@ -116,71 +415,83 @@ public class AgentService {
             builder.httpLogOptions(logOptions);
             
             // Add custom interceptor for enhanced logging
-            builder.addPolicy(new HttpLoggingInterceptor(config.isHttpLogRequestBody()));
+            httpLogger = new HttpLoggingInterceptor(config.isHttpLogRequestBody(),
+                config.isHttpLogResponseBody(), config.getHttpLogSampleRate(), config.getHttpLogSlowThresholdMs(),
+                config.getHttpLogMaxBodyBytes(), config.getHttpLogBufferCapacity());
+            agentMetrics.gauge("http_log logged", httpLogger::getLoggedCount);
+            agentMetrics.gauge("http_log dropped", httpLogger::getDroppedCount);
+            builder.addPolicy(httpLogger);
+        }
+        
+        // Admit calls against adaptive control- and data-plane budgets
+        if (admission.isEnabled()) {
+            builder.addPolicy(admission.policy());
         }
         
+        // Record per-operation latency histograms
+        if (agentMetrics.isEnabled()) {
+            builder.addPolicy(new MetricsHttpPolicy(agentMetrics));
+        }
+        
+        // Stream file downloads to disk instead of buffering them
+        builder.addPolicy(new FileDownloadPolicy());
+        
         this.agentsClient = builder.buildClient();
         this.administrationClient = agentsClient.getPersistentAgentsAdministrationClient();
         this.threadsClient = agentsClient.getThreadsClient();
         this.messagesClient = agentsClient.getMessagesClient();
         this.runsClient = agentsClient.getRunsClient();
+        this.runScheduler = new RunScheduler(config, runsClient, agentMetrics, journal, this::resolveToolOutputsAsync);
+        this.runCanceller = new RunCanceller(config, runsClient, agentMetrics, journal);
+        if (!config.getImageDownloadDir().isBlank()) {
+            this.imageDownloader = new ImageFileDownloader(config, builder.buildAsyncClient().getFilesAsyncClient());
+        }
+        if (config.isReactiveModeEnabled()) {
+            this.reactiveRunner = new ReactiveConversationRunner(config, builder.buildAsyncClient(), agentMetrics,
+                runProfiler, messageCache, imageDownloader, journal, admission, runCanceller, this::getToolOutput,
+                threadId -> {
+                    createdThreadIds.add(threadId);
+                    journal.threadCreated(threadId);
+                });
+            logger.debug("Reactive conversation pipeline enabled");
+        }
         logger.debug("Azure AI Agents client initialized successfully");
     }
     
-    private Function<String, String> pythonCodeRunner = code -> {
-        // Simulate code execution
-        logger.info("Executing Python code: {}", code); 
-        // Execute the python process with the code and return the output
-        ProcessBuilder processBuilder = new ProcessBuilder("python", "-c", code);
-        processBuilder.redirectErrorStream(true);
-        try {
-            Process process = processBuilder.start();
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            StringBuilder output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-            process.waitFor();
-            return output.toString();
-        } catch (Exception e) {
-            logger.error("Error executing Python code: {}", e.getMessage(), e);
-            return "Error executing code";
-        }
-    };
-
-    private PersistentAgent createAgent() {
+    PersistentAgent createAgent() {
         logger.debug("About to create agent...");
 
-        // Define the pythonCodeRunner tool
-        Map<String, Object> codeProperty = Map.of(
-            "type", "string",
-            "description", "The Python code to execute"
-        );
-        
-        Map<String, Object> properties = Map.of("code", codeProperty);
-        
-        Map<String, Object> schema = Map.of(
-            "type", "object",
-            "properties", properties,
-            "required", new String[]{"code"}
-        );
-
-        pythonCodeRunnerToolDefinition = new FunctionToolDefinition(
-            new FunctionDefinition(
-                "pythonCodeRunner",
-                BinaryData.fromObject(schema)
-            ).setDescription("Execute Python code")
-        );
-        logger.info("Python runner tool definition created: {}", pythonCodeRunnerToolDefinition);
+        List<FunctionToolDefinition> tools = functionToolRegistry.getToolDefinitions();
+        logger.info("Function tools registered: {}", tools.size());
 
         // Create the agent with the tool
         CreateAgentOptions options = new CreateAgentOptions(config.getModelDeploymentName())
                 .setName(config.getAgentName())
                 .setInstructions(config.getInstructions())
-                .setTools(List.of(pythonCodeRunnerToolDefinition));
+                .setTools(new ArrayList<>(tools));
         
-        PersistentAgent agent = administrationClient.createAgent(options);
+        if (agentDefinitionCache.isEnabled()) {
+            String fingerprint = agentDefinitionCache.fingerprint(config.getModelDeploymentName(),
+                config.getAgentName(), config.getInstructions(), tools);
+            return agentDefinitionCache.getOrCreate(fingerprint, this::findMatchingAgent,
+                () -> createAgent(options), this::retireAgent);
+        }
+        return createAgent(options);
+    }
+
+    /**
+     * Take over a cached agent that turned out invalid, possibly created by an earlier
+     * process, so that cleanup deletes it like one of this process's own.
+     */
+    private void retireAgent(String agentId) {
+        createdAgentIds.add(agentId);
+        journal.agentCreated(agentId);
+    }
+
+    private PersistentAgent createAgent(CreateAgentOptions options) {
+        PersistentAgent agent = agentMetrics.time("createAgent", () -> administrationClient.createAgent(options));
+        createdAgentIds.add(agent.getId());
+        journal.agentCreated(agent.getId());
         
         logger.debug("Agent object: {}", agent);
         logger.debug("Agent is null: {}", agent == null);
@@ -192,109 +503,700 @@ public class AgentService {
         return agent;
     }
 
-    // Get the output of the Python code runner tool
-    private ToolOutput getPythonCodeRunnerOutput(RequiredToolCall toolCall){
-         if (toolCall instanceof RequiredFunctionToolCall) {
-                RequiredFunctionToolCall functionToolCall = (RequiredFunctionToolCall) toolCall;
-                String functionName = functionToolCall.getFunction().getName();
-                if (functionName.equals("pythonCodeRunner")) {
-                    String arguments = functionToolCall.getFunction().getArguments();
-                    try {
-                        JsonNode root = new JsonMapper().readTree(arguments);
-                        String code = String.valueOf(root.get("code").asText());
-                        return new ToolOutput().setToolCallId(functionToolCall.getId())
-                            .setOutput(pythonCodeRunner.apply(code));
-                    } catch (JsonProcessingException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
+    /**
+     * Fetch a cached agent, or null if it was deleted or changed outside this application.
+     */
+    private PersistentAgent findMatchingAgent(String agentId) {
+        try {
+            PersistentAgent agent = administrationClient.getAgent(agentId);
+            if (Objects.equals(agent.getModel(), config.getModelDeploymentName())
+                    && Objects.equals(agent.getName(), config.getAgentName())
+                    && Objects.equals(agent.getInstructions(), config.getInstructions())) {
+                return agent;
             }
             return null;
+        } catch (ResourceNotFoundException e) {
+            return null;
         }
-    
+    }
 
-    private PersistentAgentThread createThread() {
-        PersistentAgentThread thread = threadsClient.createThread();
+    /**
+     * Dispatch a function tool call to the registry.
+     *
+     * @return The tool output, or null if no registered tool handles the call
+     */
+    private ToolOutput getToolOutput(RequiredToolCall toolCall) {
+        if (toolCall instanceof RequiredFunctionToolCall functionToolCall) {
+            String functionName = functionToolCall.getFunction().getName();
+            if (functionToolRegistry.contains(functionName)) {
+                String arguments = functionToolCall.getFunction().getArguments();
+                return new ToolOutput().setToolCallId(functionToolCall.getId())
+                    .setOutput(cachedToolOutput(functionName, arguments,
+                        () -> agentMetrics.time("tool " + functionName,
+                            () -> functionToolRegistry.invoke(functionName, arguments))));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Serve a tool call from the result cache when the tool opted in, executing it otherwise.
+     * Only clean executions (exit code 0, not killed) are stored.
+     */
+    private String cachedToolOutput(String functionName, String arguments, Supplier<ToolExecutionResult> execution) {
+        if (!toolResultCache.isEnabledFor(functionName)) {
+            return execution.get().output();
+        }
+        String key = toolResultCache.key(functionName, arguments);
+        Optional<String> cached = toolResultCache.get(key);
+        if (cached.isPresent()) {
+            logger.debug("Tool result cache hit for {} ({})", functionName, key);
+            return cached.get();
+        }
+        ToolExecutionResult result = execution.get();
+        if (result.exitCode() == 0 && !result.killed()) {
+            toolResultCache.put(key, result.output());
+        }
+        return result.output();
+    }
+
+    /**
+     * Finish the conversations a previous process left in flight, as recorded in its journal:
+     * runs still going are polled (and their tool calls answered) to completion, and
+     * messages sent without a run get one. Everything journaled is then deleted by
+     * {@link #cleanup()} like resources of this process.
+     *
+     * @return Replies of the resumed conversations by thread ID
+     */
+    Map<String, String> resumeJournaledConversations(ConversationJournal.Recovery recovery) {
+        logger.info("Journal lists {} threads and {} agents left by a previous run",
+            recovery.threads().size(), recovery.agentIds().size());
+        createdAgentIds.addAll(recovery.agentIds());
+        Map<String, String> replies = new LinkedHashMap<>();
+        for (ConversationJournal.JournaledThread thread : recovery.threads()) {
+            createdThreadIds.add(thread.threadId());
+            if (thread.runCompleted() || thread.prompt() == null) {
+                continue;
+            }
+            try {
+                String runId = thread.runId() != null ? thread.runId()
+                    : createRun(new CreateRunOptions(thread.threadId(), thread.agentId())).getId();
+                ThreadRun run = waitForRunCompletion(thread.threadId(), runId, Deadline.none());
+                journal.runCompleted(thread.threadId(), run.getId());
+                replies.put(thread.threadId(), displayMessages(thread.threadId(), run.getId()));
+                logger.info("Resumed conversation on thread {}", thread.threadId());
+            } catch (RuntimeException e) {
+                logger.warn("Could not resume conversation on thread {}: {}", thread.threadId(), e.getMessage());
+            }
+        }
+        return replies;
+    }
+    
+    /**
+     * Run one prompt on a new thread and return the agent's reply.
+     */
+    String converse(PersistentAgent agent, String prompt) {
+        return converse(agent, prompt, true);
+    }
+    
+    /**
+     * Run one prompt on a new thread and return the agent's reply. With the response cache
+     * enabled and {@code cacheable} set, a reply cached for the same prompt and agent
+     * definition is returned without calling the service.
+     */
+    String converse(PersistentAgent agent, String prompt, boolean cacheable) {
+        Deadline deadline = Deadline.after(config.getRequestDeadlineMs());
+        String cacheKey = responseCacheKey(prompt, cacheable);
+        if (cacheKey != null) {
+            Optional<ResponseCache.Response> cached = responseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                logCachedResponse(cached.get());
+                return cached.get().reply();
+            }
+        }
+        Deadline createPhase = deadline.share(config.getRequestDeadlineCreateShare());
+        PersistentAgentThread thread = createThread();
+        String reply = sendMessageAndProcessResponse(agent, thread, prompt, text -> { }, new RunAbandonment(),
+            deadline, createPhase);
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, new ResponseCache.Response(reply,
+                imageFileIds(messageCache.recent(thread.getId()))));
+        }
+        return reply;
+    }
+    
+    /**
+     * Run a follow-up prompt on an existing thread; only the messages it adds are fetched.
+     */
+    String converse(PersistentAgent agent, PersistentAgentThread thread, String prompt) {
+        return converse(agent, thread, prompt, text -> { });
+    }
+    
+    /**
+     * Run a follow-up prompt on an existing thread, handing each fragment of the reply text
+     * to {@code deltas} as it streams in. Fragments only arrive when run streaming is enabled.
+     */
+    String converse(PersistentAgent agent, PersistentAgentThread thread, String prompt, Consumer<String> deltas) {
+        return converse(agent, thread, prompt, deltas, new RunAbandonment());
+    }
+    
+    /**
+     * Run a follow-up prompt on an existing thread, streaming the reply to {@code deltas}. Once
+     * the request is abandoned, its run is cancelled and this call fails.
+     */
+    String converse(PersistentAgent agent, PersistentAgentThread thread, String prompt, Consumer<String> deltas,
+                    RunAbandonment abandonment) {
+        Deadline deadline = Deadline.after(config.getRequestDeadlineMs());
+        return sendMessageAndProcessResponse(agent, thread, prompt, deltas, abandonment, deadline,
+            deadline.share(config.getRequestDeadlineCreateShare()));
+    }
+    
+    /**
+     * Delete a thread this process created, e.g. when a chat conversation is closed.
+     */
+    void deleteThread(String threadId) {
+        agentMetrics.time("deleteThread", () -> {
+            threadsClient.deleteThread(threadId);
+            return null;
+        });
+        createdThreadIds.remove(threadId);
+        journal.threadDeleted(threadId);
+        messageCache.evict(threadId);
+    }
+    
+    /**
+     * Run one prompt on a new thread without blocking; requires reactive mode.
+     */
+    Mono<String> reactiveConverse(PersistentAgent agent, String prompt) {
+        return reactiveConverse(agent, prompt, true);
+    }
+    
+    /**
+     * Run one prompt on a new thread without blocking, consulting the response cache like
+     * {@link #converse(PersistentAgent, String, boolean)}; requires reactive mode.
+     */
+    Mono<String> reactiveConverse(PersistentAgent agent, String prompt, boolean cacheable) {
+        String cacheKey = responseCacheKey(prompt, cacheable);
+        if (cacheKey == null) {
+            return reactiveRunner.converse(agent, prompt).map(ResponseCache.Response::reply);
+        }
+        // The disk tier blocks, so keep lookups and stores off the event loops
+        return Mono.fromCallable(() -> responseCache.get(cacheKey))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(cached -> {
+                if (cached.isPresent()) {
+                    logCachedResponse(cached.get());
+                    return Mono.just(cached.get());
+                }
+                return reactiveRunner.converse(agent, prompt)
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(response -> responseCache.put(cacheKey, response));
+            })
+            .map(ResponseCache.Response::reply);
+    }
+    
+    /**
+     * The response cache key of a prompt, or null if the cache is not to be used for it.
+     */
+    private String responseCacheKey(String prompt, boolean cacheable) {
+        if (!responseCache.isEnabled()) {
+            return null;
+        }
+        if (!cacheable) {
+            responseCache.bypassed();
+            return null;
+        }
+        return responseCache.key(config.getModelDeploymentName(), config.getInstructions(),
+            functionToolRegistry.getToolDefinitions(), prompt);
+    }
+    
+    private static void logCachedResponse(ResponseCache.Response response) {
+        logger.info("Reply served from the response cache");
+        if (!response.imageFileIds().isEmpty()) {
+            logger.info("Cached reply references image files: {}", response.imageFileIds());
+        }
+    }
+    
+    PersistentAgentThread createThread() {
+        PersistentAgentThread thread = agentMetrics.time("createThread", threadsClient::createThread);
+        createdThreadIds.add(thread.getId());
+        journal.threadCreated(thread.getId());
         logger.info("Thread created successfully: {}", thread.getId());
         return thread;
     }
     
-    private void sendMessageAndProcessResponse(PersistentAgent agent, PersistentAgentThread thread, String messageText) {
+    /**
+     * Send a message on the thread, run the agent and return the assistant's reply text.
+     * A run still going when the deadline passes is cancelled, freeing the thread, and a
+     * {@link RunDeadlineExceededException} is thrown. An abandoned request's run is cancelled
+     * as well.
+     *
+     * @param deadline    Deadline of the whole request
+     * @param createPhase Deadline by which the run has to be created
+     */
+    private String sendMessageAndProcessResponse(PersistentAgent agent, PersistentAgentThread thread, String messageText,
+                                                 Consumer<String> deltas, RunAbandonment abandonment,
+                                                 Deadline deadline, Deadline createPhase) {
         // Create and send message
-        ThreadMessage message = messagesClient.createMessage(
+        ThreadMessage message = agentMetrics.time("createMessage", () -> messagesClient.createMessage(
             thread.getId(),
             MessageRole.USER,
-            messageText);
+            messageText));
         logger.info("Message created successfully: {}", message.getId());
+        journal.messageSent(thread.getId(), agent.getId(), messageText);
         
         // Create and monitor run
         CreateRunOptions runOptions = new CreateRunOptions(thread.getId(), agent.getId());
-        ThreadRun run = runsClient.createRun(runOptions);
-        logger.info("Run created successfully: {}", run.getId());
-        
-        // Wait for the run to complete
-        waitForRunCompletion(thread.getId(), run.getId());
+        ThreadRun run = null;
+        AdaptiveConcurrencyLimiter.Permit runPermit = acquireRunPermit();
+        agentMetrics.runCreated(thread.getId());
+        try {
+            if (createPhase.isExpired()) {
+                throw new RunDeadlineExceededException("Request deadline passed before the run was created", null);
+            }
+            if (abandonment.isAbandoned()) {
+                throw new RuntimeException("Request abandoned before the run was created");
+            }
+            if (config.isRunStreamingEnabled()) {
+                run = streamRunToCompletion(runOptions, deltas, abandonment, deadline);
+            } else {
+                run = createRun(runOptions);
+                cancelWhenAbandoned(abandonment, run);
+                
+                // Wait for the run to complete
+                run = waitForRunCompletion(thread.getId(), run.getId(), deadline);
+            }
+            runPermit.success();
+        } catch (RunDeadlineExceededException e) {
+            // Stop the run on the service rather than leave it running for nobody
+            if (e.getRunId() != null) {
+                ThreadRun cancelled = runCanceller.cancel(thread.getId(), e.getRunId());
+                run = cancelled != null ? cancelled : run;
+            }
+            throw e;
+        } finally {
+            runPermit.release();
+            agentMetrics.runFinished(thread.getId(), run != null ? run.getStatus() : null);
+        }
+        journal.runCompleted(thread.getId(), run.getId());
+        profileRun(thread.getId(), run);
         
         // Get and display messages
-        displayMessages(thread);
+        String runId = run.getId();
+        return agentMetrics.time("listMessages", () -> displayMessages(thread.getId(), runId));
     }
     
-    private void waitForRunCompletion(String threadId, String runId) {
-        logger.info("Waiting for run to complete...");
+    /**
+     * Create the run in streaming mode and react to its server-sent events as they arrive.
+     * Falls back to polling if the event stream is unavailable or ends before a terminal status.
+     * The deadline is checked as events arrive.
+     */
+    private ThreadRun streamRunToCompletion(CreateRunOptions runOptions, Consumer<String> deltas,
+                                            RunAbandonment abandonment, Deadline deadline) {
+        String threadId = runOptions.getThreadId();
+        String attemptId = tagRunAttempt(runOptions);
+        AtomicReference<ThreadRun> lastRun = new AtomicReference<>();
         
-        ThreadRun run;
-        int maxAttempts = 30; // Maximum number of polling attempts
-        int attemptCount = 0;
-        long pollIntervalMs = 2000; // Poll every 2 seconds
+        try {
+            Stream<StreamUpdate> updates = runsClient.createRunStreaming(runOptions);
+            while (updates != null) {
+                updates = consumeRunStream(threadId, updates, lastRun, deltas, abandonment, deadline);
+            }
+        } catch (RunDeadlineExceededException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.warn("Run streaming interrupted, falling back to polling: {}", e.getMessage());
+            logger.debug("Run streaming failure", e);
+        }
         
-        do {
-            try {
-                Thread.sleep(pollIntervalMs);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Thread was interrupted while waiting for run completion", e);
+        ThreadRun run = lastRun.get();
+        if (run == null) {
+            // The service may have created the run before the stream broke
+            run = resumeRunAttempt(threadId, attemptId);
+            if (run == null) {
+                run = createRun(runOptions);
             }
-            
-            run = runsClient.getRun(threadId, runId);
-            RunStatus status = run.getStatus();
-            logger.debug("Run status: {}", status);
-            
-            attemptCount++;
-            
-            if (status == RunStatus.COMPLETED) {
-                logger.info("Run completed successfully after {} attempts", attemptCount);
-                return;
-            } else if (status == RunStatus.FAILED || status == RunStatus.CANCELLED || status == RunStatus.EXPIRED) {
-                String errorMessage = String.format("Run failed with status: %s", status);
-                if (run.getLastError() != null) {
-                    errorMessage += ". Error: " + run.getLastError().getMessage();
+            cancelWhenAbandoned(abandonment, run);
+        }
+        if (isTerminal(run.getStatus())) {
+            checkRunSucceeded(run);
+            logger.info("Run completed successfully via streaming: {}", run.getId());
+            return run;
+        }
+        return waitForRunCompletion(threadId, run.getId(), deadline);
+    }
+    
+    /**
+     * Find the run an attempt created even though no event reported it. Fails if the runs
+     * cannot be listed: creating another run could duplicate the first one or collide with
+     * it as the thread's active run.
+     *
+     * @return The run, or null if the attempt created none
+     */
+    private ThreadRun resumeRunAttempt(String threadId, String attemptId) {
+        List<ThreadRun> latest;
+        try {
+            latest = agentMetrics.time("listRuns", () -> runsClient.listRuns(threadId, RUN_ATTEMPT_LOOKBACK,
+                ListSortOrder.DESCENDING, null, null).stream().limit(RUN_ATTEMPT_LOOKBACK).toList());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Run stream failed before reporting the run, and the runs of thread "
+                + threadId + " could not be listed to resume it", e);
+        }
+        ThreadRun run = findRunAttempt(latest, attemptId);
+        if (run != null) {
+            journal.runCreated(threadId, run.getId());
+            logger.info("Resuming run {} created before the stream broke", run.getId());
+        }
+        return run;
+    }
+    
+    /**
+     * Tag a run about to be created with a new attempt ID, so that it can be found if the
+     * response reporting it is lost.
+     *
+     * @return The attempt ID
+     */
+    static String tagRunAttempt(CreateRunOptions runOptions) {
+        String attemptId = UUID.randomUUID().toString();
+        Map<String, String> metadata = runOptions.getMetadata() != null
+            ? new HashMap<>(runOptions.getMetadata()) : new HashMap<>();
+        metadata.put(RUN_ATTEMPT_METADATA_KEY, attemptId);
+        runOptions.setMetadata(metadata);
+        return attemptId;
+    }
+    
+    /**
+     * Among a thread's latest runs, the one tagged with the attempt or else the thread's
+     * active run, which a new run would collide with; null if there is neither.
+     */
+    static ThreadRun findRunAttempt(List<ThreadRun> latestRuns, String attemptId) {
+        for (ThreadRun run : latestRuns) {
+            boolean tagged = run.getMetadata() != null
+                && attemptId.equals(run.getMetadata().get(RUN_ATTEMPT_METADATA_KEY));
+            if (tagged || !isTerminal(run.getStatus())) {
+                return run;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Hand a completed run and its steps, as the service reports them, to the run profiler.
+     */
+    private void profileRun(String threadId, ThreadRun run) {
+        if (!runProfiler.isEnabled()) {
+            return;
+        }
+        List<RunStep> steps = new ArrayList<>();
+        try {
+            agentMetrics.time("listRunSteps", () -> {
+                runsClient.listRunSteps(threadId, run.getId(), runStepsRequestOptions())
+                    .forEach(step -> steps.add(toRunStep(step)));
+                return steps;
+            });
+        } catch (RuntimeException e) {
+            logger.debug("Could not list the steps of run {}: {}", run.getId(), e.getMessage());
+        }
+        runProfiler.runCompleted(threadId, run, steps);
+    }
+    
+    /**
+     * Options that point a run steps listing at the steps endpoint. The SDK sends
+     * {@code listRunSteps} to the run itself, which has no {@code data} to page through, so
+     * without these the listing always comes back empty.
+     */
+    static RequestOptions runStepsRequestOptions() {
+        return new RequestOptions().addRequestCallback(request -> {
+            UrlBuilder url = UrlBuilder.parse(request.getUrl());
+            if (!url.getPath().endsWith("/steps")) {
+                request.setUrl(url.setPath(url.getPath() + "/steps").toString());
+            }
+        });
+    }
+    
+    static RunStep toRunStep(BinaryData step) {
+        try (JsonReader reader = JsonProviders.createReader(step.toBytes())) {
+            return RunStep.fromJson(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private AdaptiveConcurrencyLimiter.Permit acquireRunPermit() {
+        try {
+            return admission.acquireRun();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted while waiting for a run permit", e);
+        }
+    }
+    
+    private ThreadRun createRun(CreateRunOptions runOptions) {
+        ThreadRun run = agentMetrics.time("createRun", () -> runsClient.createRun(runOptions));
+        journal.runCreated(runOptions.getThreadId(), run.getId());
+        logger.info("Run created successfully: {}", run.getId());
+        agentMetrics.runStatus(runOptions.getThreadId(), run.getStatus());
+        return run;
+    }
+    
+    /**
+     * Consume one event stream. Returns the follow-up stream after tool outputs were
+     * submitted, or null once the stream is exhausted or the run reached a terminal status.
+     */
+    private Stream<StreamUpdate> consumeRunStream(String threadId, Stream<StreamUpdate> updates,
+                                                  AtomicReference<ThreadRun> lastRun, Consumer<String> deltas,
+                                                  RunAbandonment abandonment, Deadline deadline) {
+        Deadline runDeadline = deadline.orAfter(config.getRunTimeoutMs());
+        try (updates) {
+            Iterator<StreamUpdate> iterator = updates.iterator();
+            while (iterator.hasNext()) {
+                StreamUpdate update = iterator.next();
+                if (update instanceof StreamRequiredAction actionUpdate) {
+                    ThreadRun run = actionUpdate.getMessage();
+                    lastRun.set(run);
+                    agentMetrics.runStatus(threadId, run.getStatus());
+                    logger.debug("Run {} requires action", run.getId());
+                    List<ToolOutput> toolOutputs = resolveToolOutputs(run, runDeadline);
+                    checkStreamDeadline(runDeadline, run);
+                    if (toolOutputs.isEmpty()) {
+                        return null;
+                    }
+                    Stream<StreamUpdate> followUp = runsClient.submitToolOutputsToRunStreaming(threadId, run.getId(),
+                        toolOutputs);
+                    journal.toolOutputsSubmitted(threadId, run.getId());
+                    return followUp;
+                } else if (update instanceof StreamThreadRunCreation runUpdate) {
+                    ThreadRun run = runUpdate.getMessage();
+                    if (lastRun.getAndSet(run) == null) {
+                        journal.runCreated(threadId, run.getId());
+                        logger.info("Run created successfully: {}", run.getId());
+                        cancelWhenAbandoned(abandonment, run);
+                    }
+                    logger.debug("Run status: {}", run.getStatus());
+                    agentMetrics.runStatus(threadId, run.getStatus());
+                    if (isTerminal(run.getStatus())) {
+                        return null;
+                    }
+                    checkStreamDeadline(runDeadline, run);
+                } else if (update instanceof StreamMessageUpdate messageUpdate) {
+                    emitMessageDelta(messageUpdate.getMessage(), deltas);
+                } else if (update.getKind() == PersistentAgentStreamEvent.ERROR) {
+                    throw new RuntimeException("Run stream reported an error event");
                 }
-                throw new RuntimeException(errorMessage);
             }
-            
-            if (attemptCount >= maxAttempts) {
-                throw new RuntimeException("Run did not complete within the expected time. Status: " + status);
+        }
+        return null;
+    }
+    
+    /**
+     * Cancel the run, off the caller's thread, once its request is abandoned. The request
+     * then fails when it next sees the run.
+     */
+    private void cancelWhenAbandoned(RunAbandonment abandonment, ThreadRun run) {
+        String threadId = run.getThreadId();
+        String runId = run.getId();
+        abandonment.onAbandon(() -> VirtualThreads.daemonThreadFactory("run-cancel").newThread(() -> {
+            logger.info("Request for run {} was abandoned", runId);
+            runCanceller.cancel(threadId, runId);
+        }).start());
+    }
+    
+    private static void checkStreamDeadline(Deadline deadline, ThreadRun run) {
+        if (deadline.isExpired()) {
+            throw new RunDeadlineExceededException(
+                "Run did not complete within the expected time. Status: " + run.getStatus(), run.getId());
+        }
+    }
+    
+    private void emitMessageDelta(MessageDeltaChunk chunk, Consumer<String> deltas) {
+        if (chunk.getDelta() == null || chunk.getDelta().getContent() == null) {
+            return;
+        }
+        for (MessageDeltaContent content : chunk.getDelta().getContent()) {
+            if (content instanceof MessageDeltaTextContent textContent && textContent.getText() != null) {
+                logger.debug("Message delta: {}", textContent.getText().getValue());
+                deltas.accept(textContent.getText().getValue());
+            }
+        }
+    }
+    
+    /**
+     * Block until the run scheduler reports the run complete or the deadline passed.
+     */
+    private ThreadRun waitForRunCompletion(String threadId, String runId, Deadline deadline) {
+        logger.info("Waiting for run to complete...");
+        CompletableFuture<ThreadRun> completion = runScheduler.track(threadId, runId, deadline);
+        try {
+            return completion.get();
+        } catch (InterruptedException e) {
+            completion.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted while waiting for run completion", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+    
+    /**
+     * Execute all tool calls of a required action and wait for their outputs.
+     */
+    private List<ToolOutput> resolveToolOutputs(ThreadRun run, Deadline deadline) {
+        try {
+            return resolveToolOutputsAsync(run, deadline).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted while waiting for tool outputs", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+    
+    /**
+     * Execute all tool calls of a required action concurrently. Each call has its own
+     * timeout, cut short by the run's deadline; a call that misses it or fails yields a
+     * structured error output instead of holding up the run. Outputs are listed in the order
+     * the calls were requested. No thread waits for the calls: the future completes when the
+     * last one finishes.
+     */
+    private CompletableFuture<List<ToolOutput>> resolveToolOutputsAsync(ThreadRun run, Deadline deadline) {
+        if (!(run.getRequiredAction() instanceof SubmitToolOutputsAction submitToolsOutputAction)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<RequiredToolCall> toolCalls = submitToolsOutputAction.getSubmitToolOutputs().getToolCalls();
+        logger.debug("Executing {} tool calls for run {}", toolCalls.size(), run.getId());
+        
+        long start = System.nanoTime();
+        List<CompletableFuture<ToolOutput>> pending = new ArrayList<>(toolCalls.size());
+        for (RequiredToolCall toolCall : toolCalls) {
+            pending.add(executeToolCall(toolCall, deadline));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> {
+                agentMetrics.runToolTime(run.getThreadId(), System.nanoTime() - start);
+                return pending.stream().map(CompletableFuture::join).toList();
+            });
+    }
+    
+    private CompletableFuture<ToolOutput> executeToolCall(RequiredToolCall toolCall, Deadline deadline) {
+        String toolCallId = toolCall.getId();
+        long timeoutMs = deadline.cap(config.getToolCallTimeoutMs());
+        // A timeout shortened by the deadline means the deadline is what cut the call off
+        boolean deadlineBound = timeoutMs < config.getToolCallTimeoutMs();
+        CompletableFuture<ToolOutput> output = new CompletableFuture<>();
+        Future<?> task = toolExecutor.submit(() -> {
+            try {
+                output.complete(getToolOutput(toolCall));
+            } catch (Throwable e) {
+                output.completeExceptionally(e);
             }
-            // Handle required actions (e.g., tool calls) - this is key to getting the response from the Python tool
-            if (run.getStatus() == RunStatus.REQUIRES_ACTION
-                    && run.getRequiredAction() instanceof SubmitToolOutputsAction) {
-                    SubmitToolOutputsAction submitToolsOutputAction = (SubmitToolOutputsAction) (run.getRequiredAction());
-                    ArrayList<ToolOutput> toolOutputs = new ArrayList<ToolOutput>();
-                    for (RequiredToolCall toolCall : submitToolsOutputAction.getSubmitToolOutputs().getToolCalls()) {
-                        toolOutputs.add(getPythonCodeRunnerOutput(toolCall));
+        });
+        return output.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .handle((result, error) -> {
+                if (error == null) {
+                    return result != null ? result
+                        : toolErrorOutput(toolCallId, "unsupported_tool", "No handler for this tool call");
+                }
+                if (error instanceof TimeoutException) {
+                    // Interrupting the call kills the Python process it waits on
+                    task.cancel(true);
+                    if (deadlineBound) {
+                        runCanceller.toolCallAborted();
+                        logger.warn("Tool call {} aborted at the run's deadline", toolCallId);
+                    } else {
+                        logger.warn("Tool call {} exceeded {} ms", toolCallId, timeoutMs);
                     }
-                    run = runsClient.submitToolOutputsToRun(threadId, runId, toolOutputs);
-                }            
-            
-        } while (run.getStatus() == RunStatus.QUEUED || 
-                 run.getStatus() == RunStatus.IN_PROGRESS || 
-                 run.getStatus() == RunStatus.REQUIRES_ACTION);
+                    return toolErrorOutput(toolCallId, "timeout",
+                        "Tool call did not finish within " + timeoutMs + " ms");
+                }
+                logger.warn("Tool call {} failed: {}", toolCallId, error.getMessage());
+                return toolErrorOutput(toolCallId, "execution_failed", String.valueOf(error.getMessage()));
+            });
+    }
+    
+    static ToolOutput toolErrorOutput(String toolCallId, String error, String message) {
+        String output = JSON_MAPPER.createObjectNode()
+            .put("error", error)
+            .put("message", message)
+            .toString();
+        return new ToolOutput().setToolCallId(toolCallId).setOutput(output);
     }
     
-    private void displayMessages(PersistentAgentThread thread) {
-        PagedIterable<ThreadMessage> messages = messagesClient.listMessages(thread.getId());
+    static boolean isTerminal(RunStatus status) {
+        return status == RunStatus.COMPLETED || status == RunStatus.FAILED
+            || status == RunStatus.CANCELLED || status == RunStatus.EXPIRED;
+    }
+    
+    static void checkRunSucceeded(ThreadRun run) {
+        RunStatus status = run.getStatus();
+        if (status == RunStatus.FAILED || status == RunStatus.CANCELLED || status == RunStatus.EXPIRED) {
+            String errorMessage = String.format("Run failed with status: %s", status);
+            if (run.getLastError() != null) {
+                errorMessage += ". Error: " + run.getLastError().getMessage();
+            }
+            throw new RuntimeException(errorMessage);
+        }
+    }
+    
+    /**
+     * Fetch only the messages created since the last turn, oldest first, and render them.
+     */
+    private String displayMessages(String threadId, String runId) {
+        List<ThreadMessage> delta = new ArrayList<>();
+        messagesClient.listMessages(threadId, null, config.getMessagePageSize(), ListSortOrder.ASCENDING,
+            messageCache.cursor(threadId), null).forEach(delta::add);
+        messageCache.append(threadId, delta);
+        if (imageDownloader != null) {
+            imageDownloader.submit(threadId, delta);
+        }
+        return renderMessages(newestFirst(delta), runId);
+    }
+    
+    /**
+     * All messages of a thread, newest first: the cached ones, then older pages fetched
+     * from the service only as the stream is consumed.
+     */
+    Stream<ThreadMessage> threadHistory(String threadId) {
+        List<ThreadMessage> cached = messageCache.recent(threadId);
+        String oldestCached = cached.isEmpty() ? null : cached.get(0).getId();
+        // Deferred so nothing is requested unless the caller reads past the cached messages
+        Stream<ThreadMessage> older = Stream.of(threadId).flatMap(id -> messagesClient.listMessages(id, null,
+            config.getMessagePageSize(), ListSortOrder.DESCENDING, oldestCached, null).stream());
+        return Stream.concat(newestFirst(cached).stream(), older);
+    }
+    
+    static List<ThreadMessage> newestFirst(List<ThreadMessage> ascending) {
+        List<ThreadMessage> reversed = new ArrayList<>(ascending);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+    
+    /**
+     * IDs of the image files in the agent's messages, in message order.
+     */
+    static List<String> imageFileIds(Iterable<ThreadMessage> messages) {
+        List<String> fileIds = new ArrayList<>();
+        for (ThreadMessage message : messages) {
+            if (message.getRole() != MessageRole.AGENT) {
+                continue;
+            }
+            for (MessageContent content : message.getContent()) {
+                if (content instanceof MessageImageFileContent imageContent) {
+                    fileIds.add(imageContent.getImageFile().getFileId());
+                }
+            }
+        }
+        return fileIds;
+    }
+    
+    /**
+     * Log the messages of a thread and return the agent's reply text for the given run.
+     */
+    static String renderMessages(Iterable<ThreadMessage> messages, String runId) {
+        StringBuilder reply = new StringBuilder();
         
         for (ThreadMessage message : messages) {
+            boolean isReply = message.getRole() == MessageRole.AGENT && runId.equals(message.getRunId());
             String timestamp = message.getCreatedAt().toString();
             String role = message.getRole().toString().toLowerCase();
             logger.info("{} - {} :", timestamp, role);
@@ -302,6 +1204,10 @@ public class AgentService {
             for (MessageContent content : message.getContent()) {
                 if (content instanceof MessageTextContent textContent) {
                     logger.info("{}", textContent.getText().getValue());
+                    if (isReply) {
+                        // Messages are listed newest first
+                        reply.insert(0, textContent.getText().getValue() + "\n");
+                    }
                 } else if (content instanceof MessageImageFileContent imageContent) {
                     String fileId = imageContent.getImageFile().getFileId();
                     logger.info("Image from ID: {}", fileId);
@@ -309,32 +1215,97 @@ public class AgentService {
                 }
             }
         }
+        return reply.toString().trim();
+    }
+    
+    /**
+     * Wait for queued image downloads and release the downloader.
+     */
+    void finishImageDownloads() {
+        if (imageDownloader != null) {
+            imageDownloader.close();
+            imageDownloader = null;
+        }
+    }
+    
+    private void releaseClientResources() {
+        if (runScheduler != null) {
+            runScheduler.close();
+            runScheduler = null;
+        }
+        if (reactiveRunner != null) {
+            reactiveRunner.close();
+            reactiveRunner = null;
+        }
+        if (fakeServer != null) {
+            fakeServer.close();
+            fakeServer = null;
+        }
+        if (httpLogger != null) {
+            // Flushes the exchanges still buffered before the counts are final
+            httpLogger.close();
+            logger.info("HTTP logging: {} exchanges logged, {} dropped because the buffer was full",
+                httpLogger.getLoggedCount(), httpLogger.getDroppedCount());
+            httpLogger = null;
+        }
+    }
+    
+    private void logToolCacheStats() {
+        ToolResultCache.CacheStats stats = toolResultCache.getStats();
+        if (stats.memoryHits() + stats.diskHits() + stats.misses() > 0) {
+            logger.info("Tool result cache: {} memory hits, {} disk hits, {} misses, {} evictions",
+                stats.memoryHits(), stats.diskHits(), stats.misses(), stats.evictions());
+        }
     }
     
-    private void cleanup() {
-        if (agentsClient != null) {
-            logger.info("Cleaning up HTTP client resources...");
+    /**
+     * Delete the threads and agents this process created, leaving cached agents and
+     * other workers' resources alone. In background mode the deletions continue after
+     * this method returns and are awaited by {@link #close()}.
+     *
+     * @return A future completed once the deletions finished
+     */
+    private CompletableFuture<Void> cleanup() {
+        if (agentsClient == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<String> threadIds = drain(createdThreadIds);
+        threadIds.forEach(messageCache::evict);
+        List<String> agentIds = new ArrayList<>();
+        for (String agentId : drain(createdAgentIds)) {
+            if (agentDefinitionCache.isCached(agentId)) {
+                journal.agentRetained(agentId);
+            } else {
+                agentIds.add(agentId);
+            }
+        }
+        logger.info("Cleaning up {} threads and {} agents", threadIds.size(), agentIds.size());
+        
+        CompletableFuture<Void> cleanup = CompletableFuture.allOf(
+            resourceCleaner.delete("thread", threadIds, threadsClient::deleteThread, journal::threadDeleted)
+                .thenAccept(this::logCleanupSummary),
+            resourceCleaner.delete("agent", agentIds, administrationClient::deleteAgent, journal::agentDeleted)
+                .thenAccept(this::logCleanupSummary));
+        if (!config.isCleanupInBackground()) {
             try {
-                // Clean up threads
-                if (threadsClient != null) {
-                    PagedIterable<PersistentAgentThread> threads = threadsClient.listThreads();
-                    for (PersistentAgentThread thread : threads) {
-                        threadsClient.deleteThread(thread.getId());
-                        logger.debug("Thread deleted: {}", thread.getId());
-                    }
-                }
-
-                // Clean up agents
-                if (administrationClient != null) {
-                    PagedIterable<PersistentAgent> agents = administrationClient.listAgents();
-                    for (PersistentAgent agent : agents) {
-                        administrationClient.deleteAgent(agent.getId());
-                        logger.debug("Agent deleted: {}", agent.getId());
-                    }
-                }
+                cleanup.join();
             } catch (Exception e) {
                 logger.warn("Error during cleanup: {}", e.getMessage());
             }
         }
+        return cleanup;
+    }
+    
+    private void logCleanupSummary(ResourceCleaner.CleanupSummary summary) {
+        if (summary.deleted() + summary.failed() > 0) {
+            logger.info("Deleted {} {}s in {} ms ({} failed)", summary.deleted(), summary.kind(),
+                summary.elapsedMs(), summary.failed());
+        }
+    }
+    
+    private static List<String> drain(Set<String> ids) {
+        List<String> drained = new ArrayList<>(ids);
+        ids.removeAll(drained);
+        return drained;
     }
 }
@@ -0,0 +1,329 @@
+package com.example.foundry.service;
+
+import com.example.foundry.util.VirtualThreads;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Drives many independent conversations concurrently.
+ *
+ * Each prompt is handled by its own task on a virtual thread, so a conversation that
+ * is waiting on the service does not hold a platform thread. A semaphore bounds the
+ * number of conversations in flight; prompts are read lazily so input larger than
+ * memory can be processed. Results are handed to the sink as soon as each one finishes.
+ *
+ * With a {@link ReactiveConversation} no thread is used per prompt at all: conversations
+ * are merged with a bounded {@code flatMap} and progress on the HTTP client's event loops.
+ */
+public class BatchConversationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchConversationEngine.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * A single conversation turn: send a prompt on a fresh thread and return the reply.
+     */
+    @FunctionalInterface
+    public interface Conversation {
+        String converse(BatchPrompt prompt) throws Exception;
+    }
+
+    /**
+     * A non-blocking conversation turn that emits the reply when it is done.
+     */
+    @FunctionalInterface
+    public interface ReactiveConversation {
+        Mono<String> converse(BatchPrompt prompt);
+    }
+
+    /**
+     * @param cacheable Whether the reply may come from, and go to, the response cache
+     * @param error     Why the input line could not be read as a prompt, or null; such a
+     *                  prompt is reported as failed without being sent
+     */
+    public record BatchPrompt(String id, String prompt, boolean cacheable, String error) {
+
+        public BatchPrompt(String id, String prompt, boolean cacheable) {
+            this(id, prompt, cacheable, null);
+        }
+
+        public BatchPrompt(String id, String prompt) {
+            this(id, prompt, true);
+        }
+    }
+
+    public record BatchResult(String id, String prompt, String reply, String error, long latencyMs) {
+    }
+
+    public record BatchSummary(int total, int failed, long elapsedMs, double throughputPerSecond,
+                               long p50Ms, long p95Ms, long p99Ms) {
+    }
+
+    private final Conversation conversation;
+    private final ReactiveConversation reactiveConversation;
+    private final int concurrency;
+
+    /**
+     * Create a batch engine.
+     *
+     * @param conversation Handler executed for every prompt
+     * @param concurrency Maximum number of conversations in flight
+     */
+    public BatchConversationEngine(Conversation conversation, int concurrency) {
+        this(conversation, null, concurrency);
+    }
+
+    private BatchConversationEngine(Conversation conversation, ReactiveConversation reactiveConversation,
+                                    int concurrency) {
+        this.conversation = conversation;
+        this.reactiveConversation = reactiveConversation;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Create a batch engine for non-blocking conversations.
+     *
+     * @param conversation Handler subscribed to for every prompt
+     * @param concurrency Maximum number of conversations in flight
+     */
+    public static BatchConversationEngine reactive(ReactiveConversation conversation, int concurrency) {
+        return new BatchConversationEngine(null, conversation, concurrency);
+    }
+
+    /**
+     * Parse prompts from JSONL. Each line is either an object with a {@code prompt}
+     * field (and optional {@code id}, and {@code "cache": false} to bypass the response
+     * cache) or a bare JSON string. Blank lines are skipped; any other line that is not a
+     * valid prompt yields a prompt carrying the error, holding the line itself as its text.
+     */
+    public static Stream<BatchPrompt> readPrompts(BufferedReader reader) {
+        AtomicLong lineNumber = new AtomicLong();
+        return reader.lines()
+            .map(line -> parsePrompt(line, lineNumber.incrementAndGet()))
+            .filter(prompt -> prompt != null);
+    }
+
+    private static BatchPrompt parsePrompt(String line, long lineNumber) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode node = MAPPER.readTree(line);
+            if (node.isTextual()) {
+                return new BatchPrompt(String.valueOf(lineNumber), node.asText());
+            }
+            JsonNode prompt = node.get("prompt");
+            JsonNode id = node.get("id");
+            String promptId = id != null ? id.asText() : String.valueOf(lineNumber);
+            if (prompt == null || !prompt.isTextual()) {
+                return new BatchPrompt(promptId, line, false, "Line " + lineNumber + " has no 'prompt' field");
+            }
+            return new BatchPrompt(promptId, prompt.asText(), node.path("cache").asBoolean(true));
+        } catch (JsonProcessingException e) {
+            return new BatchPrompt(String.valueOf(lineNumber), line, false,
+                "Line " + lineNumber + " is not valid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Write each result as one JSON line, flushing so consumers can tail the file.
+     */
+    public static Consumer<BatchResult> jsonLinesSink(Writer writer) {
+        return result -> {
+            try {
+                String line = MAPPER.writeValueAsString(result);
+                synchronized (writer) {
+                    writer.write(line);
+                    writer.write('\n');
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Run every prompt and block until all of them finished.
+     *
+     * @param prompts Prompts to process, consumed lazily
+     * @param sink Receives each result as soon as its conversation finishes
+     * @return Throughput and latency summary of the batch
+     */
+    public BatchSummary run(Stream<BatchPrompt> prompts, Consumer<BatchResult> sink) {
+        if (reactiveConversation != null) {
+            return runReactive(prompts, sink);
+        }
+        Semaphore permits = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger invalid = new AtomicInteger();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("batch-conversation");
+        long start = System.nanoTime();
+
+        try {
+            Iterator<BatchPrompt> iterator = prompts.iterator();
+            while (iterator.hasNext()) {
+                BatchPrompt prompt = iterator.next();
+                if (prompt.error() != null) {
+                    reject(prompt, failed, invalid, sink);
+                    continue;
+                }
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        BatchResult result = execute(prompt);
+                        latencies.add(result.latencyMs());
+                        if (result.error() != null) {
+                            failed.incrementAndGet();
+                        }
+                        sink.accept(result);
+                    } catch (RuntimeException e) {
+                        logger.error("Unable to record result for prompt {}: {}", prompt.id(), e.getMessage(), e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch was interrupted", e);
+        } finally {
+            // Also when reading the prompts fails: the caller closes the sink once this returns
+            awaitInFlight(executor, permits);
+        }
+
+        return summarize(latencies, failed.get(), invalid.get(), start);
+    }
+
+    private void awaitInFlight(ExecutorService executor, Semaphore permits) {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Waiting for {} in-flight conversations...", concurrency - permits.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Report a prompt that could not be read as failed, without sending it.
+     */
+    private static void reject(BatchPrompt prompt, AtomicInteger failed, AtomicInteger invalid,
+                               Consumer<BatchResult> sink) {
+        logger.warn("Skipping prompt {}: {}", prompt.id(), prompt.error());
+        failed.incrementAndGet();
+        invalid.incrementAndGet();
+        try {
+            sink.accept(new BatchResult(prompt.id(), prompt.prompt(), null, prompt.error(), 0));
+        } catch (RuntimeException e) {
+            logger.error("Unable to record result for prompt {}: {}", prompt.id(), e.getMessage(), e);
+        }
+    }
+
+    private BatchSummary runReactive(Stream<BatchPrompt> prompts, Consumer<BatchResult> sink) {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger invalid = new AtomicInteger();
+        long start = System.nanoTime();
+
+        Flux.fromStream(prompts)
+            .filter(prompt -> {
+                if (prompt.error() != null) {
+                    reject(prompt, failed, invalid, sink);
+                    return false;
+                }
+                return true;
+            })
+            .flatMap(prompt -> executeReactive(prompt)
+                .doOnNext(result -> {
+                    latencies.add(result.latencyMs());
+                    if (result.error() != null) {
+                        failed.incrementAndGet();
+                    }
+                    try {
+                        sink.accept(result);
+                    } catch (RuntimeException e) {
+                        logger.error("Unable to record result for prompt {}: {}", prompt.id(), e.getMessage(), e);
+                    }
+                }), concurrency)
+            .blockLast();
+
+        return summarize(latencies, failed.get(), invalid.get(), start);
+    }
+
+    private Mono<BatchResult> executeReactive(BatchPrompt prompt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.defer(() -> reactiveConversation.converse(prompt))
+                .map(reply -> new BatchResult(prompt.id(), prompt.prompt(), reply, null,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)))
+                .onErrorResume(e -> {
+                    logger.warn("Conversation for prompt {} failed: {}", prompt.id(), e.getMessage());
+                    String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+                    return Mono.just(new BatchResult(prompt.id(), prompt.prompt(), null, error,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                });
+        });
+    }
+
+    /**
+     * Latency and throughput cover the conversations only; invalid prompts count towards
+     * the total and the failures.
+     */
+    private static BatchSummary summarize(ConcurrentLinkedQueue<Long> latencies, int failed, int invalid,
+                                          long start) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double throughput = elapsedMs > 0 ? sorted.length * 1000.0 / elapsedMs : sorted.length;
+        return new BatchSummary(sorted.length + invalid, failed, elapsedMs, throughput,
+            percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    private BatchResult execute(BatchPrompt prompt) {
+        long start = System.nanoTime();
+        String reply = null;
+        String error = null;
+        try {
+            reply = conversation.converse(prompt);
+        } catch (Exception e) {
+            logger.warn("Conversation for prompt {} failed: {}", prompt.id(), e.getMessage());
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new BatchResult(prompt.id(), prompt.prompt(), reply, error, latencyMs);
+    }
+
+    /**
+     * Nearest-rank percentile of an ascending array.
+     */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.azure.ai.agents.persistent.models.PersistentAgentThread;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.util.VirtualThreads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * HTTP chat API over a warm client and agent, for server mode.
+ *
+ * <ul>
+ *   <li>{@code POST /conversations} starts a conversation and returns its ID</li>
+ *   <li>{@code POST /conversations/{id}/messages} with {@code {"message": "..."}} runs the agent
+ *       and returns {@code {"reply": "..."}}; with {@code Accept: text/event-stream} the reply is
+ *       streamed as server-sent {@code delta} events followed by one {@code reply} event</li>
+ *   <li>{@code DELETE /conversations/{id}} ends a conversation and deletes its thread</li>
+ *   <li>{@code GET /health} reports liveness</li>
+ * </ul>
+ *
+ * A conversation is one agent thread reused for all of its turns, so each turn fetches only
+ * the messages it added; {@code agent.server-warm-threads} threads are created ahead of time
+ * so starting a conversation does not wait for the service. A conversation runs one message
+ * at a time and answers 409 to a message sent while a turn is in progress. Requests are
+ * handled on virtual threads, off the Netty event loop.
+ */
+class ChatServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatServer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String JSON = "application/json";
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    private record Conversation(PersistentAgentThread thread, AtomicBoolean busy) {
+    }
+
+    private final AgentConfiguration config;
+    private final AgentService agentService;
+    private final PersistentAgent agent;
+    private final ExecutorService requestExecutor;
+    private final Scheduler requestScheduler;
+    private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+    private final Queue<PersistentAgentThread> warmThreads = new ConcurrentLinkedQueue<>();
+    private DisposableServer server;
+
+    ChatServer(AgentConfiguration config, AgentService agentService, PersistentAgent agent) {
+        this.config = config;
+        this.agentService = agentService;
+        this.agent = agent;
+        this.requestExecutor = VirtualThreads.newThreadPerTaskExecutor("chat-request");
+        this.requestScheduler = Schedulers.fromExecutorService(requestExecutor, "chat-request");
+    }
+
+    /**
+     * Bind the server on {@code agent.server-host} and {@code agent.server-port}.
+     */
+    ChatServer start() {
+        for (int i = 0; i < config.getServerWarmThreads(); i++) {
+            refillWarmThreads();
+        }
+        server = HttpServer.create()
+            .host(config.getServerHost())
+            .port(config.getServerPort())
+            .route(routes -> routes
+                .get("/health", (request, response) -> sendJson(response, HttpResponseStatus.OK,
+                    MAPPER.createObjectNode().put("status", "ok")))
+                .post("/conversations", this::createConversation)
+                .post("/conversations/{id}/messages", this::sendMessage)
+                .delete("/conversations/{id}", this::deleteConversation))
+            .bindNow();
+        logger.info("Chat server listening on {}:{} with agent {}", config.getServerHost(), server.port(),
+            agent.getId());
+        return this;
+    }
+
+    int getPort() {
+        return server.port();
+    }
+
+    /**
+     * Block until the server is closed.
+     */
+    void awaitTermination() {
+        server.onDispose().block();
+    }
+
+    private Mono<Void> createConversation(HttpServerRequest request, HttpServerResponse response) {
+        return Mono.fromCallable(() -> {
+                PersistentAgentThread thread = warmThreads.poll();
+                if (thread == null) {
+                    thread = agentService.createThread();
+                }
+                refillWarmThreads();
+                conversations.put(thread.getId(), new Conversation(thread, new AtomicBoolean()));
+                return thread.getId();
+            })
+            .subscribeOn(requestScheduler)
+            .flatMap(id -> sendJson(response, HttpResponseStatus.CREATED,
+                MAPPER.createObjectNode().put("conversationId", id)))
+            .onErrorResume(e -> sendError(response, HttpResponseStatus.BAD_GATEWAY, e.getMessage()));
+    }
+
+    private void refillWarmThreads() {
+        if (warmThreads.size() >= config.getServerWarmThreads()) {
+            return;
+        }
+        requestExecutor.execute(() -> {
+            try {
+                warmThreads.add(agentService.createThread());
+            } catch (RuntimeException e) {
+                logger.warn("Could not create a warm thread: {}", e.getMessage());
+            }
+        });
+    }
+
+    private Mono<Void> sendMessage(HttpServerRequest request, HttpServerResponse response) {
+        Conversation conversation = conversations.get(request.param("id"));
+        if (conversation == null) {
+            return sendError(response, HttpResponseStatus.NOT_FOUND, "No conversation " + request.param("id"));
+        }
+        boolean stream = String.valueOf(request.requestHeaders().get(HttpHeaderNames.ACCEPT)).contains(EVENT_STREAM);
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8).defaultIfEmpty("")
+            .flatMap(body -> {
+                String message = parseMessage(body);
+                if (message == null) {
+                    return sendError(response, HttpResponseStatus.BAD_REQUEST, "Body must be {\"message\": \"...\"}");
+                }
+                if (!conversation.busy().compareAndSet(false, true)) {
+                    return sendError(response, HttpResponseStatus.CONFLICT, "A message is already being answered");
+                }
+                return stream ? streamReply(response, conversation, message) : reply(response, conversation, message);
+            });
+    }
+
+    private Mono<Void> reply(HttpServerResponse response, Conversation conversation, String message) {
+        return Mono.fromCallable(() -> agentService.converse(agent, conversation.thread(), message))
+            .subscribeOn(requestScheduler)
+            .doFinally(signal -> conversation.busy().set(false))
+            .flatMap(reply -> sendJson(response, HttpResponseStatus.OK, MAPPER.createObjectNode().put("reply", reply)))
+            .onErrorResume(e -> sendError(response, e instanceof RunDeadlineExceededException
+                ? HttpResponseStatus.GATEWAY_TIMEOUT : HttpResponseStatus.BAD_GATEWAY, e.getMessage()));
+    }
+
+    /**
+     * Stream the reply as server-sent events. A client that disconnects before the reply is
+     * complete abandons the request, which cancels its run on the service.
+     */
+    private Mono<Void> streamReply(HttpServerResponse response, Conversation conversation, String message) {
+        RunAbandonment abandonment = new RunAbandonment();
+        Flux<String> events = Flux.create(sink -> {
+            sink.onCancel(() -> {
+                logger.info("Client of conversation {} disconnected mid-reply", conversation.thread().getId());
+                abandonment.abandon();
+            });
+            requestExecutor.execute(() -> {
+                try {
+                    String reply = agentService.converse(agent, conversation.thread(), message,
+                        delta -> sink.next(event("delta", MAPPER.createObjectNode().put("text", delta))), abandonment);
+                    sink.next(event("reply", MAPPER.createObjectNode().put("reply", reply)));
+                } catch (RuntimeException e) {
+                    sink.next(event("error", MAPPER.createObjectNode().put("error", String.valueOf(e.getMessage()))));
+                } finally {
+                    conversation.busy().set(false);
+                    sink.complete();
+                }
+            });
+        }, FluxSink.OverflowStrategy.BUFFER);
+        return response.sse().sendString(events, StandardCharsets.UTF_8).then();
+    }
+
+    private Mono<Void> deleteConversation(HttpServerRequest request, HttpServerResponse response) {
+        Conversation conversation = conversations.remove(request.param("id"));
+        if (conversation == null) {
+            return sendError(response, HttpResponseStatus.NOT_FOUND, "No conversation " + request.param("id"));
+        }
+        return Mono.fromRunnable(() -> agentService.deleteThread(conversation.thread().getId()))
+            .subscribeOn(requestScheduler)
+            .then(response.status(HttpResponseStatus.NO_CONTENT).send())
+            .onErrorResume(e -> sendError(response, HttpResponseStatus.BAD_GATEWAY, e.getMessage()));
+    }
+
+    private static String parseMessage(String body) {
+        try {
+            JsonNode message = MAPPER.readTree(body).path("message");
+            return message.isTextual() && !message.asText().isBlank() ? message.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String event(String name, ObjectNode data) {
+        return "event: " + name + "\ndata: " + data + "\n\n";
+    }
+
+    private static Mono<Void> sendJson(HttpServerResponse response, HttpResponseStatus status, ObjectNode body) {
+        return response.status(status)
+            .header(HttpHeaderNames.CONTENT_TYPE, JSON)
+            .sendString(Mono.just(body.toString()), StandardCharsets.UTF_8)
+            .then();
+    }
+
+    private static Mono<Void> sendError(HttpServerResponse response, HttpResponseStatus status, String message) {
+        return sendJson(response, status, MAPPER.createObjectNode().put("error", String.valueOf(message)));
+    }
+
+    /**
+     * Stop accepting requests, which ends {@link #awaitTermination}. Threads of open
+     * conversations are deleted with the rest of this process's resources by the service's
+     * cleanup.
+     */
+    void stop() {
+        if (server != null && !server.isDisposed()) {
+            server.disposeNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        requestScheduler.dispose();
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.foundry.service;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of the agents, threads and runs this process creates,
+ * so a process that dies mid-workflow can be picked up where it stopped.
+ *
+ * Each record is a length, a CRC-32 and a payload (event, timestamp, thread, agent and run
+ * IDs and the prompt), with the length written last; replay stops at the first record
+ * whose length or checksum does not hold, which is where a crash cut the log short.
+ * Records go to the page cache through the mapping, so they survive the JVM dying, but
+ * they are not forced to the device on every append.
+ *
+ * {@link #open()} replays the file and returns what the previous process left: agents and
+ * threads never deleted, with the prompt and run of each conversation. Compaction rewrites
+ * the file as just that live state, dropping deleted resources and intermediate events;
+ * it runs when the mapping fills up and when the journal is closed. A lock file keeps two
+ * processes from sharing one journal.
+ */
+@Component
+public class ConversationJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationJournal.class);
+    private static final int MAGIC = 0x434A4E31;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_SIZE = 1 << 20;
+
+    private enum Event {
+        AGENT_CREATED, AGENT_DELETED, THREAD_CREATED, MESSAGE_SENT, RUN_CREATED, TOOL_OUTPUTS_SUBMITTED,
+        RUN_COMPLETED, THREAD_DELETED, AGENT_RETAINED
+    }
+
+    /**
+     * A thread the journal has not seen deleted.
+     *
+     * @param agentId      Agent the prompt was sent to, or null if no message was sent
+     * @param prompt       The user message, or null if none was sent
+     * @param runId        The latest run, or null if none was created
+     * @param runCompleted Whether that run reached a terminal status
+     */
+    public record JournaledThread(String threadId, String agentId, String prompt, String runId, boolean runCompleted) {
+    }
+
+    /**
+     * Agents and threads a previous process created and did not delete.
+     */
+    public record Recovery(List<String> agentIds, List<JournaledThread> threads) {
+
+        public static final Recovery EMPTY = new Recovery(List.of(), List.of());
+
+        public boolean isEmpty() {
+            return agentIds.isEmpty() && threads.isEmpty();
+        }
+    }
+
+    private static final class ThreadState {
+        String agentId;
+        String prompt;
+        String runId;
+        boolean runCompleted;
+    }
+
+    private final AgentConfiguration config;
+    private final Set<String> agents = new LinkedHashSet<>();
+    private final Map<String, ThreadState> threads = new LinkedHashMap<>();
+    private Path file;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int position;
+
+    @Autowired
+    public ConversationJournal(AgentConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Open the journal and replay it. Returns {@link Recovery#EMPTY} if journaling is
+     * disabled or another process holds the journal.
+     */
+    public synchronized Recovery open() {
+        if (!config.isJournalEnabled() || log != null) {
+            return Recovery.EMPTY;
+        }
+        file = Path.of(config.getJournalFile());
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            lockChannel = FileChannel.open(Path.of(file + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                logger.warn("Journal {} is in use by another process; continuing without a journal", file);
+                lockChannel.close();
+                return Recovery.EMPTY;
+            }
+            map(Math.max(INITIAL_SIZE, Files.exists(file) ? Files.size(file) : 0));
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+        return snapshot();
+    }
+
+    public void agentCreated(String agentId) {
+        append(Event.AGENT_CREATED, null, agentId, null, null);
+    }
+
+    public void agentDeleted(String agentId) {
+        append(Event.AGENT_DELETED, null, agentId, null, null);
+    }
+
+    /**
+     * The agent outlives this process on purpose, e.g. because it is cached, and is no
+     * longer this process's to delete.
+     */
+    public void agentRetained(String agentId) {
+        append(Event.AGENT_RETAINED, null, agentId, null, null);
+    }
+
+    public void threadCreated(String threadId) {
+        append(Event.THREAD_CREATED, threadId, null, null, null);
+    }
+
+    public void messageSent(String threadId, String agentId, String prompt) {
+        append(Event.MESSAGE_SENT, threadId, agentId, null, prompt);
+    }
+
+    public void runCreated(String threadId, String runId) {
+        append(Event.RUN_CREATED, threadId, null, runId, null);
+    }
+
+    public void toolOutputsSubmitted(String threadId, String runId) {
+        append(Event.TOOL_OUTPUTS_SUBMITTED, threadId, null, runId, null);
+    }
+
+    public void runCompleted(String threadId, String runId) {
+        append(Event.RUN_COMPLETED, threadId, null, runId, null);
+    }
+
+    public void threadDeleted(String threadId) {
+        append(Event.THREAD_DELETED, threadId, null, null, null);
+    }
+
+    private synchronized void append(Event event, String threadId, String agentId, String runId, String prompt) {
+        if (log == null) {
+            return;
+        }
+        apply(event, threadId, agentId, runId, prompt);
+        byte[] payload = encode(event, threadId, agentId, runId, prompt);
+        try {
+            if (position + RECORD_HEADER_SIZE + payload.length > log.capacity()) {
+                compact(RECORD_HEADER_SIZE + payload.length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact journal " + file, e);
+        }
+        write(payload);
+    }
+
+    private void write(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        log.put(position + RECORD_HEADER_SIZE, payload);
+        log.putInt(position + 4, (int) crc.getValue());
+        // The length goes last: a record without one was never completely written
+        log.putInt(position, payload.length);
+        position += RECORD_HEADER_SIZE + payload.length;
+    }
+
+    private void apply(Event event, String threadId, String agentId, String runId, String prompt) {
+        switch (event) {
+            case AGENT_CREATED -> agents.add(agentId);
+            case AGENT_DELETED, AGENT_RETAINED -> agents.remove(agentId);
+            case THREAD_CREATED -> threads.putIfAbsent(threadId, new ThreadState());
+            case THREAD_DELETED -> threads.remove(threadId);
+            case MESSAGE_SENT -> {
+                ThreadState state = threads.computeIfAbsent(threadId, id -> new ThreadState());
+                state.agentId = agentId;
+                state.prompt = prompt;
+                state.runId = null;
+                state.runCompleted = false;
+            }
+            case RUN_CREATED -> {
+                ThreadState state = threads.computeIfAbsent(threadId, id -> new ThreadState());
+                state.runId = runId;
+                state.runCompleted = false;
+            }
+            case RUN_COMPLETED -> {
+                ThreadState state = threads.get(threadId);
+                if (state != null && runId.equals(state.runId)) {
+                    state.runCompleted = true;
+                }
+            }
+            case TOOL_OUTPUTS_SUBMITTED -> {
+                // Informational: after a restart the run's status says whether outputs are still due
+            }
+        }
+    }
+
+    private void replay() {
+        int offset = HEADER_SIZE;
+        int records = 0;
+        boolean torn = false;
+        while (offset + RECORD_HEADER_SIZE <= log.capacity()) {
+            int length = log.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || offset + RECORD_HEADER_SIZE + length > log.capacity()) {
+                logger.warn("Journal {} ends with an incomplete record at offset {}", file, offset);
+                torn = true;
+                break;
+            }
+            byte[] payload = new byte[length];
+            log.get(offset + RECORD_HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != log.getInt(offset + 4)) {
+                logger.warn("Journal {} ends with a corrupt record at offset {}", file, offset);
+                torn = true;
+                break;
+            }
+            decode(payload);
+            records++;
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        position = offset;
+        if (torn) {
+            // Clear what the crash left behind so new records are not followed by stale bytes
+            for (int i = position; i < log.capacity(); i++) {
+                log.put(i, (byte) 0);
+            }
+        }
+        logger.debug("Replayed {} journal records: {} agents and {} threads still live", records, agents.size(),
+            threads.size());
+    }
+
+    /**
+     * Rewrite the journal as its live state and map it again, growing the mapping if that
+     * still leaves less than {@code required} bytes free.
+     */
+    private void compact(int required) throws IOException {
+        long live = rewrite();
+        long size = INITIAL_SIZE;
+        while (size < 2 * (live + required)) {
+            size *= 2;
+        }
+        map(size);
+        position = (int) live;
+    }
+
+    /**
+     * Replace the journal file with one holding only the live state, and close the mapping.
+     *
+     * @return Size of the new file
+     */
+    private long rewrite() throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        for (String agentId : agents) {
+            records.add(encode(Event.AGENT_CREATED, null, agentId, null, null));
+        }
+        for (Map.Entry<String, ThreadState> entry : threads.entrySet()) {
+            ThreadState state = entry.getValue();
+            records.add(encode(Event.THREAD_CREATED, entry.getKey(), null, null, null));
+            if (state.prompt != null) {
+                records.add(encode(Event.MESSAGE_SENT, entry.getKey(), state.agentId, null, state.prompt));
+            }
+            if (state.runId != null) {
+                records.add(encode(Event.RUN_CREATED, entry.getKey(), null, state.runId, null));
+                if (state.runCompleted) {
+                    records.add(encode(Event.RUN_COMPLETED, entry.getKey(), null, state.runId, null));
+                }
+            }
+        }
+        long live = HEADER_SIZE + records.stream().mapToLong(record -> RECORD_HEADER_SIZE + record.length).sum();
+
+        Path compacted = Path.of(file + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) live);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            for (byte[] record : records) {
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                buffer.putInt(record.length).putInt((int) crc.getValue()).put(record);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Compacted journal {} to {} records", file, records.size());
+        return live;
+    }
+
+    private void map(long size) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (!fresh && log.getInt(0) != MAGIC) {
+            logger.warn("Journal {} has an unknown format; starting a new one", file);
+            for (int i = 0; i < size; i++) {
+                log.put(i, (byte) 0);
+            }
+        }
+        log.putInt(0, MAGIC);
+        log.putInt(4, VERSION);
+    }
+
+    private Recovery snapshot() {
+        List<JournaledThread> journaled = new ArrayList<>(threads.size());
+        threads.forEach((threadId, state) -> journaled.add(
+            new JournaledThread(threadId, state.agentId, state.prompt, state.runId, state.runCompleted)));
+        return new Recovery(List.copyOf(agents), journaled);
+    }
+
+    private static byte[] encode(Event event, String threadId, String agentId, String runId, String prompt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (prompt != null ? prompt.length() : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(event.ordinal());
+            out.writeLong(System.currentTimeMillis());
+            for (String value : new String[]{threadId, agentId, runId, prompt}) {
+                if (value == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        Event event = Event.values()[in.get()];
+        in.getLong();
+        String[] values = new String[4];
+        for (int i = 0; i < values.length; i++) {
+            int length = in.getInt();
+            if (length >= 0) {
+                values[i] = new String(payload, in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            }
+        }
+        apply(event, values[0], values[1], values[2], values[3]);
+    }
+
+    /**
+     * Compact the journal down to the resources still live and release it.
+     */
+    @Override
+    public synchronized void close() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.force();
+            rewrite();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close journal {}: {}", file, e.getMessage());
+        } finally {
+            log = null;
+            agents.clear();
+            threads.clear();
+        }
+    }
+}
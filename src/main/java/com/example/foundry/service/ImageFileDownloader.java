@@ -0,0 +1,169 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.FilesAsyncClient;
+import com.azure.ai.agents.persistent.models.MessageContent;
+import com.azure.ai.agents.persistent.models.MessageImageFileContent;
+import com.azure.ai.agents.persistent.models.ThreadMessage;
+import com.azure.core.http.rest.RequestOptions;
+import com.azure.core.util.Context;
+import com.example.foundry.client.FileDownloadPolicy;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.util.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the image files attached to agent messages into {@code agent.image-download-dir}.
+ *
+ * Up to {@code agent.image-download-concurrency} files are fetched at once. Each body is
+ * streamed to a {@code .part} file by {@link FileDownloadPolicy}, which resumes from the
+ * bytes already on disk when an attempt is retried, and renamed once complete. A file ID is
+ * fetched at most once per process and not at all if its file is already in the directory.
+ * Every image reference is appended to {@code manifest.jsonl} in the same directory as a
+ * JSON line of thread ID, message ID, file ID and local path.
+ */
+class ImageFileDownloader implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageFileDownloader.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final FilesAsyncClient filesClient;
+    private final Path directory;
+    private final BufferedWriter manifest;
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<Path>> references = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    ImageFileDownloader(AgentConfiguration config, FilesAsyncClient filesClient) {
+        this.filesClient = filesClient;
+        this.directory = Path.of(config.getImageDownloadDir());
+        try {
+            Files.createDirectories(directory);
+            this.manifest = Files.newBufferedWriter(directory.resolve("manifest.jsonl"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare image download directory " + directory, e);
+        }
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getImageDownloadConcurrency()),
+            VirtualThreads.daemonThreadFactory("image-download"));
+    }
+
+    /**
+     * Queue downloads of the image files attached to the messages.
+     */
+    void submit(String threadId, List<ThreadMessage> messages) {
+        for (ThreadMessage message : messages) {
+            for (MessageContent content : message.getContent()) {
+                if (content instanceof MessageImageFileContent imageContent) {
+                    download(threadId, message.getId(), imageContent.getImageFile().getFileId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Download one file unless it is already downloaded or in flight, and record the reference.
+     */
+    CompletableFuture<Path> download(String threadId, String messageId, String fileId) {
+        CompletableFuture<Path> file = downloads.computeIfAbsent(fileId,
+            id -> CompletableFuture.supplyAsync(() -> fetch(id), executor));
+        CompletableFuture<Path> reference = file.thenApply(path -> {
+            recordInManifest(threadId, messageId, fileId, path);
+            return path;
+        });
+        references.add(reference);
+        return reference;
+    }
+
+    private Path fetch(String fileId) {
+        try {
+            return fetchToDirectory(fileId);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            // A later reference to the same file tries again
+            downloads.remove(fileId);
+            logger.warn("Download of image file {} failed: {}", fileId, e.getMessage());
+            throw e;
+        }
+    }
+
+    private Path fetchToDirectory(String fileId) {
+        String name = fileId.replaceAll("[^A-Za-z0-9_-]", "_") + ".png";
+        Path target = directory.resolve(name);
+        if (Files.exists(target)) {
+            logger.debug("Image file {} already downloaded to {}", fileId, target);
+            return target;
+        }
+        Path partial = directory.resolve(name + ".part");
+        long start = System.nanoTime();
+        filesClient.getFileContentWithResponse(fileId,
+            new RequestOptions().setContext(new Context(FileDownloadPolicy.TARGET, partial))).block();
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Image file {} saved to {} ({} bytes in {} ms)", fileId, target, Files.size(target),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+
+    private synchronized void recordInManifest(String threadId, String messageId, String fileId, Path path) {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("threadId", threadId);
+        entry.put("messageId", messageId);
+        entry.put("fileId", fileId);
+        entry.put("path", path.toString());
+        try {
+            manifest.write(MAPPER.writeValueAsString(entry));
+            manifest.newLine();
+            manifest.flush();
+        } catch (IOException e) {
+            logger.warn("Cannot record image file {} in the manifest: {}", fileId, e.getMessage());
+        }
+    }
+
+    /**
+     * Wait for queued downloads to finish, then release the pool and the manifest.
+     */
+    @Override
+    public void close() {
+        try {
+            CompletableFuture.allOf(references.toArray(CompletableFuture[]::new)).handle((ignored, error) -> null).join();
+        } finally {
+            executor.shutdownNow();
+            synchronized (this) {
+                try {
+                    manifest.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot close image manifest: {}", e.getMessage());
+                }
+            }
+        }
+        if (!references.isEmpty()) {
+            logger.info("Image downloads: {} files for {} references, {} failed, in {}", downloads.size(),
+                references.size(), failed.get(), directory);
+        }
+    }
+}
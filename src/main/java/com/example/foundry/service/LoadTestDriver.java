@@ -0,0 +1,117 @@
+package com.example.foundry.service;
+
+import com.example.foundry.service.BatchConversationEngine.BatchPrompt;
+import com.example.foundry.service.BatchConversationEngine.BatchSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Sweeps concurrency levels and measures throughput and end-to-end latency at each one.
+ *
+ * Every level runs the same number of conversations through a {@link BatchConversationEngine}
+ * bounded to that level, so the resulting rows form a throughput/latency curve that shows
+ * where adding concurrency stops paying off.
+ */
+public class LoadTestDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDriver.class);
+
+    public record LevelResult(int concurrency, BatchSummary summary) {
+    }
+
+    private final IntFunction<BatchConversationEngine> engines;
+    private final int requestsPerLevel;
+
+    /**
+     * @param conversation     Handler executed for every request
+     * @param requestsPerLevel Conversations run at each concurrency level
+     */
+    public LoadTestDriver(BatchConversationEngine.Conversation conversation, int requestsPerLevel) {
+        this((int concurrency) -> new BatchConversationEngine(conversation, concurrency), requestsPerLevel);
+    }
+
+    /**
+     * @param conversation     Non-blocking handler subscribed to for every request
+     * @param requestsPerLevel Conversations run at each concurrency level
+     */
+    public static LoadTestDriver reactive(BatchConversationEngine.ReactiveConversation conversation,
+                                          int requestsPerLevel) {
+        return new LoadTestDriver((int concurrency) -> BatchConversationEngine.reactive(conversation, concurrency),
+            requestsPerLevel);
+    }
+
+    private LoadTestDriver(IntFunction<BatchConversationEngine> engines, int requestsPerLevel) {
+        this.engines = engines;
+        this.requestsPerLevel = Math.max(1, requestsPerLevel);
+    }
+
+    /**
+     * Parse a comma-separated list of concurrency levels such as {@code 1,2,4,8}.
+     */
+    public static int[] parseLevels(String levels) {
+        return Arrays.stream(levels.split(","))
+            .map(String::trim)
+            .filter(level -> !level.isEmpty())
+            .mapToInt(Integer::parseInt)
+            .filter(level -> level > 0)
+            .toArray();
+    }
+
+    /**
+     * Run every level in order.
+     *
+     * @param prompt Prompt sent in every conversation; it bypasses the response cache, so
+     *               every conversation reaches the service
+     */
+    public List<LevelResult> sweep(int[] levels, String prompt) {
+        List<LevelResult> results = new ArrayList<>();
+        for (int concurrency : levels) {
+            logger.info("Load test: {} conversations at concurrency {}", requestsPerLevel, concurrency);
+            BatchSummary summary = engines.apply(concurrency)
+                .run(IntStream.rangeClosed(1, requestsPerLevel).mapToObj(i -> new BatchPrompt(String.valueOf(i), prompt, false)),
+                    result -> { });
+            results.add(new LevelResult(concurrency, summary));
+        }
+        return results;
+    }
+
+    /**
+     * Log the curve as a table.
+     */
+    public static void logResults(List<LevelResult> results) {
+        logger.info("Load test results:");
+        logger.info(String.format("%11s %9s %7s %12s %8s %8s %8s",
+            "concurrency", "requests", "failed", "throughput/s", "p50 ms", "p95 ms", "p99 ms"));
+        for (LevelResult result : results) {
+            BatchSummary s = result.summary();
+            logger.info(String.format(Locale.ROOT, "%11d %9d %7d %12.2f %8d %8d %8d",
+                result.concurrency(), s.total(), s.failed(), s.throughputPerSecond(), s.p50Ms(), s.p95Ms(), s.p99Ms()));
+        }
+    }
+
+    /**
+     * Write the curve as CSV, one row per concurrency level.
+     */
+    public static void writeCsv(List<LevelResult> results, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("concurrency,requests,failed,elapsed_ms,throughput_per_s,p50_ms,p95_ms,p99_ms\n");
+            for (LevelResult result : results) {
+                BatchSummary s = result.summary();
+                writer.write(String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%d,%d,%d\n", result.concurrency(),
+                    s.total(), s.failed(), s.elapsedMs(), s.throughputPerSecond(), s.p50Ms(), s.p95Ms(), s.p99Ms()));
+            }
+        }
+    }
+}
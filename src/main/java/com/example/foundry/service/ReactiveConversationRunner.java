@@ -0,0 +1,420 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.MessagesAsyncClient;
+import com.azure.ai.agents.persistent.PersistentAgentsAsyncClient;
+import com.azure.ai.agents.persistent.RunsAsyncClient;
+import com.azure.ai.agents.persistent.ThreadsAsyncClient;
+import com.azure.ai.agents.persistent.models.CreateRunOptions;
+import com.azure.ai.agents.persistent.models.ListSortOrder;
+import com.azure.ai.agents.persistent.models.MessageRole;
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.azure.ai.agents.persistent.models.PersistentAgentStreamEvent;
+import com.azure.ai.agents.persistent.models.RequiredToolCall;
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.azure.ai.agents.persistent.models.StreamRequiredAction;
+import com.azure.ai.agents.persistent.models.StreamThreadRunCreation;
+import com.azure.ai.agents.persistent.models.StreamUpdate;
+import com.azure.ai.agents.persistent.models.SubmitToolOutputsAction;
+import com.azure.ai.agents.persistent.models.ThreadMessage;
+import com.azure.ai.agents.persistent.models.ThreadRun;
+import com.azure.ai.agents.persistent.models.ToolOutput;
+import com.example.foundry.client.AdmissionController;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.metrics.RunTimelineProfiler;
+import com.example.foundry.util.AdaptiveBackoff;
+import com.example.foundry.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking conversation pipeline on the SDK's async clients.
+ *
+ * Thread creation, message creation, run monitoring (streaming or polling) and message
+ * listing are chained on the HTTP client's event loops; polling delays are timers rather
+ * than sleeping threads, so an in-flight run holds no thread while it waits. Tool calls,
+ * which block, run on a dedicated bounded scheduler sized by
+ * {@code agent.tool-execution-concurrency}. A run still going when its request's deadline
+ * passes is cancelled on the service.
+ */
+class ReactiveConversationRunner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveConversationRunner.class);
+
+    private final AgentConfiguration config;
+    private final ThreadsAsyncClient threadsClient;
+    private final MessagesAsyncClient messagesClient;
+    private final RunsAsyncClient runsClient;
+    private final AgentMetrics agentMetrics;
+    private final RunTimelineProfiler runProfiler;
+    private final ThreadMessageCache messageCache;
+    private final ImageFileDownloader imageDownloader;
+    private final ConversationJournal journal;
+    private final AdmissionController admission;
+    private final RunCanceller runCanceller;
+    private final Function<RequiredToolCall, ToolOutput> toolHandler;
+    private final Consumer<String> threadCreated;
+    private final Scheduler toolScheduler;
+
+    /**
+     * @param runProfiler     Receives each completed run with its steps
+     * @param imageDownloader Receives the image files of new messages, or null
+     * @param journal         Records messages sent and runs created and completed
+     * @param admission       Grants a permit for each run
+     * @param runCanceller    Cancels runs whose deadline passed
+     * @param toolHandler     Executes one tool call, returning null if no tool handles it
+     * @param threadCreated   Notified with the ID of every thread created
+     */
+    ReactiveConversationRunner(AgentConfiguration config, PersistentAgentsAsyncClient client, AgentMetrics agentMetrics,
+                               RunTimelineProfiler runProfiler, ThreadMessageCache messageCache, ImageFileDownloader imageDownloader,
+                               ConversationJournal journal, AdmissionController admission, RunCanceller runCanceller,
+                               Function<RequiredToolCall, ToolOutput> toolHandler, Consumer<String> threadCreated) {
+        this.config = config;
+        this.threadsClient = client.getThreadsAsyncClient();
+        this.messagesClient = client.getMessagesAsyncClient();
+        this.runsClient = client.getRunsAsyncClient();
+        this.agentMetrics = agentMetrics;
+        this.runProfiler = runProfiler;
+        this.messageCache = messageCache;
+        this.imageDownloader = imageDownloader;
+        this.journal = journal;
+        this.admission = admission;
+        this.runCanceller = runCanceller;
+        this.toolHandler = toolHandler;
+        this.threadCreated = threadCreated;
+        this.toolScheduler = Schedulers.newBoundedElastic(Math.max(1, config.getToolExecutionConcurrency()),
+            Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "reactive-tool-call", 60, true);
+    }
+
+    /**
+     * Run one prompt on a new thread and emit the agent's reply with the image files it references.
+     */
+    Mono<ResponseCache.Response> converse(PersistentAgent agent, String prompt) {
+        return Mono.defer(() -> {
+            Deadline deadline = Deadline.after(config.getRequestDeadlineMs());
+            return converse(agent, prompt, deadline, deadline.share(config.getRequestDeadlineCreateShare()));
+        });
+    }
+
+    private Mono<ResponseCache.Response> converse(PersistentAgent agent, String prompt, Deadline deadline,
+                                                  Deadline createPhase) {
+        return agentMetrics.time("createThread", threadsClient.createThread())
+            .flatMap(thread -> {
+                threadCreated.accept(thread.getId());
+                logger.info("Thread created successfully: {}", thread.getId());
+                return agentMetrics.time("createMessage",
+                        messagesClient.createMessage(thread.getId(), MessageRole.USER, prompt))
+                    .doOnNext(message -> {
+                        logger.info("Message created successfully: {}", message.getId());
+                        journal.messageSent(thread.getId(), agent.getId(), prompt);
+                    })
+                    .then(runToCompletion(new CreateRunOptions(thread.getId(), agent.getId()), deadline, createPhase))
+                    .doOnNext(run -> journal.runCompleted(thread.getId(), run.getId()))
+                    .flatMap(run -> profileRun(thread.getId(), run))
+                    .flatMap(run -> agentMetrics.time("listMessages", listNewMessages(thread.getId()))
+                        .map(delta -> new ResponseCache.Response(
+                            AgentService.renderMessages(AgentService.newestFirst(delta), run.getId()),
+                            AgentService.imageFileIds(delta))));
+            });
+    }
+
+    /**
+     * Hand a completed run and its steps, as the service reports them, to the run profiler.
+     */
+    private Mono<ThreadRun> profileRun(String threadId, ThreadRun run) {
+        if (!runProfiler.isEnabled()) {
+            return Mono.just(run);
+        }
+        return agentMetrics.time("listRunSteps",
+                runsClient.listRunSteps(threadId, run.getId(), AgentService.runStepsRequestOptions())
+                    .map(AgentService::toRunStep)
+                    .collectList())
+            .onErrorResume(e -> {
+                logger.debug("Could not list the steps of run {}: {}", run.getId(), e.getMessage());
+                return Mono.just(List.of());
+            })
+            .map(steps -> {
+                runProfiler.runCompleted(threadId, run, steps);
+                return run;
+            });
+    }
+
+    /**
+     * Fetch the messages created since the thread's cursor, oldest first, and cache them.
+     */
+    private Mono<List<ThreadMessage>> listNewMessages(String threadId) {
+        return Mono.defer(() -> messagesClient.listMessages(threadId, null, config.getMessagePageSize(),
+                ListSortOrder.ASCENDING, messageCache.cursor(threadId), null).collectList())
+            .doOnNext(delta -> {
+                messageCache.append(threadId, delta);
+                if (imageDownloader != null) {
+                    imageDownloader.submit(threadId, delta);
+                }
+            });
+    }
+
+    private Mono<ThreadRun> runToCompletion(CreateRunOptions options, Deadline deadline, Deadline createPhase) {
+        String threadId = options.getThreadId();
+        AtomicReference<ThreadRun> lastRun = new AtomicReference<>();
+        Deadline runDeadline = deadline.orAfter(config.getRunTimeoutMs());
+        return Mono.usingWhen(admission.acquireRunAsync(), permit -> Mono.defer(() -> {
+                agentMetrics.runCreated(threadId);
+                if (createPhase.isExpired()) {
+                    return Mono.<ThreadRun>error(new RunDeadlineExceededException(
+                        "Request deadline passed before the run was created", null));
+                }
+                return config.isRunStreamingEnabled() ? streamRunToCompletion(options, runDeadline, lastRun)
+                    : createRun(options).flatMap(run -> {
+                        lastRun.set(run);
+                        return waitForRunCompletion(threadId, run.getId(), runDeadline, lastRun);
+                    });
+            })
+            .onErrorResume(RunDeadlineExceededException.class, e -> cancelRun(threadId, e, lastRun))
+            .doOnNext(run -> permit.success())
+            .doFinally(signal -> {
+                ThreadRun run = lastRun.get();
+                agentMetrics.runFinished(threadId, run != null ? run.getStatus() : null);
+            }), permit -> Mono.fromRunnable(permit::release));
+    }
+
+    /**
+     * Stop a run whose deadline passed on the service, then fail with the deadline error.
+     */
+    private Mono<ThreadRun> cancelRun(String threadId, RunDeadlineExceededException error,
+                                      AtomicReference<ThreadRun> lastRun) {
+        if (error.getRunId() == null) {
+            return Mono.error(error);
+        }
+        // Cancelling waits for the run to stop, so keep it off the event loops
+        return Mono.fromRunnable(() -> {
+                ThreadRun cancelled = runCanceller.cancel(threadId, error.getRunId());
+                if (cancelled != null) {
+                    lastRun.set(cancelled);
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(Mono.error(error));
+    }
+
+    private static RunDeadlineExceededException deadlineExceeded(ThreadRun run) {
+        return new RunDeadlineExceededException(
+            "Run did not complete within the expected time. Status: " + run.getStatus(), run.getId());
+    }
+
+    private Mono<ThreadRun> createRun(CreateRunOptions options) {
+        return agentMetrics.time("createRun", runsClient.createRun(options))
+            .doOnNext(run -> {
+                journal.runCreated(options.getThreadId(), run.getId());
+                logger.info("Run created successfully: {}", run.getId());
+                agentMetrics.runStatus(options.getThreadId(), run.getStatus());
+            });
+    }
+
+    /**
+     * Consume the run's event streams, falling back to polling if streaming fails or ends
+     * before a terminal status. The streams are cut off when the deadline passes.
+     */
+    private Mono<ThreadRun> streamRunToCompletion(CreateRunOptions options, Deadline deadline,
+                                                  AtomicReference<ThreadRun> lastRun) {
+        String threadId = options.getThreadId();
+        String attemptId = AgentService.tagRunAttempt(options);
+        Mono<Void> stream = consumeRunStream(threadId, runsClient.createRunStreaming(options), deadline, lastRun);
+        if (deadline.isBounded()) {
+            stream = stream.timeout(Duration.ofMillis(deadline.remainingMs()))
+                .onErrorMap(TimeoutException.class, e -> lastRun.get() != null ? deadlineExceeded(lastRun.get())
+                    : new RunDeadlineExceededException("Request deadline passed before the run was created", null));
+        }
+        return stream
+            .onErrorResume(e -> !(e instanceof RunDeadlineExceededException), e -> {
+                logger.warn("Run streaming interrupted, falling back to polling: {}", e.getMessage());
+                logger.debug("Run streaming failure", e);
+                return Mono.empty();
+            })
+            .then(Mono.defer(() -> {
+                ThreadRun run = lastRun.get();
+                // The service may have created the run before the stream broke
+                Mono<ThreadRun> current = run != null ? Mono.just(run) : resumeRunAttempt(threadId, attemptId)
+                    .switchIfEmpty(Mono.defer(() -> createRun(options)))
+                    .doOnNext(lastRun::set);
+                return current.flatMap(latest -> {
+                    if (AgentService.isTerminal(latest.getStatus())) {
+                        AgentService.checkRunSucceeded(latest);
+                        logger.info("Run completed successfully via streaming: {}", latest.getId());
+                        return Mono.just(latest);
+                    }
+                    return waitForRunCompletion(threadId, latest.getId(), deadline, lastRun);
+                });
+            }));
+    }
+
+    /**
+     * Find the run an attempt created even though no event reported it, failing if the runs
+     * cannot be listed rather than risk a duplicate run. Empty if the attempt created none.
+     */
+    private Mono<ThreadRun> resumeRunAttempt(String threadId, String attemptId) {
+        return agentMetrics.time("listRuns", runsClient.listRuns(threadId, AgentService.RUN_ATTEMPT_LOOKBACK,
+                ListSortOrder.DESCENDING, null, null).take(AgentService.RUN_ATTEMPT_LOOKBACK).collectList())
+            .onErrorMap(e -> new RuntimeException("Run stream failed before reporting the run, and the runs of thread "
+                + threadId + " could not be listed to resume it", e))
+            .flatMap(latest -> Mono.justOrEmpty(AgentService.findRunAttempt(latest, attemptId)))
+            .doOnNext(run -> {
+                journal.runCreated(threadId, run.getId());
+                logger.info("Resuming run {} created before the stream broke", run.getId());
+            });
+    }
+
+    /**
+     * Consume one event stream up to a required action or terminal status. Tool outputs are
+     * submitted as a new stream, which is consumed in turn.
+     */
+    private Mono<Void> consumeRunStream(String threadId, Flux<StreamUpdate> updates, Deadline deadline,
+                                        AtomicReference<ThreadRun> lastRun) {
+        return updates
+            .takeUntil(update -> update instanceof StreamRequiredAction
+                || update instanceof StreamThreadRunCreation runUpdate
+                    && AgentService.isTerminal(runUpdate.getMessage().getStatus()))
+            .concatMap(update -> {
+                if (update instanceof StreamRequiredAction actionUpdate) {
+                    ThreadRun run = actionUpdate.getMessage();
+                    lastRun.set(run);
+                    agentMetrics.runStatus(threadId, run.getStatus());
+                    logger.debug("Run {} requires action", run.getId());
+                    return resolveToolOutputs(run, deadline).flatMap(toolOutputs -> deadline.isExpired()
+                        ? Mono.<Void>error(deadlineExceeded(run))
+                        : toolOutputs.isEmpty() ? Mono.<Void>empty()
+                        : consumeRunStream(threadId,
+                            runsClient.submitToolOutputsToRunStreaming(threadId, run.getId(), toolOutputs)
+                                .doOnSubscribe(subscription -> journal.toolOutputsSubmitted(threadId, run.getId())),
+                            deadline, lastRun));
+                } else if (update instanceof StreamThreadRunCreation runUpdate) {
+                    ThreadRun run = runUpdate.getMessage();
+                    if (lastRun.getAndSet(run) == null) {
+                        journal.runCreated(threadId, run.getId());
+                        logger.info("Run created successfully: {}", run.getId());
+                    }
+                    logger.debug("Run status: {}", run.getStatus());
+                    agentMetrics.runStatus(threadId, run.getStatus());
+                } else if (update.getKind() == PersistentAgentStreamEvent.ERROR) {
+                    return Mono.<Void>error(new RuntimeException("Run stream reported an error event"));
+                }
+                return Mono.<Void>empty();
+            })
+            .then();
+    }
+
+    private Mono<ThreadRun> waitForRunCompletion(String threadId, String runId, Deadline deadline,
+                                                 AtomicReference<ThreadRun> lastRun) {
+        logger.info("Waiting for run to complete...");
+        AdaptiveBackoff backoff = new AdaptiveBackoff(
+            config.getPollInitialIntervalMs(),
+            config.getPollMaxIntervalMs(),
+            config.getPollBackoffMultiplier(),
+            config.getPollJitter());
+        return poll(threadId, runId, backoff, deadline, lastRun);
+    }
+
+    /**
+     * One polling step: wait on a timer, fetch the run and either finish, act on it or
+     * schedule the next step.
+     */
+    private Mono<ThreadRun> poll(String threadId, String runId, AdaptiveBackoff backoff, Deadline deadline,
+                                 AtomicReference<ThreadRun> lastRun) {
+        return Mono.delay(Duration.ofMillis(deadline.cap(backoff.nextDelayMs())))
+            .then(agentMetrics.time("getRun", runsClient.getRun(threadId, runId)))
+            .flatMap(run -> {
+                lastRun.set(run);
+                RunStatus status = run.getStatus();
+                logger.debug("Run status: {}", status);
+                agentMetrics.runPolled(threadId);
+                agentMetrics.runStatus(threadId, status);
+
+                if (status == RunStatus.COMPLETED) {
+                    logger.info("Run completed successfully after {} polls", backoff.getAttempts());
+                    return Mono.just(run);
+                }
+                AgentService.checkRunSucceeded(run);
+                if (deadline.isExpired()) {
+                    return Mono.error(deadlineExceeded(run));
+                }
+                if (status == RunStatus.REQUIRES_ACTION) {
+                    return resolveToolOutputs(run, deadline).flatMap(toolOutputs -> {
+                        if (deadline.isExpired()) {
+                            return Mono.error(deadlineExceeded(run));
+                        }
+                        if (toolOutputs.isEmpty()) {
+                            return poll(threadId, runId, backoff, deadline, lastRun);
+                        }
+                        return agentMetrics.time("submitToolOutputs",
+                                runsClient.submitToolOutputsToRun(threadId, runId, toolOutputs))
+                            .flatMap(submitted -> {
+                                journal.toolOutputsSubmitted(threadId, runId);
+                                // The run is making progress again, so look at it soon
+                                backoff.reset();
+                                return poll(threadId, runId, backoff, deadline, lastRun);
+                            });
+                    });
+                }
+                if (status == RunStatus.QUEUED || status == RunStatus.IN_PROGRESS) {
+                    return poll(threadId, runId, backoff, deadline, lastRun);
+                }
+                return Mono.just(run);
+            });
+    }
+
+    /**
+     * Execute the tool calls of a required action concurrently on the tool scheduler, each
+     * with its own timeout, cut short by the run's deadline. Failures and timeouts become
+     * structured error outputs; outputs keep the order the calls were requested in.
+     */
+    private Mono<List<ToolOutput>> resolveToolOutputs(ThreadRun run, Deadline deadline) {
+        if (!(run.getRequiredAction() instanceof SubmitToolOutputsAction submitToolsOutputAction)) {
+            return Mono.just(List.of());
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long timeoutMs = deadline.cap(config.getToolCallTimeoutMs());
+            // A timeout shortened by the deadline means the deadline is what cut the call off
+            boolean deadlineBound = timeoutMs < config.getToolCallTimeoutMs();
+            return Flux.fromIterable(submitToolsOutputAction.getSubmitToolOutputs().getToolCalls())
+                .flatMapSequential(toolCall -> Mono.fromCallable(() -> toolHandler.apply(toolCall))
+                    .subscribeOn(toolScheduler)
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .switchIfEmpty(Mono.fromSupplier(() -> AgentService.toolErrorOutput(toolCall.getId(),
+                        "unsupported_tool", "No handler for this tool call")))
+                    .onErrorResume(TimeoutException.class, e -> {
+                        // The timeout interrupts the call, which kills the Python process it waits on
+                        if (deadlineBound) {
+                            runCanceller.toolCallAborted();
+                            logger.warn("Tool call {} aborted at the run's deadline", toolCall.getId());
+                        } else {
+                            logger.warn("Tool call {} exceeded {} ms", toolCall.getId(), timeoutMs);
+                        }
+                        return Mono.just(AgentService.toolErrorOutput(toolCall.getId(), "timeout",
+                            "Tool call did not finish within " + timeoutMs + " ms"));
+                    })
+                    .onErrorResume(e -> {
+                        logger.warn("Tool call {} failed: {}", toolCall.getId(), e.getMessage());
+                        return Mono.just(AgentService.toolErrorOutput(toolCall.getId(), "execution_failed",
+                            String.valueOf(e.getMessage())));
+                    }))
+                .collectList()
+                .doOnNext(outputs -> agentMetrics.runToolTime(run.getThreadId(), System.nanoTime() - start));
+        });
+    }
+
+    @Override
+    public void close() {
+        toolScheduler.dispose();
+    }
+}
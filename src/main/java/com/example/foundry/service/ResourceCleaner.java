@@ -0,0 +1,141 @@
+package com.example.foundry.service;
+
+import com.azure.core.exception.HttpResponseException;
+import com.example.foundry.client.AdmissionControlPolicy;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.util.AdaptiveBackoff;
+import com.example.foundry.util.RateLimiter;
+import com.example.foundry.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Deletes service resources concurrently, under a rate limit, retrying when throttled.
+ *
+ * Deletions run on a bounded pool of {@code agent.cleanup-concurrency} threads and start
+ * no faster than {@code agent.cleanup-rate-per-second}. Responses with status 429 or 503
+ * are retried with exponential backoff, honoring Retry-After when present; a 404 counts
+ * as already deleted. On shutdown the cleaner waits up to
+ * {@code agent.cleanup-shutdown-timeout-ms} for deletions still in flight.
+ */
+@Component
+public class ResourceCleaner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceCleaner.class);
+    private static final long RETRY_INITIAL_DELAY_MS = 500;
+    private static final long RETRY_MAX_DELAY_MS = 10000;
+
+    public record CleanupSummary(String kind, int deleted, int failed, long elapsedMs) {
+    }
+
+    private final AgentConfiguration config;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService executor;
+
+    @Autowired
+    public ResourceCleaner(AgentConfiguration config) {
+        this.config = config;
+        this.rateLimiter = new RateLimiter(config.getCleanupRatePerSecond());
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getCleanupConcurrency()),
+            VirtualThreads.daemonThreadFactory("cleanup"));
+    }
+
+    /**
+     * Delete the given resources.
+     *
+     * @param kind    Resource kind, for logging
+     * @param ids     IDs of the resources to delete
+     * @param deleter Deletes one resource by ID
+     * @return A future completed once every deletion has succeeded or given up
+     */
+    public CompletableFuture<CleanupSummary> delete(String kind, Collection<String> ids, Consumer<String> deleter) {
+        return delete(kind, ids, deleter, id -> {
+        });
+    }
+
+    /**
+     * Delete the given resources, reporting each one that is gone, including those the
+     * service no longer knew.
+     *
+     * @param deleted Notified with the ID of every resource deleted
+     */
+    public CompletableFuture<CleanupSummary> delete(String kind, Collection<String> ids, Consumer<String> deleter,
+                                                    Consumer<String> deleted) {
+        long start = System.nanoTime();
+        AtomicInteger deletedCount = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> deletions = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            deletions.add(CompletableFuture.runAsync(() -> {
+                if (deleteWithRetry(kind, id, deleter)) {
+                    deleted.accept(id);
+                    deletedCount.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> new CleanupSummary(kind, deletedCount.get(), failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private boolean deleteWithRetry(String kind, String id, Consumer<String> deleter) {
+        AdaptiveBackoff backoff = new AdaptiveBackoff(RETRY_INITIAL_DELAY_MS, RETRY_MAX_DELAY_MS, 2.0, 0.2);
+        try {
+            while (true) {
+                rateLimiter.acquire();
+                try {
+                    deleter.accept(id);
+                    logger.debug("Deleted {} {}", kind, id);
+                    return true;
+                } catch (HttpResponseException e) {
+                    int status = e.getResponse() != null ? e.getResponse().getStatusCode() : 0;
+                    if (status == 404) {
+                        return true;
+                    }
+                    if ((status != 429 && status != 503) || backoff.getAttempts() >= config.getCleanupMaxRetries()) {
+                        logger.warn("Failed to delete {} {}: {}", kind, id, e.getMessage());
+                        return false;
+                    }
+                    long delayMs = Math.max(backoff.nextDelayMs(), AdmissionControlPolicy.retryAfterMs(e.getResponse()));
+                    logger.debug("Throttled deleting {} {}, retrying in {} ms", kind, id, delayMs);
+                    Thread.sleep(delayMs);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to delete {} {}: {}", kind, id, e.getMessage());
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(config.getCleanupShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                int abandoned = executor.shutdownNow().size();
+                logger.warn("Cleanup did not finish within {} ms; {} deletions abandoned",
+                    config.getCleanupShutdownTimeoutMs(), abandoned);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.FunctionToolDefinition;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.tool.DiskCacheTier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Exact-match cache of agent replies to one-shot prompts.
+ *
+ * Entries are keyed by a SHA-256 digest of the model deployment, instructions and tool
+ * schemas the agent is created from, plus the prompt with its whitespace normalized, so a
+ * change to the agent definition never serves a stale reply. An entry holds the reply text
+ * and the IDs of the image files it references and expires {@code agent.response-cache-ttl-ms}
+ * after it was stored. Entries up to {@code agent.response-cache-inline-max-bytes} are also
+ * kept in a byte-bounded in-memory LRU; every entry is written to a memory-mapped
+ * {@link DiskCacheTier}, so bulky replies stay off the heap and survive restarts.
+ */
+@Component
+public final class ResponseCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** Approximate per-entry overhead of the LRU map, in bytes. */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * A reply and the image files it references.
+     */
+    public record Response(String reply, List<String> imageFileIds) {
+    }
+
+    public record CacheStats(long memoryHits, long diskHits, long misses, long expired, long bypassed,
+                             long evictions, long memoryBytes) {
+
+        public double hitRate() {
+            long lookups = memoryHits + diskHits + misses;
+            return lookups == 0 ? 0 : (double) (memoryHits + diskHits) / lookups;
+        }
+    }
+
+    /** Serialized form of an entry; the storage time drives expiry. */
+    private record Entry(String reply, List<String> imageFileIds, long storedAtMs) {
+    }
+
+    private final AgentConfiguration config;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long memoryBytes;
+    private DiskCacheTier disk;
+    private boolean diskOpened;
+
+    @Autowired
+    public ResponseCache(AgentConfiguration config, AgentMetrics agentMetrics) {
+        this.config = config;
+        if (config.isResponseCacheEnabled()) {
+            agentMetrics.gauge("response_cache hits", () -> memoryHits.get() + diskHits.get());
+            agentMetrics.gauge("response_cache misses", misses::get);
+            agentMetrics.gauge("response_cache bypassed", bypassed::get);
+            agentMetrics.gauge("response_cache hit_rate_pct", () -> Math.round(getStats().hitRate() * 100));
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isResponseCacheEnabled();
+    }
+
+    /**
+     * Compute the cache key of a prompt sent to an agent with the given definition.
+     */
+    public String key(String model, String instructions, List<FunctionToolDefinition> tools, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, model);
+            update(digest, instructions);
+            for (FunctionToolDefinition tool : tools) {
+                update(digest, tool.getFunction().getName());
+                update(digest, tool.getFunction().getDescription());
+                update(digest, String.valueOf(tool.getFunction().getParameters()));
+            }
+            update(digest, normalizePrompt(prompt));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<Response> get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                memory.remove(key);
+                memoryBytes -= sizeOf(key, entry);
+            }
+        }
+        if (entry != null && !isExpired(entry, now)) {
+            memoryHits.incrementAndGet();
+            return Optional.of(new Response(entry.reply(), entry.imageFileIds()));
+        }
+        DiskCacheTier tier = diskTier();
+        if (tier != null && entry == null) {
+            byte[] value = tier.get(HexFormat.of().parseHex(key));
+            entry = value != null ? deserialize(value) : null;
+            if (entry != null && !isExpired(entry, now)) {
+                diskHits.incrementAndGet();
+                putInMemory(key, entry, value.length);
+                return Optional.of(new Response(entry.reply(), entry.imageFileIds()));
+            }
+        }
+        if (entry != null) {
+            expired.incrementAndGet();
+            if (tier != null) {
+                tier.remove(HexFormat.of().parseHex(key));
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, Response response) {
+        Entry entry = new Entry(response.reply(), List.copyOf(response.imageFileIds()), System.currentTimeMillis());
+        byte[] value;
+        try {
+            value = MAPPER.writeValueAsBytes(entry);
+        } catch (IOException e) {
+            logger.warn("Cannot serialize a response cache entry: {}", e.getMessage());
+            return;
+        }
+        putInMemory(key, entry, value.length);
+        DiskCacheTier tier = diskTier();
+        if (tier != null) {
+            evictions.addAndGet(tier.put(HexFormat.of().parseHex(key), value));
+        }
+    }
+
+    /**
+     * Count a prompt that was sent to the agent without consulting the cache.
+     */
+    public void bypassed() {
+        bypassed.incrementAndGet();
+    }
+
+    public CacheStats getStats() {
+        synchronized (memory) {
+            return new CacheStats(memoryHits.get(), diskHits.get(), misses.get(), expired.get(), bypassed.get(),
+                evictions.get(), memoryBytes);
+        }
+    }
+
+    /**
+     * Log the hit rate, if the cache was used.
+     */
+    public void logSummary() {
+        CacheStats stats = getStats();
+        if (stats.memoryHits() + stats.diskHits() + stats.misses() + stats.bypassed() > 0) {
+            logger.info("Response cache: {} memory hits, {} disk hits, {} misses ({} expired), {} bypassed, "
+                    + "hit rate {}%", stats.memoryHits(), stats.diskHits(), stats.misses(), stats.expired(),
+                stats.bypassed(), Math.round(stats.hitRate() * 100));
+        }
+    }
+
+    private void putInMemory(String key, Entry entry, int serializedBytes) {
+        // Bulky entries are left to the disk tier unless there is none
+        if (serializedBytes > config.getResponseCacheInlineMaxBytes() && diskTier() != null) {
+            return;
+        }
+        long maxBytes = config.getResponseCacheMemoryMaxBytes();
+        long size = sizeOf(key, entry);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            Entry previous = memory.put(key, entry);
+            if (previous != null) {
+                memoryBytes -= sizeOf(key, previous);
+            }
+            memoryBytes += size;
+            Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> victim = eldest.next();
+                memoryBytes -= sizeOf(victim.getKey(), victim.getValue());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized DiskCacheTier diskTier() {
+        if (diskOpened) {
+            return disk;
+        }
+        diskOpened = true;
+        try {
+            disk = new DiskCacheTier(Path.of(config.getResponseCacheDiskDirectory()),
+                config.getResponseCacheDiskIndexSlots(), config.getResponseCacheDiskMaxBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Response cache disk tier unavailable, using memory only: {}", e.getMessage());
+        }
+        return disk;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.storedAtMs() >= config.getResponseCacheTtlMs();
+    }
+
+    private static Entry deserialize(byte[] value) {
+        try {
+            return MAPPER.readValue(value, Entry.class);
+        } catch (IOException e) {
+            logger.debug("Discarding unreadable response cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long sizeOf(String key, Entry entry) {
+        long size = ENTRY_OVERHEAD + 2L * (key.length() + entry.reply().length());
+        for (String fileId : entry.imageFileIds()) {
+            size += 2L * fileId.length();
+        }
+        return size;
+    }
+
+    /**
+     * Prompt text as it is keyed: Unicode NFC with runs of whitespace collapsed and the
+     * ends trimmed. Case is kept, since it can change what the model is asked.
+     */
+    static String normalizePrompt(String prompt) {
+        return WHITESPACE.matcher(Normalizer.normalize(prompt, Normalizer.Form.NFC)).replaceAll(" ").trim();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+            disk = null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.foundry.service;
+
+/**
+ * Lets the caller of a request give up on it, e.g. a chat client that disconnected, so its
+ * run is cancelled instead of left running for nobody.
+ *
+ * The request registers what to do once its run is known; {@link #abandon} runs that action,
+ * or has it run as soon as it is registered. Instances are thread-safe.
+ */
+final class RunAbandonment {
+
+    private Runnable action;
+    private boolean abandoned;
+
+    /**
+     * Give up on the request. Does not block: the action is expected to hand off its work.
+     */
+    void abandon() {
+        Runnable pending;
+        synchronized (this) {
+            if (abandoned) {
+                return;
+            }
+            abandoned = true;
+            pending = action;
+        }
+        if (pending != null) {
+            pending.run();
+        }
+    }
+
+    synchronized boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * Run the action when the request is abandoned, right away if it already was.
+     */
+    void onAbandon(Runnable action) {
+        boolean now;
+        synchronized (this) {
+            this.action = action;
+            now = abandoned;
+        }
+        if (now) {
+            action.run();
+        }
+    }
+}
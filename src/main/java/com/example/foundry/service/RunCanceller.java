@@ -0,0 +1,108 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.RunsClient;
+import com.azure.ai.agents.persistent.models.ThreadRun;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.util.AdaptiveBackoff;
+import com.example.foundry.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancels runs whose request deadline passed, so they stop using service capacity.
+ *
+ * An abandoned run keeps generating, or waits for tool outputs nobody will submit, until the
+ * service expires it, and its thread takes no new run meanwhile. {@link #cancel} asks the
+ * service to cancel the run and polls it for up to {@code agent.run-cancel-wait-ms} until it
+ * stops, which frees the thread for the next prompt. The work saved is tracked as runs
+ * cancelled, tool calls aborted and the run time left before the service would have expired
+ * each cancelled run.
+ */
+class RunCanceller {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunCanceller.class);
+
+    private final AgentConfiguration config;
+    private final RunsClient runsClient;
+    private final AgentMetrics agentMetrics;
+    private final ConversationJournal journal;
+    private final AtomicLong runsCancelled = new AtomicLong();
+    private final AtomicLong cancelFailures = new AtomicLong();
+    private final AtomicLong toolCallsAborted = new AtomicLong();
+    private final AtomicLong runTimeSavedMs = new AtomicLong();
+
+    RunCanceller(AgentConfiguration config, RunsClient runsClient, AgentMetrics agentMetrics,
+                 ConversationJournal journal) {
+        this.config = config;
+        this.runsClient = runsClient;
+        this.agentMetrics = agentMetrics;
+        this.journal = journal;
+        agentMetrics.gauge("cancellation runs_cancelled", runsCancelled::get);
+        agentMetrics.gauge("cancellation tool_calls_aborted", toolCallsAborted::get);
+        agentMetrics.gauge("cancellation run_time_saved_ms", runTimeSavedMs::get);
+    }
+
+    /**
+     * Cancel an abandoned run and wait for it to stop.
+     *
+     * @return The run as last seen, or null if it was not cancelled
+     */
+    ThreadRun cancel(String threadId, String runId) {
+        if (!config.isRunCancelEnabled()) {
+            return null;
+        }
+        ThreadRun run;
+        try {
+            run = agentMetrics.time("cancelRun", () -> runsClient.cancelRun(threadId, runId));
+        } catch (RuntimeException e) {
+            // Typically the run finished in the meantime
+            cancelFailures.incrementAndGet();
+            logger.warn("Could not cancel run {}: {}", runId, e.getMessage());
+            return null;
+        }
+        runsCancelled.incrementAndGet();
+        if (run.getExpiresAt() != null) {
+            runTimeSavedMs.addAndGet(Math.max(0,
+                run.getExpiresAt().toInstant().toEpochMilli() - System.currentTimeMillis()));
+        }
+        // Nothing is left to resume after a restart
+        journal.runCompleted(threadId, runId);
+
+        // The thread takes no new run until this one has stopped
+        AdaptiveBackoff backoff = new AdaptiveBackoff(config.getPollInitialIntervalMs(),
+            config.getPollMaxIntervalMs(), config.getPollBackoffMultiplier(), config.getPollJitter());
+        Deadline wait = Deadline.after(config.getRunCancelWaitMs());
+        try {
+            while (!AgentService.isTerminal(run.getStatus()) && !wait.isExpired()) {
+                Thread.sleep(wait.cap(backoff.nextDelayMs()));
+                run = agentMetrics.time("getRun", () -> runsClient.getRun(threadId, runId));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Could not confirm that run {} stopped: {}", runId, e.getMessage());
+        }
+        logger.info("Cancelled run {} on thread {}, status {}", runId, threadId, run.getStatus());
+        return run;
+    }
+
+    /**
+     * Count a tool call abandoned because its run's deadline passed.
+     */
+    void toolCallAborted() {
+        toolCallsAborted.incrementAndGet();
+    }
+
+    /**
+     * Log the work saved by cancellation, if any run was cancelled.
+     */
+    void logSummary() {
+        if (runsCancelled.get() + cancelFailures.get() > 0) {
+            logger.info("Cancelled {} runs ({} could not be cancelled), aborted {} tool calls, saved {} ms of run time",
+                runsCancelled.get(), cancelFailures.get(), toolCallsAborted.get(), runTimeSavedMs.get());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.foundry.service;
+
+/**
+ * Thrown when a request's deadline or {@code agent.run-timeout-ms} passes before its run
+ * completes. The run, if one was created, is still going on the service.
+ */
+class RunDeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String runId;
+
+    RunDeadlineExceededException(String message, String runId) {
+        super(message);
+        this.runId = runId;
+    }
+
+    /**
+     * The run that was abandoned, or null if the deadline passed before one was created.
+     */
+    String getRunId() {
+        return runId;
+    }
+}
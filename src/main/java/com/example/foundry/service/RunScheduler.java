@@ -0,0 +1,196 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.RunsClient;
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.azure.ai.agents.persistent.models.ThreadRun;
+import com.azure.ai.agents.persistent.models.ToolOutput;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.util.AdaptiveBackoff;
+import com.example.foundry.util.Deadline;
+import com.example.foundry.util.HashedTimerWheel;
+import com.example.foundry.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Polls every in-flight run from one timer wheel instead of a sleeping thread per run.
+ *
+ * {@link #track(String, String, Deadline)} registers a run and returns a future of its final state.
+ * Each run's next poll sits in a {@link HashedTimerWheel} at its own adaptive interval; due
+ * polls run on a pool of {@code agent.run-poll-concurrency} threads, so the number of runs
+ * being waited on is not bounded by threads. A run that requires action has its tool calls
+ * resolved asynchronously and its outputs submitted when they are ready, after which it goes
+ * back on the wheel; no thread waits for the tools meanwhile. The future fails if the run
+ * ends unsuccessfully or a poll fails, and with a {@link RunDeadlineExceededException} once
+ * the request's deadline or {@code agent.run-timeout-ms} passes; outputs of tool calls that
+ * outlived the deadline are not submitted.
+ */
+class RunScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunScheduler.class);
+
+    private final AgentConfiguration config;
+    private final RunsClient runsClient;
+    private final AgentMetrics agentMetrics;
+    private final ConversationJournal journal;
+    private final BiFunction<ThreadRun, Deadline, CompletableFuture<List<ToolOutput>>> toolResolver;
+    private final ExecutorService pollExecutor;
+    private final HashedTimerWheel wheel;
+    private final Map<String, TrackedRun> runs = new ConcurrentHashMap<>();
+
+    /**
+     * @param toolResolver Resolves the tool calls of a run that requires action by the given deadline
+     */
+    RunScheduler(AgentConfiguration config, RunsClient runsClient, AgentMetrics agentMetrics,
+                 ConversationJournal journal,
+                 BiFunction<ThreadRun, Deadline, CompletableFuture<List<ToolOutput>>> toolResolver) {
+        this.config = config;
+        this.runsClient = runsClient;
+        this.agentMetrics = agentMetrics;
+        this.journal = journal;
+        this.toolResolver = toolResolver;
+        this.pollExecutor = Executors.newFixedThreadPool(Math.max(1, config.getRunPollConcurrency()),
+            VirtualThreads.daemonThreadFactory("run-poll"));
+        this.wheel = new HashedTimerWheel("run-timer", config.getRunSchedulerTickMs(),
+            config.getRunSchedulerWheelSize(), pollExecutor);
+    }
+
+    private final class TrackedRun {
+        final String threadId;
+        final String runId;
+        final AdaptiveBackoff backoff = new AdaptiveBackoff(config.getPollInitialIntervalMs(),
+            config.getPollMaxIntervalMs(), config.getPollBackoffMultiplier(), config.getPollJitter());
+        final Deadline deadline;
+        final CompletableFuture<ThreadRun> result = new CompletableFuture<>();
+
+        TrackedRun(String threadId, String runId, Deadline deadline) {
+            this.threadId = threadId;
+            this.runId = runId;
+            this.deadline = deadline.orAfter(config.getRunTimeoutMs());
+        }
+    }
+
+    /**
+     * Poll the run until it completes or the deadline passes.
+     *
+     * @return Future of the completed run; cancelling it stops the polling
+     */
+    CompletableFuture<ThreadRun> track(String threadId, String runId, Deadline deadline) {
+        TrackedRun tracked = new TrackedRun(threadId, runId, deadline);
+        if (runs.putIfAbsent(runId, tracked) != null) {
+            throw new IllegalStateException("Run " + runId + " is already tracked");
+        }
+        tracked.result.whenComplete((run, error) -> runs.remove(runId, tracked));
+        scheduleNextPoll(tracked);
+        return tracked.result;
+    }
+
+    /**
+     * Number of runs being polled.
+     */
+    int getTracked() {
+        return runs.size();
+    }
+
+    private void scheduleNextPoll(TrackedRun tracked) {
+        if (tracked.result.isDone()) {
+            return;
+        }
+        try {
+            // Look once more when the deadline passes rather than sleeping past it
+            wheel.schedule(() -> poll(tracked), tracked.deadline.cap(tracked.backoff.nextDelayMs()),
+                TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            tracked.result.completeExceptionally(e);
+        }
+    }
+
+    private void poll(TrackedRun tracked) {
+        if (tracked.result.isDone()) {
+            return;
+        }
+        String threadId = tracked.threadId;
+        String runId = tracked.runId;
+        try {
+            ThreadRun run = agentMetrics.time("getRun", () -> runsClient.getRun(threadId, runId));
+            RunStatus status = run.getStatus();
+            logger.debug("Run status: {}", status);
+            agentMetrics.runPolled(threadId);
+            agentMetrics.runStatus(threadId, status);
+
+            if (status == RunStatus.COMPLETED) {
+                logger.info("Run completed successfully after {} polls", tracked.backoff.getAttempts());
+                tracked.result.complete(run);
+                return;
+            }
+            AgentService.checkRunSucceeded(run);
+            if (tracked.deadline.isExpired()) {
+                throw deadlineExceeded(tracked, status);
+            }
+            if (status == RunStatus.REQUIRES_ACTION) {
+                toolResolver.apply(run, tracked.deadline).whenComplete((outputs, error) -> {
+                    if (error != null) {
+                        tracked.result.completeExceptionally(error);
+                    } else if (tracked.deadline.isExpired()) {
+                        tracked.result.completeExceptionally(deadlineExceeded(tracked, status));
+                    } else if (outputs.isEmpty()) {
+                        scheduleNextPoll(tracked);
+                    } else {
+                        submitToolOutputs(tracked, outputs);
+                    }
+                });
+                return;
+            }
+            scheduleNextPoll(tracked);
+        } catch (RuntimeException e) {
+            tracked.result.completeExceptionally(e);
+        }
+    }
+
+    private static RunDeadlineExceededException deadlineExceeded(TrackedRun tracked, RunStatus status) {
+        return new RunDeadlineExceededException("Run did not complete within the expected time. Status: " + status,
+            tracked.runId);
+    }
+
+    private void submitToolOutputs(TrackedRun tracked, List<ToolOutput> outputs) {
+        try {
+            pollExecutor.execute(() -> {
+                try {
+                    agentMetrics.time("submitToolOutputs",
+                        () -> runsClient.submitToolOutputsToRun(tracked.threadId, tracked.runId, outputs));
+                    journal.toolOutputsSubmitted(tracked.threadId, tracked.runId);
+                    // The run is making progress again, so look at it soon
+                    tracked.backoff.reset();
+                    scheduleNextPoll(tracked);
+                } catch (RuntimeException e) {
+                    tracked.result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            tracked.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stop polling; runs still tracked fail with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        wheel.close();
+        pollExecutor.shutdownNow();
+        for (TrackedRun tracked : runs.values()) {
+            tracked.result.completeExceptionally(new RejectedExecutionException("Run scheduler closed"));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.ThreadMessage;
+import com.example.foundry.config.AgentConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most recent messages of each thread and the ID of the newest one seen.
+ *
+ * The newest ID is the cursor for incremental retrieval: after a run only the messages
+ * created after it are requested, in ascending order, so each turn transfers only its
+ * delta. Both the number of threads (least recently used are evicted) and the messages
+ * kept per thread are bounded; older messages are paged from the service on demand.
+ */
+@Component
+public class ThreadMessageCache {
+
+    private static final class ThreadState {
+        final Deque<ThreadMessage> messages = new ArrayDeque<>();
+        String cursor;
+    }
+
+    private final int maxMessagesPerThread;
+    private final Map<String, ThreadState> threads;
+
+    @Autowired
+    public ThreadMessageCache(AgentConfiguration config) {
+        int maxThreads = Math.max(1, config.getMessageCacheMaxThreads());
+        this.maxMessagesPerThread = Math.max(1, config.getMessageCacheMaxMessagesPerThread());
+        this.threads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ThreadState> eldest) {
+                return size() > maxThreads;
+            }
+        };
+    }
+
+    /**
+     * ID of the newest message seen on the thread, or null if none was seen.
+     */
+    public synchronized String cursor(String threadId) {
+        ThreadState state = threads.get(threadId);
+        return state != null ? state.cursor : null;
+    }
+
+    /**
+     * Record messages newer than the cursor, oldest first, and advance the cursor to the
+     * last of them. Messages already seen are ignored.
+     */
+    public synchronized void append(String threadId, List<ThreadMessage> ascending) {
+        ThreadState state = threads.computeIfAbsent(threadId, id -> new ThreadState());
+        for (ThreadMessage message : ascending) {
+            if (state.messages.stream().anyMatch(cached -> cached.getId().equals(message.getId()))) {
+                continue;
+            }
+            state.messages.addLast(message);
+            state.cursor = message.getId();
+            if (state.messages.size() > maxMessagesPerThread) {
+                state.messages.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * The cached messages of a thread, oldest first.
+     */
+    public synchronized List<ThreadMessage> recent(String threadId) {
+        ThreadState state = threads.get(threadId);
+        return state != null ? new ArrayList<>(state.messages) : List.of();
+    }
+
+    public synchronized void evict(String threadId) {
+        threads.remove(threadId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.foundry.tool;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a Spring bean as a function tool exposed to the agent.
+ *
+ * The method's parameters become the tool's JSON schema properties; annotate them with
+ * {@link ToolParam} to describe them. Methods may return a {@link ToolExecutionResult},
+ * a String, or any value serializable to JSON.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AgentTool {
+
+    /**
+     * Tool name seen by the model; defaults to the method name.
+     */
+    String name() default "";
+
+    /**
+     * Description seen by the model.
+     */
+    String description();
+}
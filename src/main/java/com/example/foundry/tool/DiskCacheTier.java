@@ -0,0 +1,288 @@
+package com.example.foundry.tool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Persistent cache tier: a memory-mapped open-addressing index plus one file per value.
+ *
+ * Each index slot holds the 32-byte key digest, the value size and the last access time.
+ * Values are written to a temporary file and atomically renamed, so a crash never leaves
+ * a partially written value behind a valid index entry. When the tier exceeds its byte
+ * budget or the index gets too full, least recently used entries are evicted, in an order
+ * kept in memory and rebuilt from the access times on open.
+ *
+ * Removal uses backward-shift deletion instead of tombstones: later entries of the probe
+ * run move back into the freed slot, so a lookup never probes past slots that were
+ * emptied by churn.
+ */
+public class DiskCacheTier implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheTier.class);
+    private static final int MAGIC = 0x54435831;
+    private static final int HEADER_SIZE = 8;
+    private static final int KEY_SIZE = 32;
+    private static final int SLOT_SIZE = KEY_SIZE + 8 + 8;
+    private static final long EMPTY = 0;
+
+    private final Path valuesDirectory;
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final int slots;
+    private final long maxBytes;
+    /** Hex digest to key, least recently used first. */
+    private final LinkedHashMap<String, byte[]> recency = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private int entries;
+
+    public DiskCacheTier(Path directory, int slots, long maxBytes) throws IOException {
+        this.slots = Math.max(16, slots);
+        this.maxBytes = maxBytes;
+        this.valuesDirectory = directory.resolve("values");
+        Files.createDirectories(valuesDirectory);
+
+        this.channel = FileChannel.open(directory.resolve("index.dat"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) this.slots * SLOT_SIZE;
+        boolean compatible = channel.size() == size;
+        this.index = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (!compatible || index.getInt(0) != MAGIC || index.getInt(4) != this.slots) {
+            reset();
+        } else {
+            load();
+        }
+        logger.debug("Opened disk cache tier at {} with {} entries ({} bytes)", directory, entries, totalBytes);
+    }
+
+    /**
+     * @return The cached value, or null if absent
+     */
+    public synchronized byte[] get(byte[] key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        try {
+            byte[] value = Files.readAllBytes(valueFile(key));
+            index.putLong(offset(slot) + KEY_SIZE + 8, System.currentTimeMillis());
+            recency.get(HexFormat.of().formatHex(key));
+            return value;
+        } catch (NoSuchFileException e) {
+            remove(slot);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Store a value, evicting older entries as needed.
+     *
+     * @return Number of entries evicted to make room
+     */
+    public synchronized int put(byte[] key, byte[] value) {
+        if (value.length > maxBytes) {
+            return 0;
+        }
+        try {
+            Path temp = Files.createTempFile(valuesDirectory, "value", ".tmp");
+            Files.write(temp, value);
+            Files.move(temp, valueFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int existing = find(key);
+        if (existing >= 0) {
+            remove(existing);
+        }
+        int evicted = 0;
+        while (entries > 0 && (totalBytes + value.length > maxBytes || entries >= slots * 3 / 4)) {
+            evictLeastRecentlyUsed();
+            evicted++;
+        }
+        int slot = probeForInsert(key);
+        int offset = offset(slot);
+        index.put(offset, key, 0, KEY_SIZE);
+        index.putLong(offset + KEY_SIZE, value.length);
+        index.putLong(offset + KEY_SIZE + 8, System.currentTimeMillis());
+        recency.put(HexFormat.of().formatHex(key), key.clone());
+        entries++;
+        totalBytes += value.length;
+        return evicted;
+    }
+
+    /**
+     * Drop the entry for a key, if there is one.
+     */
+    public synchronized void remove(byte[] key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        remove(slot);
+        try {
+            Files.deleteIfExists(valueFile(key));
+        } catch (IOException e) {
+            logger.debug("Unable to delete removed cache value: {}", e.getMessage());
+        }
+    }
+
+    private int find(byte[] key) {
+        int start = home(key);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (lastAccess(slot) == EMPTY) {
+                return -1;
+            }
+            if (keyMatches(slot, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int probeForInsert(byte[] key) {
+        int start = home(key);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (lastAccess(slot) == EMPTY) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Disk cache index is full");
+    }
+
+    private void evictLeastRecentlyUsed() {
+        byte[] key = recency.values().iterator().next();
+        int victim = find(key);
+        if (victim >= 0) {
+            remove(victim);
+        } else {
+            recency.remove(HexFormat.of().formatHex(key));
+        }
+        try {
+            Files.deleteIfExists(valueFile(key));
+        } catch (IOException e) {
+            logger.debug("Unable to delete evicted cache value: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Free a slot, moving later entries of its probe run back so no lookup has to skip it.
+     */
+    private void remove(int slot) {
+        byte[] key = new byte[KEY_SIZE];
+        index.get(offset(slot), key, 0, KEY_SIZE);
+        recency.remove(HexFormat.of().formatHex(key));
+        totalBytes -= index.getLong(offset(slot) + KEY_SIZE);
+        entries--;
+
+        int hole = slot;
+        for (int next = (hole + 1) % slots; lastAccess(next) != EMPTY; next = (next + 1) % slots) {
+            index.get(offset(next), key, 0, KEY_SIZE);
+            // The entry may only move back if the hole lies on its probe path
+            if (distance(home(key), next) >= distance(hole, next)) {
+                index.put(offset(hole), index, offset(next), SLOT_SIZE);
+                hole = next;
+            }
+        }
+        index.put(offset(hole), new byte[SLOT_SIZE]);
+    }
+
+    /**
+     * Count the live entries and order them by last access.
+     */
+    private void load() {
+        List<byte[]> live = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            if (lastAccess(slot) != EMPTY) {
+                byte[] stored = new byte[SLOT_SIZE];
+                index.get(offset(slot), stored);
+                live.add(stored);
+            }
+        }
+        live.sort(Comparator.comparingLong(stored -> ByteBuffer.wrap(stored).getLong(KEY_SIZE + 8)));
+        for (byte[] stored : live) {
+            byte[] key = Arrays.copyOf(stored, KEY_SIZE);
+            recency.put(HexFormat.of().formatHex(key), key);
+            entries++;
+            totalBytes += ByteBuffer.wrap(stored).getLong(KEY_SIZE);
+        }
+    }
+
+    private void reset() throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(SLOT_SIZE);
+        for (int slot = 0; slot < slots; slot++) {
+            index.put(offset(slot), zeros, 0, SLOT_SIZE);
+        }
+        index.putInt(0, MAGIC);
+        index.putInt(4, slots);
+        try (var files = Files.list(valuesDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        recency.clear();
+        entries = 0;
+        totalBytes = 0;
+    }
+
+    private boolean keyMatches(int slot, byte[] key) {
+        byte[] stored = new byte[KEY_SIZE];
+        index.get(offset(slot), stored, 0, KEY_SIZE);
+        return Arrays.equals(stored, key);
+    }
+
+    private long lastAccess(int slot) {
+        return index.getLong(offset(slot) + KEY_SIZE + 8);
+    }
+
+    private int home(byte[] key) {
+        int hash = (key[0] & 0xff) << 24 | (key[1] & 0xff) << 16 | (key[2] & 0xff) << 8 | (key[3] & 0xff);
+        return (hash & Integer.MAX_VALUE) % slots;
+    }
+
+    private int distance(int from, int to) {
+        return (to - from + slots) % slots;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private Path valueFile(byte[] key) {
+        return valuesDirectory.resolve(HexFormat.of().formatHex(key) + ".bin");
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntries() {
+        return entries;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.foundry.tool;
+
+import com.azure.ai.agents.persistent.models.FunctionDefinition;
+import com.azure.ai.agents.persistent.models.FunctionToolDefinition;
+import com.azure.core.util.BinaryData;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of in-process function tools discovered from {@link AgentTool} methods.
+ *
+ * At startup every annotated bean method is turned into a {@link FunctionToolDefinition}
+ * whose JSON schema is generated once and cached as {@link BinaryData}. Dispatch goes
+ * through a name-to-{@link MethodHandle} map with one pre-built {@link ObjectReader} per
+ * parameter, all sharing a single configured {@link ObjectMapper}, so a call costs one
+ * JSON parse and a direct method invocation.
+ */
+@Component
+public class FunctionToolRegistry implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(FunctionToolRegistry.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private record RegisteredTool(String name, FunctionToolDefinition definition, MethodHandle handle,
+                                  String[] parameterNames, ObjectReader[] readers, boolean[] required) {
+    }
+
+    private final ListableBeanFactory beanFactory;
+    private final Map<String, RegisteredTool> tools = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FunctionToolRegistry(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> beanType = beanFactory.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Map<Method, AgentTool> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                (MethodIntrospector.MetadataLookup<AgentTool>) method ->
+                    AnnotatedElementUtils.findMergedAnnotation(method, AgentTool.class));
+            if (!methods.isEmpty()) {
+                Object bean = beanFactory.getBean(beanName);
+                methods.forEach((method, annotation) -> register(bean, method, annotation));
+            }
+        }
+        logger.debug("Registered function tools: {}", tools.keySet());
+    }
+
+    /**
+     * Register an annotated method of the given target.
+     */
+    public void register(Object target, Method method, AgentTool annotation) {
+        String name = annotation.name().isEmpty() ? method.getName() : annotation.name();
+        Parameter[] parameters = method.getParameters();
+        String[] parameterNames = new String[parameters.length];
+        ObjectReader[] readers = new ObjectReader[parameters.length];
+        boolean[] required = new boolean[parameters.length];
+
+        ObjectNode properties = MAPPER.createObjectNode();
+        ArrayNode requiredNames = MAPPER.createArrayNode();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            ToolParam param = parameter.getAnnotation(ToolParam.class);
+            String parameterName = param != null && !param.name().isEmpty() ? param.name() : parameter.getName();
+            if (!parameter.isNamePresent() && (param == null || param.name().isEmpty())) {
+                throw new IllegalStateException("Parameter " + i + " of tool " + name + " needs @ToolParam(name)");
+            }
+            parameterNames[i] = parameterName;
+            readers[i] = MAPPER.readerFor(MAPPER.constructType(parameter.getParameterizedType()));
+            required[i] = param == null || param.required();
+
+            ObjectNode property = schemaFor(parameter.getType());
+            if (param != null && !param.description().isEmpty()) {
+                property.put("description", param.description());
+            }
+            properties.set(parameterName, property);
+            if (required[i]) {
+                requiredNames.add(parameterName);
+            }
+        }
+        ObjectNode schema = MAPPER.createObjectNode();
+        schema.put("type", "object");
+        schema.set("properties", properties);
+        schema.set("required", requiredNames);
+
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method).bindTo(target)
+                .asSpreader(Object[].class, parameters.length);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access tool method " + method, e);
+        }
+
+        FunctionToolDefinition definition = new FunctionToolDefinition(
+            new FunctionDefinition(name, BinaryData.fromString(schema.toString()))
+                .setDescription(annotation.description()));
+        if (tools.putIfAbsent(name, new RegisteredTool(name, definition, handle, parameterNames, readers, required)) != null) {
+            throw new IllegalStateException("Duplicate function tool name: " + name);
+        }
+    }
+
+    public boolean contains(String name) {
+        return tools.containsKey(name);
+    }
+
+    /**
+     * Cached definitions of all registered tools, for agent creation.
+     */
+    public List<FunctionToolDefinition> getToolDefinitions() {
+        Collection<RegisteredTool> registered = tools.values();
+        List<FunctionToolDefinition> definitions = new ArrayList<>(registered.size());
+        registered.stream()
+            .sorted((a, b) -> a.name().compareTo(b.name()))
+            .forEach(tool -> definitions.add(tool.definition()));
+        return definitions;
+    }
+
+    /**
+     * Invoke a tool with the JSON arguments supplied by the model.
+     *
+     * @throws IllegalArgumentException if the tool is unknown or the arguments are invalid
+     */
+    public ToolExecutionResult invoke(String name, String arguments) {
+        RegisteredTool tool = tools.get(name);
+        if (tool == null) {
+            throw new IllegalArgumentException("Unknown function tool: " + name);
+        }
+        long start = System.nanoTime();
+        Object[] values = new Object[tool.parameterNames().length];
+        try {
+            JsonNode root = MAPPER.readTree(arguments == null || arguments.isBlank() ? "{}" : arguments);
+            for (int i = 0; i < values.length; i++) {
+                JsonNode value = root.get(tool.parameterNames()[i]);
+                if (value == null || value.isNull()) {
+                    if (tool.required()[i]) {
+                        throw new IllegalArgumentException("Missing argument '" + tool.parameterNames()[i] + "' for " + name);
+                    }
+                    continue;
+                }
+                values[i] = tool.readers()[i].readValue(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid arguments for " + name + ": " + e.getMessage(), e);
+        }
+
+        Object result;
+        try {
+            result = tool.handle().invoke(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Tool " + name + " failed: " + e.getMessage(), e);
+        }
+        if (result instanceof ToolExecutionResult executionResult) {
+            return executionResult;
+        }
+        String output = toOutput(result);
+        return new ToolExecutionResult(output, output.length(), false, 0,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false);
+    }
+
+    private static String toOutput(Object result) {
+        if (result == null) {
+            return "";
+        }
+        if (result instanceof CharSequence text) {
+            return text.toString();
+        }
+        try {
+            return MAPPER.writeValueAsString(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize tool result", e);
+        }
+    }
+
+    private static ObjectNode schemaFor(Class<?> type) {
+        ObjectNode node = MAPPER.createObjectNode();
+        Class<?> boxed = ClassUtils.resolvePrimitiveIfNecessary(type);
+        if (CharSequence.class.isAssignableFrom(boxed) || boxed == Character.class || boxed.isEnum()) {
+            node.put("type", "string");
+        } else if (boxed == Integer.class || boxed == Long.class || boxed == Short.class || boxed == Byte.class) {
+            node.put("type", "integer");
+        } else if (Number.class.isAssignableFrom(boxed)) {
+            node.put("type", "number");
+        } else if (boxed == Boolean.class) {
+            node.put("type", "boolean");
+        } else if (boxed.isArray() || Collection.class.isAssignableFrom(boxed)) {
+            node.put("type", "array");
+        } else {
+            node.put("type", "object");
+        }
+        return node;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.util.HeadTailBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures the merged output of a child process under hard limits.
+ *
+ * Output is read in raw byte chunks into a {@link HeadTailBuffer}, so memory stays
+ * bounded no matter how much the process writes. While reading, the process is
+ * watched for wall-clock and CPU time; when either limit is exceeded the whole
+ * process tree is killed.
+ */
+public final class ProcessOutputCapture {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessOutputCapture.class);
+    private static final int CHUNK_SIZE = 8192;
+    private static final long MONITOR_INTERVAL_MS = 50;
+
+    private ProcessOutputCapture() {
+    }
+
+    /**
+     * Drain the process output and wait for it to exit or be killed.
+     *
+     * @param process Process whose stdout (with stderr redirected into it) is captured
+     * @param maxBytes Maximum number of output bytes retained
+     * @param wallClockMs Wall-clock limit, or 0 for none
+     * @param cpuMs CPU time limit, or 0 for none
+     */
+    public static ToolExecutionResult capture(Process process, int maxBytes, long wallClockMs, long cpuMs)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        HeadTailBuffer buffer = new HeadTailBuffer(maxBytes);
+        Thread reader = new Thread(() -> drain(process.getInputStream(), buffer), "process-output-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+
+        String killReason = null;
+        try {
+            while (!process.waitFor(MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (wallClockMs > 0 && elapsedMs > wallClockMs) {
+                    killReason = "wall-clock limit of " + wallClockMs + " ms";
+                } else if (cpuMs > 0 && cpuTimeMs(process.toHandle()) > cpuMs) {
+                    killReason = "CPU limit of " + cpuMs + " ms";
+                }
+                if (killReason != null) {
+                    logger.warn("Killing process {} after exceeding {}", process.pid(), killReason);
+                    destroyTree(process.toHandle());
+                    process.waitFor();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            destroyTree(process.toHandle());
+            throw e;
+        }
+        // Orphaned grandchildren may keep the pipe open; don't wait on them forever
+        reader.join(1000);
+
+        String text;
+        synchronized (buffer) {
+            text = buffer.toString(StandardCharsets.UTF_8);
+            if (killReason != null) {
+                text += "\nError: execution killed after exceeding " + killReason;
+            }
+            return new ToolExecutionResult(text, buffer.getTotalBytes(), buffer.isTruncated(),
+                process.exitValue(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), killReason != null);
+        }
+    }
+
+    /**
+     * Forcibly terminate a process and all of its descendants.
+     */
+    public static void destroyTree(ProcessHandle process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static long cpuTimeMs(ProcessHandle process) {
+        return process.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+    }
+
+    private static void drain(InputStream in, HeadTailBuffer buffer) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        try (in) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                synchronized (buffer) {
+                    buffer.write(chunk, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            // Stream closed because the process was killed
+        }
+    }
+}
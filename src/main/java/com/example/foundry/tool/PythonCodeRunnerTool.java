@@ -0,0 +1,56 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The pythonCodeRunner function tool: executes model-generated Python code.
+ *
+ * Code runs on the warm {@link PythonWorkerPool} when enabled, otherwise in a fresh
+ * process whose output is captured by {@link ProcessOutputCapture}.
+ */
+@Component
+public class PythonCodeRunnerTool {
+
+    private static final Logger logger = LoggerFactory.getLogger(PythonCodeRunnerTool.class);
+
+    private final AgentConfiguration config;
+    private final PythonWorkerPool pythonWorkerPool;
+
+    @Autowired
+    public PythonCodeRunnerTool(AgentConfiguration config, PythonWorkerPool pythonWorkerPool) {
+        this.config = config;
+        this.pythonWorkerPool = pythonWorkerPool;
+    }
+
+    @AgentTool(name = "pythonCodeRunner", description = "Execute Python code")
+    public ToolExecutionResult pythonCodeRunner(
+            @ToolParam(name = "code", description = "The Python code to execute") String code) {
+        logger.info("Executing Python code: {}", code);
+        try {
+            ToolExecutionResult result;
+            if (config.isPythonWorkerPoolEnabled()) {
+                result = pythonWorkerPool.execute(code);
+            } else {
+                // Execute the python process with the code and capture its bounded output
+                ProcessBuilder processBuilder = new ProcessBuilder(config.getPythonCommand(), "-c", code);
+                processBuilder.redirectErrorStream(true);
+                result = ProcessOutputCapture.capture(processBuilder.start(), config.getToolOutputMaxBytes(),
+                    config.getPythonExecutionTimeoutMs(), config.getPythonCpuTimeoutMs());
+            }
+            logger.debug("Python execution finished: exitCode={}, bytes={}, truncated={}, killed={}, durationMs={}",
+                result.exitCode(), result.bytesProduced(), result.truncated(), result.killed(), result.durationMs());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while executing Python code");
+            return new ToolExecutionResult("Error executing code", 0, false, -1, 0, false);
+        } catch (Exception e) {
+            logger.error("Error executing Python code: {}", e.getMessage(), e);
+            return new ToolExecutionResult("Error executing code", 0, false, -1, 0, false);
+        }
+    }
+}
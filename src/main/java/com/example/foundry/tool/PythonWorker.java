@@ -0,0 +1,159 @@
+package com.example.foundry.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single long-lived Python process speaking the length-prefixed JSON protocol
+ * implemented by {@code python/worker.py}.
+ *
+ * A worker serves one request at a time; {@link PythonWorkerPool} guarantees exclusive use.
+ */
+class PythonWorker implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorker.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Result of one execution inside the worker.
+     */
+    record Response(boolean ok, String output, long bytes, boolean truncated, boolean killed, long rssKb) {
+    }
+
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+    private final long startRssKb;
+    private int executions;
+    private long lastRssKb;
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    private PythonWorker(Process process) throws IOException {
+        this.process = process;
+        this.requests = new DataOutputStream(process.getOutputStream());
+        this.responses = new DataInputStream(process.getInputStream());
+        drainStderr(process);
+        // The first ping waits for preloading to finish and records the baseline footprint
+        this.startRssKb = send(Map.of("op", "ping")).rssKb();
+        this.lastRssKb = startRssKb;
+    }
+
+    /**
+     * Start a worker process and wait until it answers its first health check.
+     *
+     * @param pythonCommand Python executable
+     * @param script Source of the worker loop
+     * @param preloadModules Modules imported once at startup
+     */
+    static PythonWorker start(String pythonCommand, String script, List<String> preloadModules) throws IOException {
+        List<String> command = new ArrayList<>(List.of(pythonCommand, "-u", "-c", script));
+        command.addAll(preloadModules);
+        Process process = new ProcessBuilder(command).start();
+        try {
+            return new PythonWorker(process);
+        } catch (IOException | RuntimeException e) {
+            process.destroyForcibly();
+            throw e;
+        }
+    }
+
+    /**
+     * Execute code with fresh globals and return its captured stdout/stderr.
+     *
+     * @param maxOutputBytes Output retained by the worker, as head and tail
+     * @param cpuLimitMs CPU time after which the code is interrupted, or 0 for none
+     */
+    Response execute(String code, int maxOutputBytes, long cpuLimitMs) throws IOException {
+        executions++;
+        Response response = send(Map.of("op", "exec", "code", code,
+            "max_output_bytes", maxOutputBytes, "cpu_limit_ms", cpuLimitMs));
+        lastRssKb = response.rssKb();
+        return response;
+    }
+
+    /**
+     * Round-trip a no-op request to verify the worker is responsive.
+     */
+    boolean ping() {
+        try {
+            lastRssKb = send(Map.of("op", "ping")).rssKb();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Python worker {} failed health check: {}", pid(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Response send(Map<String, Object> request) throws IOException {
+        byte[] payload = MAPPER.writeValueAsBytes(request);
+        requests.writeInt(payload.length);
+        requests.write(payload);
+        requests.flush();
+
+        int length = responses.readInt();
+        byte[] body = new byte[length];
+        responses.readFully(body);
+        lastUsedNanos = System.nanoTime();
+
+        JsonNode node = MAPPER.readTree(body);
+        return new Response(node.path("ok").asBoolean(false), node.path("output").asText(""),
+            node.path("bytes").asLong(0), node.path("truncated").asBoolean(false),
+            node.path("killed").asBoolean(false), node.path("rss_kb").asLong(0));
+    }
+
+    int getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Peak resident memory growth since the worker started, in kilobytes.
+     */
+    long getRssGrowthKb() {
+        return Math.max(0, lastRssKb - startRssKb);
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    @Override
+    public void close() {
+        ProcessOutputCapture.destroyTree(process.toHandle());
+    }
+
+    private static void drainStderr(Process process) {
+        Thread drainer = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("python[{}]: {}", process.pid(), line);
+                }
+            } catch (IOException e) {
+                // Process exited
+            }
+        }, "python-worker-stderr-" + process.pid());
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+}
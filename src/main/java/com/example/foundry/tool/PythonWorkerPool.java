@@ -0,0 +1,245 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool of warm, long-lived Python processes for the pythonCodeRunner tool.
+ *
+ * Workers import heavy modules once and then execute each snippet with fresh globals,
+ * so tool calls skip interpreter startup. Workers are started lazily, health-checked
+ * while idle, and recycled after a number of executions or when their memory grows
+ * beyond the configured limit. A watchdog kills a worker whose execution exceeds the
+ * timeout or whose caller was interrupted, e.g. because the tool call's deadline passed;
+ * the pool replaces it on the next call. The watchdog has a thread of its own, so neither a
+ * slow warm-up nor a health check can hold it up.
+ */
+@Component
+public class PythonWorkerPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorkerPool.class);
+    private static final String WORKER_SCRIPT = "/python/worker.py";
+    private static final long WATCHDOG_INTERVAL_MS = 50;
+    private static final long HEALTH_CHECK_TIMEOUT_MS = 5000;
+
+    private final AgentConfiguration config;
+    private final BlockingQueue<PythonWorker> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private ScheduledExecutorService scheduler;
+    private ScheduledExecutorService watchdog;
+    private String script;
+    private volatile boolean closed;
+
+    @Autowired
+    public PythonWorkerPool(AgentConfiguration config) {
+        this.config = config;
+        this.permits = new Semaphore(Math.max(1, config.getPythonWorkerPoolSize()));
+    }
+
+    /**
+     * Execute Python code on a pooled worker, blocking while all workers are busy.
+     *
+     * @return Captured stdout/stderr (or an error description) and execution metrics
+     */
+    public ToolExecutionResult execute(String code) {
+        ensureStarted();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ToolExecutionResult("Error: execution cancelled", 0, false, -1, 0, false);
+        }
+        try {
+            PythonWorker worker = idle.poll();
+            if (worker == null || !worker.isAlive()) {
+                if (worker != null) {
+                    worker.close();
+                }
+                worker = startWorker();
+            }
+            return executeOn(worker, code);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private ToolExecutionResult executeOn(PythonWorker worker, String code) {
+        long timeoutMs = config.getPythonExecutionTimeoutMs();
+        long start = System.nanoTime();
+        Thread caller = Thread.currentThread();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        // An interrupt does not unblock the read from the worker, so the watchdog watches for it
+        ScheduledFuture<?> check = watchdog.scheduleAtFixedRate(() -> {
+            if (timedOut.get() || cancelled.get()) {
+                return;
+            }
+            if (elapsedMs(start) >= timeoutMs) {
+                timedOut.set(true);
+                worker.close();
+            } else if (caller.isInterrupted()) {
+                cancelled.set(true);
+                worker.close();
+            }
+        }, Math.min(timeoutMs, WATCHDOG_INTERVAL_MS), WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        boolean healthy = false;
+        try {
+            PythonWorker.Response response = worker.execute(code,
+                config.getToolOutputMaxBytes(), config.getPythonCpuTimeoutMs());
+            healthy = true;
+            return new ToolExecutionResult(response.output(), response.bytes(), response.truncated(),
+                response.ok() ? 0 : 1, elapsedMs(start), response.killed());
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                logger.warn("Python execution exceeded {} ms, worker {} killed", timeoutMs, worker.pid());
+                return new ToolExecutionResult("Error: execution timed out after " + timeoutMs + " ms",
+                    0, false, -1, elapsedMs(start), true);
+            }
+            if (cancelled.get()) {
+                logger.warn("Python execution cancelled, worker {} killed", worker.pid());
+                return new ToolExecutionResult("Error: execution cancelled", 0, false, -1, elapsedMs(start), true);
+            }
+            logger.warn("Python worker {} failed: {}", worker.pid(), e.getMessage());
+            return new ToolExecutionResult("Error executing code: " + e.getMessage(),
+                0, false, -1, elapsedMs(start), false);
+        } finally {
+            check.cancel(false);
+            release(worker, healthy);
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void release(PythonWorker worker, boolean healthy) {
+        long maxGrowthKb = config.getPythonWorkerMaxMemoryMb() * 1024L;
+        if (closed || !healthy || !worker.isAlive()) {
+            worker.close();
+        } else if (worker.getExecutions() >= config.getPythonWorkerMaxExecutions()) {
+            logger.debug("Recycling Python worker {} after {} executions", worker.pid(), worker.getExecutions());
+            worker.close();
+        } else if (maxGrowthKb > 0 && worker.getRssGrowthKb() > maxGrowthKb) {
+            logger.debug("Recycling Python worker {} after memory grew by {} KB", worker.pid(), worker.getRssGrowthKb());
+            worker.close();
+        } else {
+            idle.offer(worker);
+        }
+    }
+
+    /**
+     * Start workers in the background so the first tool call finds a warm interpreter.
+     */
+    public void warmUp() {
+        ensureStarted();
+        int size = Math.max(1, config.getPythonWorkerPoolSize());
+        VirtualThreads.daemonThreadFactory("python-warm-up").newThread(() -> {
+            for (int i = idle.size(); i < size && !closed; i++) {
+                if (!permits.tryAcquire()) {
+                    return;
+                }
+                try {
+                    idle.offer(startWorker());
+                } catch (RuntimeException e) {
+                    logger.warn("Unable to pre-start Python worker: {}", e.getMessage());
+                    return;
+                } finally {
+                    permits.release();
+                }
+            }
+        }).start();
+    }
+
+    private synchronized void ensureStarted() {
+        if (closed) {
+            throw new IllegalStateException("Python worker pool is closed");
+        }
+        if (scheduler != null) {
+            return;
+        }
+        try (InputStream in = PythonWorkerPool.class.getResourceAsStream(WORKER_SCRIPT)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing worker script " + WORKER_SCRIPT);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreadFactory("python-pool"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreadFactory("python-watchdog"));
+        long interval = config.getPythonWorkerHealthCheckIntervalMs();
+        if (interval > 0) {
+            scheduler.scheduleWithFixedDelay(this::checkIdleWorkers, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private PythonWorker startWorker() {
+        List<String> preload = Arrays.stream(config.getPythonWorkerPreloadModules().split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .toList();
+        try {
+            PythonWorker worker = PythonWorker.start(config.getPythonCommand(), script, preload);
+            logger.debug("Started Python worker {}", worker.pid());
+            return worker;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start Python worker", e);
+        }
+    }
+
+    private void checkIdleWorkers() {
+        for (int i = idle.size(); i > 0 && permits.tryAcquire(); i--) {
+            try {
+                PythonWorker worker = idle.poll();
+                if (worker == null) {
+                    return;
+                }
+                // A hung worker is killed, which fails the ping
+                ScheduledFuture<?> kill = watchdog.schedule(worker::close, HEALTH_CHECK_TIMEOUT_MS,
+                    TimeUnit.MILLISECONDS);
+                boolean responsive = worker.ping();
+                kill.cancel(false);
+                if (responsive) {
+                    idle.offer(worker);
+                } else {
+                    logger.info("Discarding unresponsive Python worker {}", worker.pid());
+                    worker.close();
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        PythonWorker worker;
+        while ((worker = idle.poll()) != null) {
+            worker.close();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.foundry.tool;
+
+/**
+ * Output and metrics of a single tool execution.
+ *
+ * @param output Captured output, possibly truncated in the middle
+ * @param bytesProduced Total bytes the code wrote, including truncated ones
+ * @param truncated Whether part of the output was dropped
+ * @param exitCode Process exit code, or 0/1 for success/failure inside a pooled worker
+ * @param durationMs Wall-clock duration of the execution
+ * @param killed Whether the execution was stopped for exceeding a time limit
+ */
+public record ToolExecutionResult(String output, long bytesProduced, boolean truncated,
+                                  int exitCode, long durationMs, boolean killed) {
+}
@@ -0,0 +1,25 @@
+package com.example.foundry.tool;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes a parameter of an {@link AgentTool} method in the generated JSON schema.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface ToolParam {
+
+    /**
+     * Property name in the tool arguments; defaults to the compiled parameter name.
+     */
+    String name() default "";
+
+    String description() default "";
+
+    boolean required() default true;
+}
@@ -0,0 +1,185 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed cache of deterministic tool results.
+ *
+ * Entries are keyed by a SHA-256 digest of the tool name and its arguments, with JSON
+ * arguments normalized (object keys sorted, whitespace removed) so equivalent calls share
+ * an entry. Lookups go to a size-bounded in-memory LRU first and then, if enabled, to a
+ * {@link DiskCacheTier} that survives restarts. Only tools listed in
+ * {@code agent.tool-cache-tools} are cached.
+ */
+@Component
+public class ToolResultCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolResultCache.class);
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    /** Approximate per-entry overhead of the LRU map, in bytes. */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    public record CacheStats(long memoryHits, long diskHits, long misses, long evictions, long memoryBytes) {
+    }
+
+    private final AgentConfiguration config;
+    private final Set<String> cachedTools;
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long memoryBytes;
+    private DiskCacheTier disk;
+    private boolean diskOpened;
+
+    @Autowired
+    public ToolResultCache(AgentConfiguration config) {
+        this.config = config;
+        this.cachedTools = Arrays.stream(config.getToolCacheTools().split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Whether results of the given tool may be cached.
+     */
+    public boolean isEnabledFor(String toolName) {
+        return cachedTools.contains(toolName);
+    }
+
+    /**
+     * Compute the content address of a tool call.
+     */
+    public String key(String toolName, String arguments) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(toolName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalize(arguments).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        synchronized (memory) {
+            String value = memory.get(key);
+            if (value != null) {
+                memoryHits.incrementAndGet();
+                return Optional.of(value);
+            }
+        }
+        DiskCacheTier tier = diskTier();
+        if (tier != null) {
+            byte[] value = tier.get(HexFormat.of().parseHex(key));
+            if (value != null) {
+                diskHits.incrementAndGet();
+                String text = new String(value, StandardCharsets.UTF_8);
+                putInMemory(key, text);
+                return Optional.of(text);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, String value) {
+        putInMemory(key, value);
+        DiskCacheTier tier = diskTier();
+        if (tier != null) {
+            evictions.addAndGet(tier.put(HexFormat.of().parseHex(key), value.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    public CacheStats getStats() {
+        synchronized (memory) {
+            return new CacheStats(memoryHits.get(), diskHits.get(), misses.get(), evictions.get(), memoryBytes);
+        }
+    }
+
+    private void putInMemory(String key, String value) {
+        long maxBytes = config.getToolCacheMemoryMaxBytes();
+        long size = sizeOf(key, value);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            String previous = memory.put(key, value);
+            if (previous != null) {
+                memoryBytes -= sizeOf(key, previous);
+            }
+            memoryBytes += size;
+            Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                memoryBytes -= sizeOf(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized DiskCacheTier diskTier() {
+        if (!config.isToolCacheDiskEnabled() || diskOpened) {
+            return disk;
+        }
+        diskOpened = true;
+        try {
+            disk = new DiskCacheTier(Path.of(config.getToolCacheDiskDirectory()),
+                config.getToolCacheDiskIndexSlots(), config.getToolCacheDiskMaxBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Tool cache disk tier unavailable, using memory only: {}", e.getMessage());
+        }
+        return disk;
+    }
+
+    private static long sizeOf(String key, String value) {
+        return ENTRY_OVERHEAD + 2L * (key.length() + value.length());
+    }
+
+    /**
+     * Canonical form of JSON arguments; non-JSON arguments are used verbatim.
+     */
+    static String normalize(String arguments) {
+        try {
+            Object tree = CANONICAL_MAPPER.readValue(arguments, Object.class);
+            return CANONICAL_MAPPER.writeValueAsString(tree);
+        } catch (JsonProcessingException e) {
+            return arguments;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+            disk = null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.foundry.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes polling delays that start short and grow exponentially up to a ceiling.
+ *
+ * The first few polls are cheap and fast so that short runs are observed quickly,
+ * while long runs back off to avoid hammering the service. Each delay is randomized
+ * by a jitter factor so that many concurrent pollers do not synchronize.
+ * Instances are not thread-safe; create one per polling loop.
+ */
+public class AdaptiveBackoff {
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final double jitter;
+    private long nextDelayMs;
+    private int attempts;
+
+    /**
+     * Create an adaptive backoff.
+     *
+     * @param initialDelayMs Delay before the first poll
+     * @param maxDelayMs Ceiling for any single delay
+     * @param multiplier Growth factor applied after each poll (values below 1 are treated as 1)
+     * @param jitter Fraction of each delay to randomize, between 0 and 1
+     */
+    public AdaptiveBackoff(long initialDelayMs, long maxDelayMs, double multiplier, double jitter) {
+        this.initialDelayMs = Math.max(0, initialDelayMs);
+        this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        this.nextDelayMs = this.initialDelayMs;
+    }
+
+    /**
+     * Return the delay to wait before the next poll and advance the schedule.
+     */
+    public long nextDelayMs() {
+        long base = nextDelayMs;
+        attempts++;
+        nextDelayMs = Math.min(maxDelayMs, (long) Math.ceil(base * multiplier));
+        if (jitter == 0.0 || base == 0) {
+            return base;
+        }
+        double spread = base * jitter;
+        long jittered = Math.round(base - spread + ThreadLocalRandom.current().nextDouble() * 2 * spread);
+        return Math.min(maxDelayMs, Math.max(0, jittered));
+    }
+
+    /**
+     * Restart the schedule from the initial delay, e.g. after the run made progress.
+     */
+    public void reset() {
+        this.nextDelayMs = initialDelayMs;
+    }
+
+    /**
+     * Number of delays handed out since construction.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.foundry.util;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of operations in flight with a limit that adapts to throttling (AIMD).
+ *
+ * Every operation that completes normally raises the limit by {@code 1/limit}, so it grows by
+ * about one per round of successful operations, up to the maximum. An operation that was
+ * throttled multiplies it by the backoff ratio, down to the minimum, and stops admissions
+ * for the server's requested retry delay. Throttles arriving while admissions are already
+ * paused lower the limit only once, so a burst of concurrent 429s counts as one signal.
+ *
+ * Callers beyond the limit wait in FIFO order, either blocking ({@link #acquire(long)}) or
+ * asynchronously ({@link #acquireAsync(long)}); one that waits longer than its allowance
+ * is rejected with a {@link RejectedExecutionException}. Instances are thread-safe.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** Minimum spacing of two decreases when the server gives no retry delay */
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private double limit;
+    private int inFlight;
+    private long pausedUntilNanos = System.nanoTime();
+    private long lastDecreaseNanos = System.nanoTime() - MIN_DECREASE_INTERVAL_NANOS;
+
+    /**
+     * Create a limiter that starts at its maximum.
+     *
+     * @param name Name used in metrics and messages
+     * @param minLimit Floor for the limit (at least 1)
+     * @param maxLimit Ceiling and initial value of the limit
+     * @param backoffRatio Factor applied to the limit on throttling, between 0 and 1
+     */
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int maxLimit, double backoffRatio) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = Math.min(1.0, Math.max(0.1, backoffRatio));
+        this.limit = this.maxLimit;
+    }
+
+    /**
+     * A slot taken from the limiter. Exactly one of its methods takes effect; later calls
+     * are ignored, so a permit may be released from several completion paths.
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /** The operation completed normally; grow the limit */
+        public void success() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(true, -1);
+            }
+        }
+
+        /** The operation was throttled; shrink the limit and pause for the retry delay */
+        public void throttled(long retryAfterMs) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(false, Math.max(0, retryAfterMs));
+            }
+        }
+
+        /** The operation ended without a signal about capacity, e.g. it failed or was cancelled */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(false, -1);
+            }
+        }
+    }
+
+    /**
+     * Take a permit, waiting up to {@code maxWaitMs} for one.
+     *
+     * @throws RejectedExecutionException if no permit became available in time
+     */
+    public Permit acquire(long maxWaitMs) throws InterruptedException {
+        CompletableFuture<Permit> permit = enqueue();
+        try {
+            return permit.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return abandon(permit);
+        } catch (InterruptedException e) {
+            abandonQuietly(permit);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Take a permit without blocking; the returned Mono errors with a
+     * {@link RejectedExecutionException} if none became available within {@code maxWaitMs}.
+     */
+    public Mono<Permit> acquireAsync(long maxWaitMs) {
+        return Mono.defer(() -> {
+            CompletableFuture<Permit> permit = enqueue();
+            return Mono.fromFuture(permit, true)
+                .timeout(Duration.ofMillis(maxWaitMs), Mono.fromCallable(() -> abandon(permit)))
+                .doOnCancel(() -> abandonQuietly(permit));
+        });
+    }
+
+    /**
+     * Stop admitting operations for a while, e.g. because the server reported its rate
+     * limit as exhausted, without treating it as a throttle.
+     */
+    public void pause(long delayMs) {
+        synchronized (this) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs));
+        }
+        scheduleDrain(delayMs);
+    }
+
+    private CompletableFuture<Permit> enqueue() {
+        CompletableFuture<Permit> permit = new CompletableFuture<>();
+        synchronized (this) {
+            if (waiters.isEmpty() && canAdmit(System.nanoTime())) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            waiters.addLast(permit);
+        }
+        return permit;
+    }
+
+    private Permit abandon(CompletableFuture<Permit> permit) {
+        if (permit.cancel(false)) {
+            synchronized (this) {
+                waiters.remove(permit);
+            }
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("No " + name + " permit available within the wait allowance");
+        }
+        // Granted while timing out
+        return permit.join();
+    }
+
+    private void abandonQuietly(CompletableFuture<Permit> permit) {
+        if (!permit.cancel(false)) {
+            permit.thenAccept(Permit::release);
+        } else {
+            synchronized (this) {
+                waiters.remove(permit);
+            }
+        }
+    }
+
+    /**
+     * Record that an operation this limiter guards was throttled outside of any permit,
+     * e.g. an HTTP call made on behalf of an admitted run.
+     */
+    public void throttled(long retryAfterMs) {
+        synchronized (this) {
+            decrease(Math.max(0, retryAfterMs));
+        }
+        if (retryAfterMs > 0) {
+            scheduleDrain(retryAfterMs);
+        }
+    }
+
+    private void onRelease(boolean success, long retryAfterMs) {
+        synchronized (this) {
+            inFlight--;
+            if (success) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else if (retryAfterMs >= 0) {
+                decrease(retryAfterMs);
+            }
+        }
+        if (retryAfterMs > 0) {
+            scheduleDrain(retryAfterMs);
+        }
+        drain();
+    }
+
+    private void decrease(long retryAfterMs) {
+        throttled.incrementAndGet();
+        long now = System.nanoTime();
+        if (now >= pausedUntilNanos && now - lastDecreaseNanos >= MIN_DECREASE_INTERVAL_NANOS) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            lastDecreaseNanos = now;
+        }
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+    }
+
+    private void scheduleDrain(long delayMs) {
+        CompletableFuture.runAsync(this::drain, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+
+    private void drain() {
+        List<CompletableFuture<Permit>> admitted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            while (!waiters.isEmpty() && canAdmit(now)) {
+                CompletableFuture<Permit> waiter = waiters.pollFirst();
+                if (!waiter.isDone()) {
+                    inFlight++;
+                    admitted.add(waiter);
+                }
+            }
+        }
+        for (CompletableFuture<Permit> waiter : admitted) {
+            Permit permit = new Permit();
+            if (!waiter.complete(permit)) {
+                // Abandoned after leaving the queue
+                permit.release();
+            }
+        }
+    }
+
+    private boolean canAdmit(long now) {
+        return inFlight < (int) limit && now >= pausedUntilNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current limit, rounded down to the number of operations admitted at once.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * Number of operations that were throttled by the server.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * Number of callers that gave up waiting for a permit.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.foundry.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point on the monotonic clock by which a request has to finish.
+ *
+ * A request's budget is split into phases by taking a share of what remains for one
+ * phase and capping each timeout in a later phase by the time left. An unbounded
+ * deadline never expires and leaves timeouts as they are. Instances are immutable.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, false);
+
+    private final long nanos;
+    private final boolean bounded;
+
+    private Deadline(long nanos, boolean bounded) {
+        this.nanos = nanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * A deadline the given time from now, or none if it is not positive.
+     */
+    public static Deadline after(long timeoutMs) {
+        return timeoutMs > 0 ? new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs), true) : NONE;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - nanos >= 0;
+    }
+
+    /**
+     * Time left rounded up to whole milliseconds, so a timeout of that length does not
+     * fire before the deadline has passed, or {@link Long#MAX_VALUE} if unbounded.
+     */
+    public long remainingMs() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = nanos - System.nanoTime();
+        return remaining <= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * A timeout no longer than the time left.
+     */
+    public long cap(long timeoutMs) {
+        return Math.min(timeoutMs, remainingMs());
+    }
+
+    /**
+     * The deadline of a phase that may use the given fraction of the time left.
+     */
+    public Deadline share(double fraction) {
+        if (!bounded) {
+            return NONE;
+        }
+        long now = System.nanoTime();
+        long remaining = Math.max(0, nanos - now);
+        return new Deadline(now + (long) (remaining * Math.min(1.0, Math.max(0.0, fraction))), true);
+    }
+
+    /**
+     * The earlier of this deadline and one the given time from now.
+     */
+    public Deadline orAfter(long timeoutMs) {
+        Deadline other = after(timeoutMs);
+        if (!other.bounded) {
+            return this;
+        }
+        return !bounded || other.nanos - nanos < 0 ? other : this;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.foundry.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many short-lived delayed tasks from a single timer thread.
+ *
+ * Time is divided into ticks of fixed length and tasks are hashed into a ring of buckets by
+ * the tick they are due in; a task due more than one revolution away carries a count of
+ * remaining rounds. Every tick the timer thread moves newly scheduled tasks into their
+ * buckets and hands the due tasks of the current bucket to the dispatch executor, so
+ * scheduling and cancelling are O(1) and a task fires at most one tick late. Tasks must not
+ * block the timer thread; they always run on the executor. Instances are thread-safe.
+ */
+public class HashedTimerWheel implements AutoCloseable {
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Keep the task from running if it has not been dispatched yet.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final List<ArrayDeque<Timeout>> wheel;
+    private final int mask;
+    private final Executor dispatcher;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Create a timer wheel and start its timer thread.
+     *
+     * @param name Name of the timer thread
+     * @param tickMs Length of a tick, the timer's resolution
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     * @param dispatcher Executor the due tasks run on
+     */
+    public HashedTimerWheel(String name, long tickMs, int wheelSize, Executor dispatcher) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        this.dispatcher = dispatcher;
+        this.startNanos = System.nanoTime();
+        this.worker = VirtualThreads.daemonThreadFactory(name).newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * Run the task on the dispatch executor once the delay has elapsed.
+     *
+     * @throws RejectedExecutionException if the wheel is closed
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new RejectedExecutionException("Timer wheel is closed");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of tasks scheduled and neither run nor discarded after cancellation yet.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (running) {
+            if (!awaitNextTick()) {
+                return;
+            }
+            transferScheduled();
+            expire(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private boolean awaitNextTick() {
+        long tickEnd = startNanos + (tick + 1) * tickNanos;
+        long sleepNanos;
+        while ((sleepNanos = tickEnd - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long dueTick = Math.max(tick, (timeout.deadlineNanos - startNanos) / tickNanos);
+            timeout.remainingRounds = (dueTick - tick) / wheel.size();
+            wheel.get((int) (dueTick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+                pending.decrementAndGet();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                pending.decrementAndGet();
+                dispatch(timeout.task);
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The executor is shutting down along with its users
+        }
+    }
+
+    /**
+     * Stop the timer thread; tasks not yet due are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.foundry.util;
+
+import java.nio.charset.Charset;
+
+/**
+ * Byte sink with a hard memory cap that keeps the beginning and the end of the data.
+ *
+ * The first half of the capacity stores the head; the second half is a ring buffer
+ * holding the most recent bytes. Everything in between is counted but discarded,
+ * so arbitrarily large output can be written without growing the heap.
+ * Not thread-safe.
+ */
+public class HeadTailBuffer {
+
+    private final byte[] head;
+    private final byte[] tail;
+    private int headSize;
+    private int tailStart;
+    private int tailSize;
+    private long totalBytes;
+
+    /**
+     * @param maxBytes Maximum number of bytes retained
+     */
+    public HeadTailBuffer(int maxBytes) {
+        int capacity = Math.max(2, maxBytes);
+        this.head = new byte[capacity / 2];
+        this.tail = new byte[capacity - capacity / 2];
+    }
+
+    public void write(byte[] bytes, int offset, int length) {
+        totalBytes += length;
+        int toHead = Math.min(length, head.length - headSize);
+        System.arraycopy(bytes, offset, head, headSize, toHead);
+        headSize += toHead;
+        int start = offset + toHead;
+        int remaining = length - toHead;
+        if (remaining >= tail.length) {
+            System.arraycopy(bytes, start + remaining - tail.length, tail, 0, tail.length);
+            tailStart = 0;
+            tailSize = tail.length;
+            return;
+        }
+        while (remaining > 0) {
+            int writePos = (tailStart + tailSize) % tail.length;
+            int chunk = Math.min(remaining, tail.length - writePos);
+            System.arraycopy(bytes, start, tail, writePos, chunk);
+            start += chunk;
+            remaining -= chunk;
+            int overflow = tailSize + chunk - tail.length;
+            if (overflow > 0) {
+                tailStart = (tailStart + overflow) % tail.length;
+                tailSize = tail.length;
+            } else {
+                tailSize += chunk;
+            }
+        }
+    }
+
+    /**
+     * Total number of bytes written, including discarded ones.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public boolean isTruncated() {
+        return totalBytes > headSize + tailSize;
+    }
+
+    /**
+     * Decode the retained bytes, with a marker where data was dropped.
+     */
+    public String toString(Charset charset) {
+        String text = new String(head, 0, headSize, charset);
+        if (tailSize == 0) {
+            return text;
+        }
+        byte[] ordered = new byte[tailSize];
+        int firstPart = Math.min(tailSize, tail.length - tailStart);
+        System.arraycopy(tail, tailStart, ordered, 0, firstPart);
+        System.arraycopy(tail, 0, ordered, firstPart, tailSize - firstPart);
+        long dropped = totalBytes - headSize - tailSize;
+        String marker = dropped > 0 ? "\n... [" + dropped + " bytes truncated] ...\n" : "";
+        return text + marker + new String(ordered, charset);
+    }
+}
@@ -1,116 +1,356 @@
 package com.example.foundry.util;
 
+import com.azure.core.http.HttpHeader;
+import com.azure.core.http.HttpHeaders;
 import com.azure.core.http.HttpPipelineCallContext;
 import com.azure.core.http.HttpPipelineNextPolicy;
 import com.azure.core.http.HttpRequest;
 import com.azure.core.http.HttpResponse;
 import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.FluxUtil;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.OffsetDateTime;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * HTTP pipeline policy that logs Azure AI API requests and responses to the console.
- * 
+ *
  * This interceptor provides detailed logging of HTTP interactions with Azure AI services,
  * including request/response headers, bodies, and timing information.
  * Sensitive headers like API keys are automatically masked for security.
+ *
+ * The pipeline thread only snapshots each exchange into a bounded queue; formatting and
+ * printing happen on a background writer thread. When the queue is full the entry is
+ * dropped and counted, so logging never slows down API traffic. Exchanges can be sampled
+ * and restricted to slow requests. Bodies are captured up to a size cap: request bodies
+ * only when replayable, response bodies by observing the stream as the SDK consumes it.
  */
-public class HttpLoggingInterceptor implements HttpPipelinePolicy {
-    
+public class HttpLoggingInterceptor implements HttpPipelinePolicy, AutoCloseable {
+
+    private static final String SEPARATOR = "=".repeat(80);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(ZoneId.systemDefault());
+
+    /**
+     * Snapshot of one request/response exchange, formatted later by the writer thread.
+     */
+    private record Exchange(long timestampMs, String method, String url, List<String> requestHeaders,
+                            String requestBody, int status, List<String> responseHeaders,
+                            String responseBody, long durationMs) {
+    }
+
     private final boolean logRequestBody;
-    
+    private final boolean logResponseBody;
+    private final double sampleRate;
+    private final long slowThresholdMs;
+    private final int maxBodyBytes;
+    private final PrintStream out;
+    private final ArrayBlockingQueue<Exchange> queue;
+    private final AtomicLong logged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Thread writer;
+
     /**
      * Create an HTTP logging interceptor with default settings (log everything).
      */
     public HttpLoggingInterceptor() {
         this(true);
     }
-    
+
     /**
      * Create an HTTP logging interceptor with specific logging preferences.
-     * 
+     *
      * @param logRequestBody Whether to log request bodies
      */
     public HttpLoggingInterceptor(boolean logRequestBody) {
+        this(logRequestBody, false, 1.0, 0, 4096, 1024);
+    }
+
+    /**
+     * Create an HTTP logging interceptor.
+     *
+     * @param logRequestBody Whether to log request bodies
+     * @param logResponseBody Whether to log response bodies
+     * @param sampleRate Fraction of exchanges to log, between 0 and 1
+     * @param slowThresholdMs Only log exchanges taking at least this long; 0 logs all
+     * @param maxBodyBytes Maximum number of body bytes captured per request or response
+     * @param bufferCapacity Number of exchanges buffered before new ones are dropped
+     */
+    public HttpLoggingInterceptor(boolean logRequestBody, boolean logResponseBody, double sampleRate,
+                                  long slowThresholdMs, int maxBodyBytes, int bufferCapacity) {
+        this(logRequestBody, logResponseBody, sampleRate, slowThresholdMs, maxBodyBytes, bufferCapacity, System.out);
+    }
+
+    HttpLoggingInterceptor(boolean logRequestBody, boolean logResponseBody, double sampleRate,
+                           long slowThresholdMs, int maxBodyBytes, int bufferCapacity, PrintStream out) {
         this.logRequestBody = logRequestBody;
+        this.logResponseBody = logResponseBody;
+        this.sampleRate = Math.min(1.0, Math.max(0.0, sampleRate));
+        this.slowThresholdMs = Math.max(0, slowThresholdMs);
+        this.maxBodyBytes = Math.max(0, maxBodyBytes);
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, bufferCapacity));
+        this.writer = new Thread(this::drain, "http-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
     }
-    
+
     @Override
     public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return next.process();
+        }
         HttpRequest request = context.getHttpRequest();
-        return logRequest(request)
-                .then(next.process())
-                .flatMap(response -> logResponse(response));
-    }
-    
-    private Mono<Void> logRequest(HttpRequest request) {
-        return Mono.fromRunnable(() -> {
-            String timestamp = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            
-            System.out.println("\\n" + "=".repeat(80));
-            System.out.println("🔵 OUTGOING REQUEST - " + timestamp);
-            System.out.println("=".repeat(80));
-            System.out.println("Method: " + request.getHttpMethod());
-            System.out.println("URL: " + request.getUrl());
-            
-            // Log headers (mask sensitive ones)
-            System.out.println("\\nHeaders:");
-            request.getHeaders().forEach(header -> {
-                String name = header.getName();
-                String value = isSensitiveHeader(name) ? "***MASKED***" : header.getValue();
-                System.out.println("  " + name + ": " + value);
-            });
-            
-            // Log request body if enabled
-            if (logRequestBody && request.getBody() != null) {
-                logRequestBody(request);
+        long timestampMs = System.currentTimeMillis();
+        long start = System.nanoTime();
+        List<String> requestHeaders = headers(request.getHeaders());
+        String requestBody = logRequestBody ? requestBody(request) : null;
+
+        return next.process().map(response -> {
+            if (!logResponseBody) {
+                record(timestampMs, request, requestHeaders, requestBody, response, null, start);
+                return response;
             }
-            
-            System.out.println("=".repeat(80));
+            return new CapturingResponse(response, maxBodyBytes,
+                body -> record(timestampMs, request, requestHeaders, requestBody, response, body, start));
         });
     }
-    
-    private Mono<HttpResponse> logResponse(HttpResponse response) {
-        return Mono.fromRunnable(() -> {
-            String timestamp = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            
-            System.out.println("\\n" + "=".repeat(80));
-            System.out.println("🟢 INCOMING RESPONSE - " + timestamp);
-            System.out.println("=".repeat(80));
-            System.out.println("Status: " + response.getStatusCode());
-            
-            // Log response headers
-            System.out.println("\\nHeaders:");
-            response.getHeaders().forEach(header -> {
-                String name = header.getName();
-                String value = isSensitiveHeader(name) ? "***MASKED***" : header.getValue();
-                System.out.println("  " + name + ": " + value);
-            });
-            
-            System.out.println("=".repeat(80) + "\\n");
-        }).then(Mono.just(response));
-    }
-    
-    private void logRequestBody(HttpRequest request) {
-        try {
-            // For simplicity in this demo, we'll just log that there is a body
-            // The actual Azure SDK handles body logging through HttpLogOptions
-            System.out.println("\\nRequest Body: (present - see Azure SDK logs for details)");
-        } catch (Exception e) {
-            System.out.println("\\nRequest Body: (unable to read - " + e.getMessage() + ")");
+
+    private void record(long timestampMs, HttpRequest request, List<String> requestHeaders, String requestBody,
+                        HttpResponse response, String responseBody, long start) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (durationMs < slowThresholdMs) {
+            return;
+        }
+        Exchange exchange = new Exchange(timestampMs, request.getHttpMethod().toString(),
+            request.getUrl().toString(), requestHeaders, requestBody, response.getStatusCode(),
+            headers(response.getHeaders()), responseBody, durationMs);
+        if (!queue.offer(exchange)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private String requestBody(HttpRequest request) {
+        BinaryData body = request.getBodyAsBinaryData();
+        if (body == null) {
+            return null;
+        }
+        if (!body.isReplayable()) {
+            return "(not replayable, " + (body.getLength() != null ? body.getLength() + " bytes" : "unknown length") + ")";
+        }
+        ByteBuffer buffer = body.toByteBuffer();
+        return decode(buffer, buffer.remaining(), maxBodyBytes);
+    }
+
+    private List<String> headers(HttpHeaders headers) {
+        List<String> lines = new ArrayList<>();
+        for (HttpHeader header : headers) {
+            String name = header.getName();
+            lines.add(name + ": " + (isSensitiveHeader(name) ? "***MASKED***" : header.getValue()));
+        }
+        return lines;
+    }
+
+    private void drain() {
+        List<Exchange> batch = new ArrayList<>();
+        StringBuilder text = new StringBuilder(4096);
+        while (running.get() || !queue.isEmpty()) {
+            try {
+                Exchange first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                running.set(false);
+            }
+            queue.drainTo(batch);
+            for (Exchange exchange : batch) {
+                format(exchange, text);
+            }
+            out.print(text);
+            out.flush();
+            logged.addAndGet(batch.size());
+            batch.clear();
+            text.setLength(0);
         }
     }
-    
+
+    private static void format(Exchange exchange, StringBuilder text) {
+        String timestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(exchange.timestampMs()));
+        text.append('\n').append(SEPARATOR).append('\n');
+        text.append("🔵 OUTGOING REQUEST - ").append(timestamp).append('\n');
+        text.append(SEPARATOR).append('\n');
+        text.append("Method: ").append(exchange.method()).append('\n');
+        text.append("URL: ").append(exchange.url()).append('\n');
+        appendHeaders(text, exchange.requestHeaders());
+        if (exchange.requestBody() != null) {
+            text.append("\nRequest Body:\n").append(exchange.requestBody()).append('\n');
+        }
+        text.append(SEPARATOR).append('\n');
+        text.append("🟢 INCOMING RESPONSE - ").append(exchange.durationMs()).append(" ms\n");
+        text.append(SEPARATOR).append('\n');
+        text.append("Status: ").append(exchange.status()).append('\n');
+        appendHeaders(text, exchange.responseHeaders());
+        if (exchange.responseBody() != null) {
+            text.append("\nResponse Body:\n").append(exchange.responseBody()).append('\n');
+        }
+        text.append(SEPARATOR).append('\n');
+    }
+
+    private static void appendHeaders(StringBuilder text, List<String> headers) {
+        text.append("\nHeaders:\n");
+        for (String header : headers) {
+            text.append("  ").append(header).append('\n');
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, long totalBytes, int maxBytes) {
+        int length = Math.min(buffer.remaining(), maxBytes);
+        byte[] bytes = new byte[length];
+        buffer.duplicate().get(bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return totalBytes > length ? text + "... [" + (totalBytes - length) + " more bytes]" : text;
+    }
+
     private boolean isSensitiveHeader(String headerName) {
         if (headerName == null) return false;
         String name = headerName.toLowerCase();
-        return name.contains("authorization") || 
-               name.contains("api-key") || 
+        return name.contains("authorization") ||
+               name.contains("api-key") ||
                name.contains("apikey") ||
                name.contains("key") ||
                name.contains("secret") ||
                name.contains("token");
     }
+
+    /**
+     * Number of exchanges written so far.
+     */
+    public long getLoggedCount() {
+        return logged.get();
+    }
+
+    /**
+     * Number of exchanges dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop the writer after it has flushed the entries already buffered.
+     */
+    @Override
+    public void close() {
+        running.set(false);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Response wrapper that copies the first bytes of the body as the SDK reads it and
+     * reports them once the body completes, so streaming responses are not buffered.
+     */
+    private static final class CapturingResponse extends HttpResponse {
+
+        private final HttpResponse delegate;
+        private final ByteBuffer captured;
+        private final Consumer<String> onComplete;
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private long totalBytes;
+
+        CapturingResponse(HttpResponse delegate, int maxBytes, Consumer<String> onComplete) {
+            super(delegate.getRequest());
+            this.delegate = delegate;
+            this.captured = ByteBuffer.allocate(maxBytes);
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @Deprecated
+        public String getHeaderValue(String name) {
+            return delegate.getHeaderValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return delegate.getBody()
+                .doOnNext(this::capture)
+                .doFinally(signal -> report());
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return FluxUtil.collectBytesInByteBufferStream(getBody());
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return getBodyAsByteArray().map(bytes -> new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return getBodyAsByteArray().map(bytes -> new String(bytes, charset));
+        }
+
+        @Override
+        public void close() {
+            report();
+            delegate.close();
+        }
+
+        private synchronized void capture(ByteBuffer buffer) {
+            totalBytes += buffer.remaining();
+            if (captured.hasRemaining()) {
+                ByteBuffer view = buffer.duplicate();
+                if (view.remaining() > captured.remaining()) {
+                    view.limit(view.position() + captured.remaining());
+                }
+                captured.put(view);
+            }
+        }
+
+        private void report() {
+            if (reported.compareAndSet(false, true)) {
+                String body;
+                synchronized (this) {
+                    ByteBuffer view = captured.duplicate().flip();
+                    body = decode(view, totalBytes, view.remaining());
+                }
+                onComplete.accept(body);
+            }
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.foundry.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out operations so that no more than a fixed number start per second.
+ *
+ * Permits are handed out on an evenly spaced schedule shared by all callers; a caller
+ * that arrives early sleeps until its slot. Idle time does not accumulate into a burst.
+ * Instances are thread-safe.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextPermitNanos;
+
+    /**
+     * Create a rate limiter.
+     *
+     * @param permitsPerSecond Maximum rate; zero or negative disables limiting
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nextPermitNanos = System.nanoTime();
+    }
+
+    /**
+     * Block until the caller may proceed.
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long permit = Math.max(now, nextPermitNanos);
+        nextPermitNanos = permit + intervalNanos;
+        return permit - now;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.foundry.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factories for the application's threads: thread-per-task executors backed by virtual
+ * threads, and named daemon platform threads for long-lived workers.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     *
+     * @param namePrefix Prefix of the thread names, followed by a counter
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 1).factory());
+    }
+
+    /**
+     * Thread factory producing named daemon platform threads.
+     */
+    public static ThreadFactory daemonThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
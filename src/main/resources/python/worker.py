@@ -0,0 +1,174 @@
+# Long-lived Python worker for the pythonCodeRunner tool.
+#
+# Requests and responses are UTF-8 JSON documents framed by a 4-byte big-endian
+# length prefix. The protocol uses private duplicates of stdin/stdout; file
+# descriptor 0 is replaced by /dev/null and descriptor 1 is pointed at stderr so
+# that tool code (or its subprocesses) can never corrupt the framing.
+#
+# Modules named on the command line are imported once at startup so that each
+# execution skips the import cost. Every execution gets fresh globals, its
+# output is captured into a head and tail of at most max_output_bytes as it is
+# written, and CPU time is limited with a profiling timer so runaway code is
+# interrupted in place.
+
+import builtins
+import contextlib
+import importlib
+import io
+import json
+import os
+import signal
+import struct
+import sys
+import traceback
+
+
+def open_channels():
+    proto_in = os.fdopen(os.dup(0), 'rb', buffering=0)
+    proto_out = os.fdopen(os.dup(1), 'wb', buffering=0)
+    devnull = os.open(os.devnull, os.O_RDONLY)
+    os.dup2(devnull, 0)
+    os.close(devnull)
+    os.dup2(2, 1)
+    return proto_in, proto_out
+
+
+def read_exact(stream, size):
+    data = bytearray()
+    while len(data) < size:
+        chunk = stream.read(size - len(data))
+        if not chunk:
+            return None
+        data.extend(chunk)
+    return bytes(data)
+
+
+def rss_kb():
+    try:
+        import resource
+    except ImportError:
+        return 0
+    rss = resource.getrusage(resource.RUSAGE_SELF).ru_maxrss
+    return rss // 1024 if sys.platform == 'darwin' else rss
+
+
+class CpuLimitExceeded(BaseException):
+    pass
+
+
+def on_cpu_limit(signum, frame):
+    raise CpuLimitExceeded()
+
+
+def set_cpu_limit(limit_ms):
+    if hasattr(signal, 'setitimer'):
+        signal.setitimer(signal.ITIMER_PROF, limit_ms / 1000.0)
+
+
+class HeadTailWriter(io.TextIOBase):
+    # Text sink keeping the first and the last bytes written, like HeadTailBuffer on
+    # the JVM side: memory stays bounded however much the code prints.
+
+    def __init__(self, max_bytes):
+        super().__init__()
+        self.max_bytes = max_bytes
+        self.head = bytearray()
+        self.tail = bytearray()
+        self.total = 0
+
+    def writable(self):
+        return True
+
+    def write(self, text):
+        data = text.encode('utf-8', 'replace')
+        self.total += len(data)
+        if self.max_bytes <= 0:
+            self.head += data
+            return len(text)
+        head_room = self.max_bytes // 2 - len(self.head)
+        if head_room > 0:
+            self.head += data[:head_room]
+            data = data[head_room:]
+        tail_size = self.max_bytes - self.max_bytes // 2
+        self.tail += data[-tail_size:]
+        if len(self.tail) > tail_size:
+            del self.tail[:len(self.tail) - tail_size]
+        return len(text)
+
+    def truncated(self):
+        return self.total > len(self.head) + len(self.tail)
+
+    def getvalue(self):
+        dropped = self.total - len(self.head) - len(self.tail)
+        marker = ('\n... [%d bytes truncated] ...\n' % dropped).encode('utf-8') if dropped > 0 else b''
+        return (bytes(self.head) + marker + bytes(self.tail)).decode('utf-8', 'replace')
+
+
+def execute(code, max_output_bytes, cpu_limit_ms):
+    buffer = HeadTailWriter(max_output_bytes)
+    scope = {'__name__': '__main__', '__builtins__': builtins}
+    ok = True
+    killed = False
+    with contextlib.redirect_stdout(buffer), contextlib.redirect_stderr(buffer):
+        try:
+            if cpu_limit_ms > 0:
+                set_cpu_limit(cpu_limit_ms)
+            exec(compile(code, '<tool>', 'exec'), scope)
+        except SystemExit:
+            pass
+        except CpuLimitExceeded:
+            ok = False
+            killed = True
+            print('Error: execution stopped after exceeding CPU limit of %d ms' % cpu_limit_ms)
+        except BaseException:
+            ok = False
+            traceback.print_exc()
+        finally:
+            set_cpu_limit(0)
+    pyplot = sys.modules.get('matplotlib.pyplot')
+    if pyplot is not None:
+        pyplot.close('all')
+    return {
+        'ok': ok,
+        'output': buffer.getvalue(),
+        'bytes': buffer.total,
+        'truncated': buffer.truncated(),
+        'killed': killed,
+    }
+
+
+def main():
+    proto_in, proto_out = open_channels()
+    if hasattr(signal, 'SIGPROF'):
+        signal.signal(signal.SIGPROF, on_cpu_limit)
+    for name in filter(None, sys.argv[1:]):
+        try:
+            importlib.import_module(name)
+        except Exception as e:
+            print('Unable to preload %s: %s' % (name, e), file=sys.stderr)
+
+    while True:
+        header = read_exact(proto_in, 4)
+        if header is None:
+            break
+        (length,) = struct.unpack('>I', header)
+        body = read_exact(proto_in, length)
+        if body is None:
+            break
+        request = json.loads(body.decode('utf-8'))
+        if request.get('op') == 'ping':
+            response = {'ok': True, 'rss_kb': rss_kb()}
+        else:
+            try:
+                response = execute(request.get('code', ''),
+                                   int(request.get('max_output_bytes', 0)),
+                                   int(request.get('cpu_limit_ms', 0)))
+            except CpuLimitExceeded:
+                # The timer fired while the execution was already being wrapped up
+                response = {'ok': False, 'output': '', 'bytes': 0, 'truncated': False, 'killed': True}
+            response['rss_kb'] = rss_kb()
+        payload = json.dumps(response).encode('utf-8')
+        proto_out.write(struct.pack('>I', len(payload)) + payload)
+
+
+main()
@@ -0,0 +1,71 @@
+package com.example.foundry.client;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.Context;
+import com.example.foundry.fake.FakeAgentsHttpClient;
+import com.example.foundry.fake.FakeAgentsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming file contents to disk and resuming partial downloads.
+ */
+class FileDownloadPolicyTest {
+
+    private static final int SIZE = 100_000;
+
+    @TempDir
+    Path directory;
+
+    private final FakeAgentsService fake = new FakeAgentsService(null, null);
+    private final HttpPipeline pipeline = new HttpPipelineBuilder()
+        .httpClient(new FakeAgentsHttpClient(fake))
+        .policies(new FileDownloadPolicy())
+        .build();
+
+    @Test
+    void writesBodyToFileAndHandsBackEmptyResponse() throws IOException {
+        String fileId = fake.addFile(SIZE);
+        Path target = directory.resolve("full.png");
+
+        HttpResponse response = download(fileId, target);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(0, response.getBodyAsByteArray().block().length);
+        assertEquals(SIZE, Files.size(target));
+        assertEquals(SIZE, fake.getFileBytesServed());
+    }
+
+    @Test
+    void resumesFromPartialFile() throws IOException {
+        String fileId = fake.addFile(SIZE);
+        Path complete = directory.resolve("complete.png");
+        download(fileId, complete);
+        byte[] expected = Files.readAllBytes(complete);
+        Path partial = directory.resolve("partial.png.part");
+        Files.write(partial, Arrays.copyOf(expected, 40_000));
+
+        HttpResponse response = download(fileId, partial);
+
+        assertEquals(206, response.getStatusCode());
+        assertArrayEquals(expected, Files.readAllBytes(partial));
+        assertEquals(SIZE + SIZE - 40_000, fake.getFileBytesServed());
+    }
+
+    private HttpResponse download(String fileId, Path target) {
+        HttpRequest request = new HttpRequest(HttpMethod.GET,
+            "https://fake.local/api/projects/test/files/" + fileId + "/content");
+        return pipeline.send(request, new Context(FileDownloadPolicy.TARGET, target)).block();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.foundry.fake;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the embedded fake agents server and its latency distributions.
+ */
+class FakeAgentsServerTest {
+
+    @Test
+    void parsesLatencySpecs() {
+        assertEquals(20, LatencyDistribution.parse("fixed:20").sampleMs());
+        assertEquals(0, LatencyDistribution.parse("").sampleMs());
+        assertEquals("lognormal:30,200", LatencyDistribution.parse("lognormal:30,200").toString());
+
+        LatencyDistribution uniform = LatencyDistribution.parse("uniform:10-12");
+        for (int i = 0; i < 100; i++) {
+            long sample = uniform.sampleMs();
+            assertTrue(sample >= 10 && sample <= 12, "Out of range: " + sample);
+        }
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:1"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("lognormal:50"));
+    }
+
+    @Test
+    void servesRequestsAndInjectsThrottling() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+
+        try (FakeAgentsServer server = new FakeAgentsServer(new FakeAgentsService(null, null),
+                FakeAgentsServer.Faults.NONE).start(0)) {
+            HttpResponse<String> response = client.send(post(server, "/api/projects/fake/threads"),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains("\"object\":\"thread\""), response.body());
+        }
+
+        FakeAgentsServer.Faults alwaysThrottle = new FakeAgentsServer.Faults(LatencyDistribution.fixed(1), 1.0, 0, 250);
+        try (FakeAgentsServer server = new FakeAgentsServer(new FakeAgentsService(null, null), alwaysThrottle).start(0)) {
+            HttpResponse<String> response = client.send(post(server, "/api/projects/fake/threads"),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(429, response.statusCode());
+            assertEquals("250", response.headers().firstValue("retry-after-ms").orElse(null));
+            assertEquals(new FakeAgentsServer.Stats(1, 1, 0), server.getStats());
+        }
+    }
+
+    private static HttpRequest post(FakeAgentsServer server, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .POST(HttpRequest.BodyPublishers.ofString("{}"))
+            .header("content-type", "application/json")
+            .build();
+    }
+}
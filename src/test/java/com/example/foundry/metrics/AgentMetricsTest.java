@@ -0,0 +1,73 @@
+package com.example.foundry.metrics;
+
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.example.foundry.config.AgentConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for latency histograms, run-phase metrics and snapshots.
+ */
+class AgentMetricsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void histogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 * 0.035);
+        assertEquals(9900, histogram.getValueAtPercentile(99), 9900 * 0.035);
+        assertEquals(63, LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(63)));
+        assertEquals(131, LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(128)));
+    }
+
+    @Test
+    void recordsRunPhasesAndWritesSnapshot() throws Exception {
+        AgentMetrics metrics = new AgentMetrics(new AgentConfiguration());
+        metrics.runCreated("thread_1");
+        metrics.runStatus("thread_1", RunStatus.QUEUED);
+        metrics.runPolled("thread_1");
+        metrics.runStatus("thread_1", RunStatus.IN_PROGRESS);
+        metrics.runPolled("thread_1");
+        metrics.runToolTime("thread_1", TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.runFinished("thread_1", RunStatus.COMPLETED);
+        metrics.record("http GET /threads/{id}/runs/{id}", "200", TimeUnit.MILLISECONDS.toNanos(12));
+
+        Path file = directory.resolve("metrics.json");
+        metrics.writeSnapshot(file);
+        JsonNode snapshot = new ObjectMapper().readTree(file.toFile());
+
+        assertEquals(1, snapshot.at("/latencies/run queue_to_first_progress ok/count").asLong());
+        assertEquals(40, snapshot.at("/latencies/run tool_time completed/max").asDouble(), 1);
+        assertEquals(12, snapshot.at("/latencies/http GET ~1threads~1{id}~1runs~1{id} 200/p99").asDouble(), 1);
+        assertEquals(2, snapshot.at("/distributions/run polls/max").asLong());
+    }
+
+    @Test
+    void normalizesResourceIdsInPaths() {
+        assertEquals("/api/projects/{id}/threads/{id}/runs/{id}",
+            MetricsHttpPolicy.normalize("/api/projects/my-project/threads/thread_abc123/runs/run_XYZ9"));
+        assertEquals("/assistants", MetricsHttpPolicy.normalize("/assistants"));
+        assertEquals("/files/{id}/content", MetricsHttpPolicy.normalize("/files/assistant-AbC123/content"));
+        assertEquals("/files/{id}", MetricsHttpPolicy.normalize("/files/file1"));
+        assertEquals("/vector_stores/{id}/file_batches", MetricsHttpPolicy.normalize("/vector_stores/vs_1/file_batches"));
+        assertEquals("/threads/runs", MetricsHttpPolicy.normalize("/threads/runs"));
+        assertEquals("/threads/{id}/runs/{id}/submit_tool_outputs",
+            MetricsHttpPolicy.normalize("/threads/thread_1/runs/run_2/submit_tool_outputs"));
+    }
+}
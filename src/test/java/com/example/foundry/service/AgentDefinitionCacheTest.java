@@ -0,0 +1,81 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.azure.core.util.BinaryData;
+import com.example.foundry.config.AgentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for agent definition reuse across runs.
+ */
+class AgentDefinitionCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private AgentConfiguration config;
+    private final AtomicInteger created = new AtomicInteger();
+    private final Supplier<PersistentAgent> creator = () -> agent("asst_" + created.incrementAndGet());
+    private final List<String> retired = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new AgentConfiguration();
+        config.setAgentCacheFile(directory.resolve("agents.json").toString());
+    }
+
+    @Test
+    void reusesPersistedAgentForSameFingerprint() {
+        String fingerprint = new AgentDefinitionCache(config).fingerprint("gpt-4o", "my-agent", "Be brief", List.of());
+        PersistentAgent first = new AgentDefinitionCache(config).getOrCreate(fingerprint, id -> null, creator, retired::add);
+
+        // A new process validates the stored agent instead of creating one
+        AgentDefinitionCache restarted = new AgentDefinitionCache(config);
+        PersistentAgent second = restarted.getOrCreate(fingerprint, this::agent, creator, retired::add);
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, created.get());
+        assertTrue(restarted.isCached(first.getId()));
+        assertTrue(retired.isEmpty());
+    }
+
+    @Test
+    void createsNewVersionWhenDefinitionChangesOrAgentIsGone() {
+        AgentDefinitionCache cache = new AgentDefinitionCache(config);
+        String original = cache.fingerprint("gpt-4o", "my-agent", "Be brief", List.of());
+        String changed = cache.fingerprint("gpt-4o", "my-agent", "Be verbose", List.of());
+        assertNotEquals(original, changed);
+
+        PersistentAgent first = cache.getOrCreate(original, this::agent, creator, retired::add);
+        PersistentAgent second = cache.getOrCreate(changed, this::agent, creator, retired::add);
+        assertNotEquals(first.getId(), second.getId());
+        // Workers still on the original definition keep their agent
+        assertTrue(cache.isCached(first.getId()));
+        assertTrue(retired.isEmpty());
+
+        AgentDefinitionCache restarted = new AgentDefinitionCache(config);
+        PersistentAgent third = restarted.getOrCreate(changed, id -> null, creator, retired::add);
+        assertEquals(3, created.get());
+        assertNotEquals(second.getId(), third.getId());
+        assertEquals(List.of(second.getId()), retired);
+        assertTrue(restarted.isCached(first.getId()));
+        assertFalse(restarted.isCached(second.getId()));
+    }
+
+    private PersistentAgent agent(String id) {
+        return BinaryData.fromString("{\"id\":\"" + id + "\",\"object\":\"assistant\",\"created_at\":0,"
+            + "\"name\":\"my-agent\",\"description\":null,\"model\":\"gpt-4o\",\"instructions\":\"\","
+            + "\"tools\":[],\"tool_resources\":{},\"temperature\":null,\"top_p\":null,\"metadata\":{}}")
+            .toObject(PersistentAgent.class);
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.PersistentAgentsClient;
+import com.azure.ai.agents.persistent.PersistentAgentsClientBuilder;
+import com.azure.ai.agents.persistent.models.CreateAgentOptions;
+import com.azure.ai.agents.persistent.models.CreateRunOptions;
+import com.azure.ai.agents.persistent.models.MessageRole;
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.azure.ai.agents.persistent.models.PersistentAgentThread;
+import com.azure.ai.agents.persistent.models.RunStatus;
+import com.azure.ai.agents.persistent.models.ThreadMessage;
+import com.azure.core.credential.AccessToken;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.fake.FakeAgentsHttpClient;
+import com.example.foundry.fake.FakeAgentsServer;
+import com.example.foundry.fake.FakeAgentsService;
+import com.example.foundry.fake.LatencyDistribution;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.metrics.RunTimelineProfiler;
+import com.example.foundry.service.BatchConversationEngine.BatchPrompt;
+import com.example.foundry.tool.AgentTool;
+import com.example.foundry.tool.FunctionToolRegistry;
+import com.example.foundry.tool.ToolParam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for run orchestration in {@link AgentService} against the in-process fake service.
+ */
+class AgentServiceTest {
+
+    static class EchoTool {
+        @AgentTool(name = "echo", description = "Echo the input")
+        public String echo(@ToolParam(name = "text") String text) {
+            return text.toUpperCase();
+        }
+
+        @AgentTool(name = "sleep", description = "Sleep for a while")
+        public String sleep(@ToolParam(name = "ms") String ms) throws InterruptedException {
+            Thread.sleep(Long.parseLong(ms));
+            return "awake";
+        }
+    }
+
+    @Test
+    void completesToolRunWhenPolling() {
+        AgentConfiguration config = config();
+        config.setRunStreamingEnabled(false);
+
+        assertEquals("Tool said: HELLO", converse(config));
+    }
+
+    @Test
+    void completesToolRunWhenStreaming() {
+        assertEquals("Tool said: HELLO", converse(config()));
+    }
+
+    @Test
+    void runsParallelToolCallsConcurrentlyWithTimeoutsInRequestOrder() {
+        AgentConfiguration config = config();
+        config.setToolExecutionConcurrency(4);
+        config.setToolCallTimeoutMs(1000);
+        FakeAgentsService fake = new FakeAgentsService("sleep", "{\"ms\":\"600\"}")
+            .withToolCall("sleep", "{\"ms\":\"10000\"}")
+            .withToolCall("echo", "{\"text\":\"b\"}")
+            .withToolCall("sleep", "{\"ms\":\"600\"}");
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+
+        long start = System.nanoTime();
+        String reply = service.converse(agent, "Take a nap");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // The stuck call times out on its own while the others finish, fastest first but listed as requested
+        assertEquals("Tool said: awake{\"error\":\"timeout\",\"message\":\"Tool call did not finish within 1000 ms\"}"
+            + "Bawake", reply);
+        // One after the other the calls would take 600 + 1000 + 600 ms
+        assertTrue(elapsedMs < 2200, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void resumesRunsWhoseStreamBrokeBeforeReportingThem() {
+        for (boolean reactive : new boolean[]{false, true}) {
+            AgentConfiguration config = config();
+            config.setReactiveModeEnabled(reactive);
+            FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}").withDroppedRunStreams(1);
+            AgentService service = newService(config);
+            service.initializeClient(fakeClientBuilder(fake));
+            PersistentAgent agent = service.createAgent();
+
+            String reply = reactive ? service.reactiveConverse(agent, "Say hello").block()
+                : service.converse(agent, "Say hello");
+            assertEquals("Tool said: HELLO", reply, "reactive=" + reactive);
+            // The run created before the stream dropped is resumed, not created again
+            assertEquals(1, fake.getRunsCreated());
+        }
+    }
+
+    @Test
+    void completesConcurrentRunsInReactiveMode() {
+        for (boolean streaming : new boolean[]{false, true}) {
+            AgentConfiguration config = config();
+            config.setReactiveModeEnabled(true);
+            config.setRunStreamingEnabled(streaming);
+            AgentService service = newService(config);
+            service.initializeClient(fakeClientBuilder(new FakeAgentsService("echo", "{\"text\":\"hello\"}")));
+            PersistentAgent agent = service.createAgent();
+
+            List<String> replies = new CopyOnWriteArrayList<>();
+            BatchConversationEngine.BatchSummary summary = BatchConversationEngine
+                .reactive(prompt -> service.reactiveConverse(agent, prompt.prompt()), 100)
+                .run(IntStream.range(0, 200).mapToObj(i -> new BatchPrompt(String.valueOf(i), "Say hello")),
+                    result -> replies.add(result.reply()));
+
+            assertEquals(0, summary.failed(), "streaming=" + streaming);
+            assertEquals(200, replies.size());
+            assertTrue(replies.stream().allMatch("Tool said: HELLO"::equals));
+        }
+    }
+
+    @Test
+    void servesRepeatedPromptsFromTheResponseCacheUnlessBypassed(@TempDir Path directory) {
+        AgentConfiguration config = config();
+        config.setResponseCacheEnabled(true);
+        config.setResponseCacheDiskDirectory(directory.toString());
+        FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}");
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+
+        assertEquals("Tool said: HELLO", service.converse(agent, "Say hello"));
+        long listed = fake.getMessagesListed();
+        assertEquals("Tool said: HELLO", service.converse(agent, "  Say   hello "));
+        assertEquals(listed, fake.getMessagesListed());
+
+        assertEquals("Tool said: HELLO", service.converse(agent, "Say hello", false));
+        assertTrue(fake.getMessagesListed() > listed);
+    }
+
+    @Test
+    void profilesRunTimelinesWithServiceStepsAndUsage() {
+        AgentConfiguration config = config();
+        config.setRunStreamingEnabled(false);
+        config.setRunProfilerEnabled(true);
+        AgentMetrics metrics = new AgentMetrics(config);
+        RunTimelineProfiler profiler = new RunTimelineProfiler(config, metrics);
+        AgentService service = newService(config, metrics, profiler);
+        service.initializeClient(fakeClientBuilder(new FakeAgentsService("echo", "{\"text\":\"hello\"}")));
+        PersistentAgent agent = service.createAgent();
+
+        assertEquals("Tool said: HELLO", service.converse(agent, "Say hello"));
+
+        RunTimelineProfiler.RunTimeline timeline = profiler.getTimelines().get(0);
+        assertEquals("completed", timeline.status());
+        assertTrue(timeline.breakdown().toolNanos() > 0);
+        assertTrue(timeline.breakdown().pollDelayNanos() > 0);
+        assertEquals(4, timeline.completionTokens());
+        assertEquals(List.of("step tool_calls", "step message_creation"), timeline.spans().stream()
+            .filter(span -> span.lane().equals("service")).map(RunTimelineProfiler.Span::name).toList());
+        assertTrue(profiler.toChromeTrace().path("traceEvents").size() > timeline.spans().size());
+    }
+
+    @Test
+    void cancelsRunsPastTheRequestDeadlineAndReusesTheirThread() {
+        AgentConfiguration config = config();
+        config.setRunStreamingEnabled(false);
+        // Long enough for the tool call to start, which the deadline then cuts off
+        config.setRequestDeadlineMs(1000);
+        AgentMetrics metrics = new AgentMetrics(config);
+        AgentService service = newService(config, metrics, new RunTimelineProfiler(config, metrics));
+        service.initializeClient(fakeClientBuilder(new FakeAgentsService("sleep", "{\"ms\":\"10000\"}")));
+        PersistentAgent agent = service.createAgent();
+        PersistentAgentThread thread = service.createThread();
+
+        long start = System.nanoTime();
+        RunDeadlineExceededException error = assertThrows(RunDeadlineExceededException.class,
+            () -> service.converse(agent, thread, "Take a nap"));
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        assertNotNull(error.getRunId());
+        assertEquals(1, metrics.snapshot().path("gauges").path("cancellation runs_cancelled").asLong());
+        assertEquals(1, metrics.snapshot().path("gauges").path("cancellation tool_calls_aborted").asLong());
+        assertTrue(metrics.snapshot().path("gauges").path("cancellation run_time_saved_ms").asLong() > 0);
+
+        // The cancelled run no longer holds the thread
+        config.setRequestDeadlineMs(0);
+        config.setToolCallTimeoutMs(50);
+        assertTrue(service.converse(agent, thread, "Take a nap").contains("timeout"));
+    }
+
+    @Test
+    void fetchesOnlyNewMessagesOnFollowUpTurns() {
+        AgentConfiguration config = config();
+        config.setMessagePageSize(2);
+        config.setMessageCacheMaxMessagesPerThread(4);
+        FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}");
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+        PersistentAgentThread thread = service.createThread();
+
+        for (int turn = 0; turn < 3; turn++) {
+            long listedBefore = fake.getMessagesListed();
+            assertEquals("Tool said: HELLO", service.converse(agent, thread, "Say hello"));
+            // The user message and the reply, whatever the thread's length
+            assertEquals(2, fake.getMessagesListed() - listedBefore);
+        }
+
+        // Only four messages stay cached; the first turn is paged back in on demand
+        long listedBefore = fake.getMessagesListed();
+        List<ThreadMessage> cached = service.threadHistory(thread.getId()).limit(4).toList();
+        assertEquals(listedBefore, fake.getMessagesListed());
+        assertEquals(5, service.threadHistory(thread.getId()).limit(5).count());
+        assertEquals(listedBefore + 2, fake.getMessagesListed());
+
+        listedBefore = fake.getMessagesListed();
+        List<ThreadMessage> history = service.threadHistory(thread.getId()).toList();
+        assertEquals(listedBefore + 2, fake.getMessagesListed());
+        assertEquals(cached, history.subList(0, 4));
+        assertEquals(6, history.stream().map(ThreadMessage::getId).distinct().count());
+        for (int i = 0; i < history.size(); i++) {
+            // Newest first, so each reply precedes the prompt it answers
+            assertEquals(i % 2 == 0 ? MessageRole.AGENT : MessageRole.USER, history.get(i).getRole());
+        }
+    }
+
+    @Test
+    void downloadsGeneratedImagesIntoDirectoryWithManifest(@TempDir Path directory) throws IOException {
+        AgentConfiguration config = config();
+        config.setImageDownloadDir(directory.toString());
+        FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}").withReplyImages(256 * 1024);
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("Tool said: HELLO", service.converse(agent, "Draw a chart"));
+        }
+        service.finishImageDownloads();
+
+        List<String> manifest = Files.readAllLines(directory.resolve("manifest.jsonl"));
+        assertEquals(4, manifest.size());
+        for (String line : manifest) {
+            Path image = Path.of(new ObjectMapper().readTree(line).path("path").asText());
+            assertEquals(256 * 1024, Files.size(image));
+        }
+        assertEquals(4L * 256 * 1024, fake.getFileBytesServed());
+    }
+
+    @Test
+    void resumesConversationsLeftInFlightByPreviousProcess(@TempDir Path directory) {
+        AgentConfiguration config = config();
+        config.setJournalFile(directory.resolve("journal").toString());
+        FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}");
+        PersistentAgentsClient client = fakeClientBuilder(fake).buildClient();
+
+        // The previous process created a run on one thread and only sent the prompt on another
+        String agentId = client.getPersistentAgentsAdministrationClient()
+            .createAgent(new CreateAgentOptions("fake-model")).getId();
+        String runningThread = client.getThreadsClient().createThread().getId();
+        client.getMessagesClient().createMessage(runningThread, MessageRole.USER, "Say hello");
+        String runId = client.getRunsClient().createRun(new CreateRunOptions(runningThread, agentId)).getId();
+        String promptedThread = client.getThreadsClient().createThread().getId();
+        client.getMessagesClient().createMessage(promptedThread, MessageRole.USER, "Say hello");
+        ConversationJournal previous = new ConversationJournal(config);
+        previous.open();
+        previous.agentCreated(agentId);
+        previous.threadCreated(runningThread);
+        previous.messageSent(runningThread, agentId, "Say hello");
+        previous.runCreated(runningThread, runId);
+        previous.threadCreated(promptedThread);
+        previous.messageSent(promptedThread, agentId, "Say hello");
+        previous.close();
+
+        ConversationJournal journal = new ConversationJournal(config);
+        ConversationJournal.Recovery recovery = journal.open();
+        journal.close();
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(fake));
+        Map<String, String> replies = service.resumeJournaledConversations(recovery);
+
+        assertEquals(Map.of(runningThread, "Tool said: HELLO", promptedThread, "Tool said: HELLO"), replies);
+        assertEquals(RunStatus.COMPLETED, client.getRunsClient().getRun(runningThread, runId).getStatus());
+    }
+
+    @Test
+    void sweepsConcurrencyAgainstThrottledFakeServer(@TempDir Path directory) {
+        FakeAgentsServer.Faults faults = new FakeAgentsServer.Faults(LatencyDistribution.uniform(1, 3), 0.1, 0, 5);
+        try (FakeAgentsServer server = new FakeAgentsServer(
+                new FakeAgentsService("echo", "{\"text\":\"hello\"}"), faults).start(0)) {
+            // The sweep repeats one prompt, which must reach the service every time
+            AgentConfiguration config = config();
+            config.setResponseCacheEnabled(true);
+            config.setResponseCacheDiskDirectory(directory.toString());
+            AgentService service = newService(config);
+            service.initializeClient(server.clientBuilder());
+            PersistentAgent agent = service.createAgent();
+
+            List<LoadTestDriver.LevelResult> results = new LoadTestDriver(
+                    prompt -> service.converse(agent, prompt.prompt(), prompt.cacheable()), 8)
+                .sweep(new int[]{1, 4}, "Say hello");
+
+            assertEquals(2, results.size());
+            assertEquals(4, results.get(1).concurrency());
+            for (LoadTestDriver.LevelResult result : results) {
+                assertEquals(8, result.summary().total());
+                assertEquals(0, result.summary().failed());
+            }
+            assertTrue(server.getStats().requests() > 16 * 4);
+        }
+    }
+
+    private static String converse(AgentConfiguration config) {
+        AgentService service = newService(config);
+        service.initializeClient(fakeClientBuilder(new FakeAgentsService("echo", "{\"text\":\"hello\"}")));
+        PersistentAgent agent = service.createAgent();
+        return service.converse(agent, "Say hello");
+    }
+
+    static AgentConfiguration config() {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setPollInitialIntervalMs(1);
+        config.setPollMaxIntervalMs(5);
+        config.setAgentCacheEnabled(false);
+        config.setPythonWorkerPoolEnabled(false);
+        return config;
+    }
+
+    static AgentService newService(AgentConfiguration config) {
+        AgentMetrics metrics = new AgentMetrics(config);
+        return newService(config, metrics, new RunTimelineProfiler(config, metrics));
+    }
+
+    static AgentService newService(AgentConfiguration config, AgentMetrics metrics, RunTimelineProfiler runProfiler) {
+        FunctionToolRegistry registry = new FunctionToolRegistry(null);
+        try {
+            for (Method method : List.of(EchoTool.class.getMethod("echo", String.class),
+                    EchoTool.class.getMethod("sleep", String.class))) {
+                registry.register(new EchoTool(), method, method.getAnnotation(AgentTool.class));
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        return AgentService.standalone(config, registry, metrics, runProfiler);
+    }
+
+    static PersistentAgentsClientBuilder fakeClientBuilder(FakeAgentsService fake) {
+        return new PersistentAgentsClientBuilder()
+            .endpoint("https://fake.local/api/projects/test")
+            .credential(request -> Mono.just(new AccessToken("fake-token", OffsetDateTime.now().plusHours(1))))
+            .httpClient(new FakeAgentsHttpClient(fake));
+    }
+}
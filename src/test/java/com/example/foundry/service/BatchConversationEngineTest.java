@@ -0,0 +1,127 @@
+package com.example.foundry.service;
+
+import com.example.foundry.service.BatchConversationEngine.BatchPrompt;
+import com.example.foundry.service.BatchConversationEngine.BatchResult;
+import com.example.foundry.service.BatchConversationEngine.BatchSummary;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batch conversation engine.
+ */
+class BatchConversationEngineTest {
+
+    @Test
+    void readsObjectAndStringPrompts() {
+        String input = "{\"id\":\"a\",\"prompt\":\"first\"}\n\n\"second\"\n{\"prompt\":\"third\",\"cache\":false}\n";
+        List<BatchPrompt> prompts = BatchConversationEngine
+            .readPrompts(new BufferedReader(new StringReader(input)))
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(new BatchPrompt("a", "first"), new BatchPrompt("3", "second"),
+            new BatchPrompt("4", "third", false)), prompts);
+    }
+
+    @Test
+    void reportsMalformedLinesAsFailedAndKeepsGoing() {
+        String input = "\"first\"\n{not json\n{\"id\":\"x\"}\n\"fourth\"\n";
+        BatchConversationEngine blocking = new BatchConversationEngine(prompt -> "reply to " + prompt.prompt(), 2);
+        BatchConversationEngine reactive = BatchConversationEngine.reactive(
+            prompt -> Mono.just("reply to " + prompt.prompt()), 2);
+
+        for (BatchConversationEngine engine : List.of(blocking, reactive)) {
+            List<BatchResult> results = new CopyOnWriteArrayList<>();
+            BatchSummary summary = engine.run(
+                BatchConversationEngine.readPrompts(new BufferedReader(new StringReader(input))), results::add);
+
+            assertEquals(4, summary.total());
+            assertEquals(2, summary.failed());
+            Map<String, BatchResult> byId = results.stream()
+                .collect(Collectors.toMap(BatchResult::id, Function.identity()));
+            assertEquals("reply to fourth", byId.get("4").reply());
+            assertTrue(byId.get("2").error().startsWith("Line 2 is not valid JSON"));
+            assertEquals("{not json", byId.get("2").prompt());
+            assertEquals("Line 3 has no 'prompt' field", byId.get("x").error());
+        }
+    }
+
+    @Test
+    void waitsForInFlightConversationsWhenReadingFails() {
+        BatchConversationEngine engine = new BatchConversationEngine(prompt -> {
+            Thread.sleep(200);
+            return "reply";
+        }, 2);
+        Stream<BatchPrompt> prompts = Stream.of("1", "2").map(id -> {
+            if (id.equals("2")) {
+                throw new UncheckedIOException(new IOException("stream closed"));
+            }
+            return new BatchPrompt(id, "p" + id);
+        });
+
+        List<BatchResult> results = new CopyOnWriteArrayList<>();
+        assertThrows(UncheckedIOException.class, () -> engine.run(prompts, results::add));
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void respectsConcurrencyLimitAndReportsFailures() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        BatchConversationEngine engine = new BatchConversationEngine(prompt -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (prompt.prompt().equals("p7")) {
+                    throw new IllegalStateException("boom");
+                }
+                return "reply to " + prompt.prompt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }, 4);
+
+        List<BatchResult> results = new CopyOnWriteArrayList<>();
+        BatchSummary summary = engine.run(
+            IntStream.range(0, 20).mapToObj(i -> new BatchPrompt(String.valueOf(i), "p" + i)), results::add);
+
+        assertEquals(20, summary.total());
+        assertEquals(1, summary.failed());
+        assertEquals(20, results.size());
+        assertTrue(maxInFlight.get() <= 4, "Too many conversations in flight: " + maxInFlight.get());
+        assertTrue(summary.p50Ms() <= summary.p95Ms() && summary.p95Ms() <= summary.p99Ms());
+    }
+
+    @Test
+    void writesJsonLines() {
+        StringWriter writer = new StringWriter();
+        BatchConversationEngine.jsonLinesSink(writer).accept(new BatchResult("1", "hi", "hello", null, 12));
+
+        assertEquals("{\"id\":\"1\",\"prompt\":\"hi\",\"reply\":\"hello\",\"error\":null,\"latencyMs\":12}\n",
+            writer.toString());
+    }
+
+    @Test
+    void percentileUsesNearestRank() {
+        long[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        assertEquals(5, BatchConversationEngine.percentile(sorted, 0.50));
+        assertEquals(10, BatchConversationEngine.percentile(sorted, 0.95));
+        assertEquals(0, BatchConversationEngine.percentile(new long[0], 0.99));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.foundry.service;
+
+import com.azure.ai.agents.persistent.models.PersistentAgent;
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.fake.FakeAgentsService;
+import com.example.foundry.metrics.AgentMetrics;
+import com.example.foundry.metrics.RunTimelineProfiler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the chat API: conversations on reused threads, JSON and streamed replies.
+ */
+class ChatServerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void answersMessagesOnAConversationAsJsonAndAsEvents() throws Exception {
+        AgentConfiguration config = AgentServiceTest.config();
+        config.setServerPort(0);
+        config.setServerWarmThreads(1);
+        FakeAgentsService fake = new FakeAgentsService("echo", "{\"text\":\"hello\"}");
+        AgentService service = AgentServiceTest.newService(config);
+        service.initializeClient(AgentServiceTest.fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+
+        try (ChatServer server = new ChatServer(config, service, agent).start()) {
+            String base = "http://localhost:" + server.getPort();
+            HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(base + "/conversations"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+            assertEquals(201, created.statusCode());
+            String conversation = MAPPER.readTree(created.body()).path("conversationId").asText();
+            String messages = base + "/conversations/" + conversation + "/messages";
+
+            HttpResponse<String> reply = send(HttpRequest.newBuilder(URI.create(messages))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"Say hello\"}")));
+            assertEquals(200, reply.statusCode());
+            assertEquals("Tool said: HELLO", MAPPER.readTree(reply.body()).path("reply").asText());
+
+            // The second turn runs on the same thread and streams the reply word by word
+            long listedBefore = fake.getMessagesListed();
+            HttpResponse<String> streamed = send(HttpRequest.newBuilder(URI.create(messages))
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"Say hello\"}")));
+            assertEquals(200, streamed.statusCode());
+            assertTrue(streamed.body().contains("event: delta\ndata: {\"text\":\"Tool \"}"), streamed.body());
+            assertTrue(streamed.body().contains("event: reply\ndata: {\"reply\":\"Tool said: HELLO\"}"),
+                streamed.body());
+            assertEquals(2, fake.getMessagesListed() - listedBefore);
+
+            HttpResponse<String> invalid = send(HttpRequest.newBuilder(URI.create(messages))
+                .POST(HttpRequest.BodyPublishers.ofString("{}")));
+            assertEquals(400, invalid.statusCode());
+
+            HttpRequest.Builder delete = HttpRequest.newBuilder(URI.create(base + "/conversations/" + conversation))
+                .DELETE();
+            assertEquals(204, send(delete).statusCode());
+            assertEquals(404, send(delete).statusCode());
+        }
+    }
+
+    @Test
+    void cancelsTheRunWhenTheClientDisconnectsMidStream() throws Exception {
+        AgentConfiguration config = AgentServiceTest.config();
+        config.setServerPort(0);
+        config.setServerWarmThreads(0);
+        config.setToolCallTimeoutMs(2000);
+        FakeAgentsService fake = new FakeAgentsService("sleep", "{\"ms\":\"10000\"}");
+        AgentMetrics metrics = new AgentMetrics(config);
+        AgentService service = AgentServiceTest.newService(config, metrics, new RunTimelineProfiler(config, metrics));
+        service.initializeClient(AgentServiceTest.fakeClientBuilder(fake));
+        PersistentAgent agent = service.createAgent();
+
+        try (ChatServer server = new ChatServer(config, service, agent).start()) {
+            HttpResponse<String> created = send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/conversations"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+            String conversation = MAPPER.readTree(created.body()).path("conversationId").asText();
+
+            String body = "{\"message\":\"Take a nap\"}";
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                OutputStream out = socket.getOutputStream();
+                out.write(("POST /conversations/" + conversation + "/messages HTTP/1.1\r\n"
+                    + "Host: localhost\r\nAccept: text/event-stream\r\nContent-Type: application/json\r\n"
+                    + "Content-Length: " + body.length() + "\r\n\r\n" + body).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                // Leave while the run waits for its tool call
+                long waitUntil = System.nanoTime() + 5_000_000_000L;
+                while (fake.getRunsCreated() == 0 && System.nanoTime() < waitUntil) {
+                    Thread.sleep(10);
+                }
+                assertEquals(1, fake.getRunsCreated());
+            }
+
+            long waitUntil = System.nanoTime() + 5_000_000_000L;
+            while (metrics.snapshot().path("gauges").path("cancellation runs_cancelled").asLong() == 0
+                    && System.nanoTime() < waitUntil) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, metrics.snapshot().path("gauges").path("cancellation runs_cancelled").asLong());
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.foundry.service;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for journal replay, torn-tail handling and compaction.
+ */
+class ConversationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysLiveAgentsAndThreads() {
+        ConversationJournal journal = journal();
+        assertTrue(journal.open().isEmpty());
+        journal.agentCreated("asst_1");
+        journal.threadCreated("thread_done");
+        journal.messageSent("thread_done", "asst_1", "First");
+        journal.runCreated("thread_done", "run_1");
+        journal.runCompleted("thread_done", "run_1");
+        journal.threadCreated("thread_running");
+        journal.messageSent("thread_running", "asst_1", "Second");
+        journal.runCreated("thread_running", "run_2");
+        journal.toolOutputsSubmitted("thread_running", "run_2");
+        journal.threadCreated("thread_deleted");
+        journal.threadDeleted("thread_deleted");
+        journal.close();
+
+        ConversationJournal.Recovery recovery = journal().open();
+
+        assertEquals(List.of("asst_1"), recovery.agentIds());
+        assertEquals(List.of(
+                new ConversationJournal.JournaledThread("thread_done", "asst_1", "First", "run_1", true),
+                new ConversationJournal.JournaledThread("thread_running", "asst_1", "Second", "run_2", false)),
+            recovery.threads());
+    }
+
+    @Test
+    void ignoresTornTailAndKeepsAppending() throws IOException {
+        ConversationJournal journal = journal();
+        journal.open();
+        journal.threadCreated("thread_1");
+        journal.close();
+        Path file = directory.resolve("journal");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // A record cut short by a crash: its length promises more bytes than were written
+            channel.write(ByteBuffer.allocate(12).putInt(64).putInt(0).putInt(42).flip());
+        }
+
+        ConversationJournal reopened = journal();
+        assertEquals(1, reopened.open().threads().size());
+        reopened.threadCreated("thread_2");
+        reopened.close();
+
+        assertEquals(List.of("thread_1", "thread_2"), journal().open().threads().stream()
+            .map(ConversationJournal.JournaledThread::threadId)
+            .toList());
+    }
+
+    @Test
+    void compactsDeletedThreadsAway() throws IOException {
+        ConversationJournal journal = journal();
+        journal.open();
+        String prompt = "x".repeat(200);
+        for (int i = 0; i < 20_000; i++) {
+            journal.threadCreated("thread_" + i);
+            journal.messageSent("thread_" + i, "asst_1", prompt);
+            if (i != 7) {
+                journal.threadDeleted("thread_" + i);
+            }
+        }
+        journal.close();
+
+        assertTrue(Files.size(directory.resolve("journal")) < 1024, "compacted to the one live thread");
+        ConversationJournal.Recovery recovery = journal().open();
+        assertEquals(1, recovery.threads().size());
+        assertEquals("thread_7", recovery.threads().get(0).threadId());
+        assertEquals(prompt, recovery.threads().get(0).prompt());
+    }
+
+    private ConversationJournal journal() {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setJournalFile(directory.resolve("journal").toString());
+        return new ConversationJournal(config);
+    }
+}
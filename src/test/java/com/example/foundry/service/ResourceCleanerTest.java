@@ -0,0 +1,121 @@
+package com.example.foundry.service;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpResponse;
+import com.example.foundry.config.AgentConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for concurrent, rate-limited resource deletion.
+ */
+class ResourceCleanerTest {
+
+    private AgentConfiguration config;
+    private ResourceCleaner cleaner;
+
+    @BeforeEach
+    void setUp() {
+        config = new AgentConfiguration();
+        config.setCleanupConcurrency(4);
+        config.setCleanupRatePerSecond(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleaner.close();
+    }
+
+    @Test
+    void retriesThrottledDeletionsAndTreatsMissingAsDeleted() {
+        cleaner = new ResourceCleaner(config);
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        ResourceCleaner.CleanupSummary summary = cleaner.delete("thread", List.of("throttled", "missing", "broken", "ok"), id -> {
+            int attempt = calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            switch (id) {
+                case "throttled" -> {
+                    if (attempt == 1) {
+                        throw error(429);
+                    }
+                }
+                case "missing" -> throw error(404);
+                case "broken" -> throw error(500);
+                default -> { }
+            }
+        }).join();
+
+        assertEquals(3, summary.deleted());
+        assertEquals(1, summary.failed());
+        assertEquals(2, calls.get("throttled").get());
+        assertEquals(1, calls.get("broken").get());
+    }
+
+    @Test
+    void limitsDeletionRate() {
+        config.setCleanupRatePerSecond(20);
+        cleaner = new ResourceCleaner(config);
+
+        ResourceCleaner.CleanupSummary summary = cleaner.delete("agent",
+            List.of("a", "b", "c", "d", "e", "f"), id -> { }).join();
+
+        assertEquals(6, summary.deleted());
+        // Six permits at 20 per second are spaced 50 ms apart
+        assertTrue(summary.elapsedMs() >= 200, "elapsed " + summary.elapsedMs());
+    }
+
+    private static HttpResponseException error(int status) {
+        HttpResponse response = new HttpResponse(null) {
+            @Override
+            public int getStatusCode() {
+                return status;
+            }
+
+            @Override
+            @Deprecated
+            public String getHeaderValue(String name) {
+                return name.equalsIgnoreCase("Retry-After-Ms") ? "10" : null;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders().set(HttpHeaderName.RETRY_AFTER_MS, "10");
+            }
+
+            @Override
+            public Flux<ByteBuffer> getBody() {
+                return Flux.empty();
+            }
+
+            @Override
+            public Mono<byte[]> getBodyAsByteArray() {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<String> getBodyAsString() {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<String> getBodyAsString(Charset charset) {
+                return Mono.empty();
+            }
+        };
+        return new HttpResponseException("status " + status, response);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.foundry.service;
+
+import com.example.foundry.config.AgentConfiguration;
+import com.example.foundry.metrics.AgentMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the exact-match response cache: keys, tiers and expiry.
+ */
+class ResponseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keysOnNormalizedPromptAndAgentDefinition() throws Exception {
+        try (ResponseCache cache = newCache(config())) {
+            String key = cache.key("gpt-4o", "Be brief", List.of(), "Draw  a\n graph ");
+
+            assertEquals(key, cache.key("gpt-4o", "Be brief", List.of(), "Draw a graph"));
+            assertNotEquals(key, cache.key("gpt-4o", "Be brief", List.of(), "draw a graph"));
+            assertNotEquals(key, cache.key("gpt-4o-mini", "Be brief", List.of(), "Draw a graph"));
+            assertNotEquals(key, cache.key("gpt-4o", "Be thorough", List.of(), "Draw a graph"));
+        }
+    }
+
+    @Test
+    void keepsBulkyRepliesOnlyOnDiskAcrossRestarts() throws Exception {
+        AgentConfiguration config = config();
+        config.setResponseCacheInlineMaxBytes(64);
+        String key;
+        ResponseCache.Response bulky = new ResponseCache.Response("x".repeat(1000), List.of("assistant-file-1"));
+        try (ResponseCache cache = newCache(config)) {
+            key = cache.key("gpt-4o", "Be brief", List.of(), "Draw a graph");
+            cache.put(key, bulky);
+            cache.put("00".repeat(32), new ResponseCache.Response("short", List.of()));
+
+            assertEquals(Optional.of(bulky), cache.get(key));
+            assertEquals(1, cache.getStats().diskHits());
+            assertEquals(Optional.of(new ResponseCache.Response("short", List.of())), cache.get("00".repeat(32)));
+            assertEquals(1, cache.getStats().memoryHits());
+        }
+
+        try (ResponseCache cache = newCache(config)) {
+            assertEquals(Optional.of(bulky), cache.get(key));
+            assertEquals(1.0, cache.getStats().hitRate());
+        }
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws Exception {
+        AgentConfiguration config = config();
+        config.setResponseCacheTtlMs(20);
+        try (ResponseCache cache = newCache(config)) {
+            String key = cache.key("gpt-4o", "Be brief", List.of(), "Draw a graph");
+            cache.put(key, new ResponseCache.Response("reply", List.of()));
+            assertTrue(cache.get(key).isPresent());
+
+            Thread.sleep(40);
+
+            assertEquals(Optional.empty(), cache.get(key));
+            assertEquals(1, cache.getStats().expired());
+            assertEquals(Optional.empty(), cache.get(key));
+            assertEquals(2, cache.getStats().misses());
+        }
+    }
+
+    private AgentConfiguration config() {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setResponseCacheEnabled(true);
+        config.setResponseCacheDiskDirectory(tempDir.toString());
+        return config;
+    }
+
+    private static ResponseCache newCache(AgentConfiguration config) {
+        return new ResponseCache(config, new AgentMetrics(config));
+    }
+}
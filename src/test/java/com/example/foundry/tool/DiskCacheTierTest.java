@@ -0,0 +1,64 @@
+package com.example.foundry.tool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped disk cache tier.
+ */
+class DiskCacheTierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepsCollidingEntriesReachableThroughChurn() throws Exception {
+        try (DiskCacheTier tier = new DiskCacheTier(tempDir, 16, 1 << 20)) {
+            // All keys share a home slot, so every eviction has to shift the probe run back
+            for (int i = 0; i < 1000; i++) {
+                tier.put(key(i), value(i));
+            }
+
+            assertEquals(12, tier.getEntries());
+            for (int i = 988; i < 1000; i++) {
+                assertArrayEquals(value(i), tier.get(key(i)));
+            }
+            assertNull(tier.get(key(987)));
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAcrossRestarts() throws Exception {
+        try (DiskCacheTier tier = new DiskCacheTier(tempDir, 16, 1 << 20)) {
+            for (int i = 0; i < 12; i++) {
+                tier.put(key(i), value(i));
+                Thread.sleep(2);
+            }
+            tier.get(key(0));
+        }
+
+        try (DiskCacheTier tier = new DiskCacheTier(tempDir, 16, 1 << 20)) {
+            assertEquals(12, tier.getEntries());
+            assertEquals(1, tier.put(key(12), value(12)));
+
+            assertArrayEquals(value(0), tier.get(key(0)));
+            assertNull(tier.get(key(1)));
+        }
+    }
+
+    private static byte[] key(int i) {
+        byte[] key = new byte[32];
+        key[30] = (byte) (i >> 8);
+        key[31] = (byte) i;
+        return key;
+    }
+
+    private static byte[] value(int i) {
+        return ("value " + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.foundry.tool;
+
+import com.azure.ai.agents.persistent.models.FunctionToolDefinition;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for schema generation and dispatch of annotated function tools.
+ */
+class FunctionToolRegistryTest {
+
+    static class SampleTools {
+
+        @AgentTool(description = "Add two numbers")
+        public int add(@ToolParam(name = "a") int a,
+                       @ToolParam(name = "b", description = "Second operand") int b) {
+            return a + b;
+        }
+
+        @AgentTool(name = "greet", description = "Greet someone")
+        public String hello(@ToolParam(name = "name") String name,
+                            @ToolParam(name = "suffix", required = false) String suffix) {
+            return "Hello, " + name + (suffix == null ? "" : suffix);
+        }
+    }
+
+    private FunctionToolRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new FunctionToolRegistry(null);
+        SampleTools tools = new SampleTools();
+        for (Method method : SampleTools.class.getDeclaredMethods()) {
+            AgentTool annotation = method.getAnnotation(AgentTool.class);
+            if (annotation != null) {
+                registry.register(tools, method, annotation);
+            }
+        }
+    }
+
+    @Test
+    void generatesSchemaFromAnnotations() throws Exception {
+        List<FunctionToolDefinition> definitions = registry.getToolDefinitions();
+        assertEquals(2, definitions.size());
+        assertEquals("add", definitions.get(0).getFunction().getName());
+
+        JsonNode schema = new ObjectMapper().readTree(definitions.get(1).getFunction().getParameters().toString());
+        assertEquals("string", schema.at("/properties/name/type").asText());
+        assertEquals(1, schema.get("required").size());
+        assertEquals("name", schema.get("required").get(0).asText());
+    }
+
+    @Test
+    void dispatchesArgumentsToMethod() {
+        assertEquals("5", registry.invoke("add", "{\"a\": 2, \"b\": 3}").output());
+        assertEquals("Hello, Ada!", registry.invoke("greet", "{\"name\": \"Ada\", \"suffix\": \"!\"}").output());
+        assertEquals("Hello, Ada", registry.invoke("greet", "{\"name\": \"Ada\"}").output());
+    }
+
+    @Test
+    void rejectsUnknownToolsAndMissingArguments() {
+        assertThrows(IllegalArgumentException.class, () -> registry.invoke("missing", "{}"));
+        assertThrows(IllegalArgumentException.class, () -> registry.invoke("add", "{\"a\": 1}"));
+    }
+}
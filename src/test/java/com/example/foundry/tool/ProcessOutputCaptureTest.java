@@ -0,0 +1,49 @@
+package com.example.foundry.tool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for bounded process output capture. Skipped when no Python interpreter is available.
+ */
+class ProcessOutputCaptureTest {
+
+    private static final String PYTHON = "python";
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(PythonWorkerPoolTest.isAvailable(PYTHON), "Python is not installed");
+    }
+
+    @Test
+    void capturesExitCodeAndTruncatesLargeOutput() throws Exception {
+        Process process = new ProcessBuilder(PYTHON, "-c", "import sys\nprint('y' * 100000)\nsys.exit(3)")
+            .redirectErrorStream(true)
+            .start();
+
+        ToolExecutionResult result = ProcessOutputCapture.capture(process, 64, 10000, 0);
+
+        assertEquals(3, result.exitCode());
+        assertEquals(100001, result.bytesProduced());
+        assertTrue(result.truncated());
+        assertFalse(result.killed());
+        assertTrue(result.output().length() < 200);
+    }
+
+    @Test
+    void killsProcessExceedingWallClockLimit() throws Exception {
+        Process process = new ProcessBuilder(PYTHON, "-c", "import time\nprint('start', flush=True)\ntime.sleep(30)")
+            .redirectErrorStream(true)
+            .start();
+
+        ToolExecutionResult result = ProcessOutputCapture.capture(process, 1024, 300, 0);
+
+        assertTrue(result.killed());
+        assertTrue(result.durationMs() < 10000);
+        assertTrue(result.output().startsWith("start"));
+        assertFalse(process.isAlive());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the warm Python worker pool. Skipped when no Python interpreter is available.
+ */
+class PythonWorkerPoolTest {
+
+    private AgentConfiguration config;
+    private PythonWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        config = new AgentConfiguration();
+        config.setPythonWorkerPoolSize(2);
+        config.setPythonWorkerPreloadModules("json");
+        config.setPythonExecutionTimeoutMs(5000);
+        assumeTrue(isAvailable(config.getPythonCommand()), "Python is not installed");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void executesCodeWithFreshGlobals() {
+        pool = new PythonWorkerPool(config);
+
+        assertEquals("3\n", pool.execute("x = 1 + 2\nprint(x)").output());
+        assertTrue(pool.execute("print(x)").output().contains("NameError"));
+    }
+
+    @Test
+    void survivesExitAndStrayFileDescriptorWrites() {
+        pool = new PythonWorkerPool(config);
+
+        pool.execute("import os\nos.write(1, b'noise')\nraise SystemExit(1)");
+
+        assertEquals("ok\n", pool.execute("print('ok')").output());
+    }
+
+    @Test
+    void killsWorkerOnTimeoutAndRecovers() {
+        config.setPythonExecutionTimeoutMs(500);
+        pool = new PythonWorkerPool(config);
+
+        assertTrue(pool.execute("import time\ntime.sleep(10)").output().contains("timed out"));
+        assertEquals("ok\n", pool.execute("print('ok')").output());
+    }
+
+    @Test
+    void cancelsExecutionsAndWaitsForWorkersWhenInterrupted() throws Exception {
+        config.setPythonWorkerPoolSize(1);
+        pool = new PythonWorkerPool(config);
+        AtomicReference<ToolExecutionResult> running = new AtomicReference<>();
+        AtomicReference<ToolExecutionResult> waiting = new AtomicReference<>();
+        Thread runner = new Thread(() -> running.set(pool.execute("import time\ntime.sleep(10)")));
+        Thread waiter = new Thread(() -> waiting.set(pool.execute("print('never')")));
+        runner.start();
+        Thread.sleep(300);
+        waiter.start();
+        Thread.sleep(100);
+
+        waiter.interrupt();
+        waiter.join(1000);
+        assertTrue(waiting.get().output().contains("cancelled"));
+        runner.interrupt();
+        runner.join(2000);
+        assertTrue(running.get().killed());
+        assertTrue(running.get().output().contains("cancelled"));
+
+        assertEquals("ok\n", pool.execute("print('ok')").output());
+    }
+
+    @Test
+    void capsOutputAndInterruptsCpuBoundCode() {
+        config.setToolOutputMaxBytes(100);
+        config.setPythonCpuTimeoutMs(300);
+        pool = new PythonWorkerPool(config);
+
+        ToolExecutionResult large = pool.execute("print('x' * 10000)");
+        assertTrue(large.truncated());
+        assertEquals(10001, large.bytesProduced());
+        assertTrue(large.output().contains("bytes truncated"));
+
+        // Captured as it is written, so only the head and the tail are ever held
+        ToolExecutionResult flood = pool.execute(
+            "print('a' * 60)\nfor _ in range(20000):\n    print('y' * 1000)\nprint('z' * 60)");
+        assertEquals(20_020_122, flood.bytesProduced());
+        assertTrue(flood.output().startsWith("a".repeat(50)));
+        assertTrue(flood.output().endsWith("z".repeat(49) + "\n"));
+        assertTrue(flood.output().length() < 200);
+
+        ToolExecutionResult spin = pool.execute("while True:\n    pass");
+        assertTrue(spin.killed());
+        assertTrue(spin.output().contains("CPU limit"));
+        assertEquals("ok\n", pool.execute("print('ok')").output());
+    }
+
+    static boolean isAvailable(String command) {
+        try {
+            Process process = new ProcessBuilder(command, "--version").start();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.foundry.tool;
+
+import com.example.foundry.config.AgentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the content-addressed tool result cache.
+ */
+class ToolResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void equivalentArgumentsShareKey() {
+        ToolResultCache cache = new ToolResultCache(config(false));
+
+        assertEquals(cache.key("pythonCodeRunner", "{\"code\":\"print(1)\",\"a\":1}"),
+            cache.key("pythonCodeRunner", "{ \"a\": 1, \"code\": \"print(1)\" }"));
+        assertNotEquals(cache.key("pythonCodeRunner", "{\"code\":\"print(1)\"}"),
+            cache.key("otherTool", "{\"code\":\"print(1)\"}"));
+        assertTrue(cache.isEnabledFor("pythonCodeRunner"));
+        assertFalse(cache.isEnabledFor("otherTool"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenMemoryIsFull() {
+        AgentConfiguration config = config(false);
+        config.setToolCacheMemoryMaxBytes(400);
+        ToolResultCache cache = new ToolResultCache(config);
+
+        cache.put("a", "x".repeat(40));
+        cache.put("b", "y".repeat(40));
+        cache.get("a");
+        cache.put("c", "z".repeat(40));
+
+        assertTrue(cache.get("a").isPresent());
+        assertEquals(Optional.empty(), cache.get("b"));
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    void diskTierSurvivesRestart() throws Exception {
+        String key;
+        try (ToolResultCache cache = new ToolResultCache(config(true))) {
+            key = cache.key("pythonCodeRunner", "{\"code\":\"print(42)\"}");
+            cache.put(key, "42\n");
+        }
+
+        try (ToolResultCache cache = new ToolResultCache(config(true))) {
+            assertEquals(Optional.of("42\n"), cache.get(key));
+            assertEquals(1, cache.getStats().diskHits());
+            assertEquals(Optional.of("42\n"), cache.get(key));
+            assertEquals(1, cache.getStats().memoryHits());
+        }
+    }
+
+    private AgentConfiguration config(boolean disk) {
+        AgentConfiguration config = new AgentConfiguration();
+        config.setToolCacheTools("pythonCodeRunner");
+        config.setToolCacheDiskEnabled(disk);
+        config.setToolCacheDiskDirectory(tempDir.toString());
+        config.setToolCacheDiskIndexSlots(64);
+        return config;
+    }
+}
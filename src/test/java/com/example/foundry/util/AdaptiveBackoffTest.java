@@ -0,0 +1,45 @@
+package com.example.foundry.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the adaptive polling backoff.
+ */
+class AdaptiveBackoffTest {
+
+    @Test
+    void delaysGrowUpToCeiling() {
+        AdaptiveBackoff backoff = new AdaptiveBackoff(100, 1000, 2.0, 0.0);
+
+        assertEquals(100, backoff.nextDelayMs());
+        assertEquals(200, backoff.nextDelayMs());
+        assertEquals(400, backoff.nextDelayMs());
+        assertEquals(800, backoff.nextDelayMs());
+        assertEquals(1000, backoff.nextDelayMs());
+        assertEquals(1000, backoff.nextDelayMs());
+        assertEquals(6, backoff.getAttempts());
+    }
+
+    @Test
+    void resetRestartsFromInitialDelay() {
+        AdaptiveBackoff backoff = new AdaptiveBackoff(50, 500, 3.0, 0.0);
+        backoff.nextDelayMs();
+        backoff.nextDelayMs();
+
+        backoff.reset();
+
+        assertEquals(50, backoff.nextDelayMs());
+    }
+
+    @Test
+    void jitterStaysWithinBounds() {
+        AdaptiveBackoff backoff = new AdaptiveBackoff(1000, 1000, 1.0, 0.2);
+
+        for (int i = 0; i < 100; i++) {
+            long delay = backoff.nextDelayMs();
+            assertTrue(delay >= 800 && delay <= 1000, "Delay out of range: " + delay);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.foundry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AIMD limit adjustment, queueing, rejection and throttling pauses.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void shrinksOnThrottleAndGrowsBackOnSuccess() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 10, 0.5);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(0);
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(0);
+
+        first.throttled(0);
+        // Released twice, counted once
+        first.throttled(0);
+        assertEquals(5, limiter.getLimit());
+        assertEquals(1, limiter.getThrottled());
+        assertEquals(1, limiter.getInFlight());
+
+        second.success();
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(0).success();
+        }
+        assertTrue(limiter.getLimit() > 5);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedCallersAreAdmittedInTurnOrRejected() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 0.5);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire(0);
+
+        assertThrows(RejectedExecutionException.class, () -> limiter.acquire(20));
+        assertEquals(1, limiter.getRejected());
+        assertEquals(0, limiter.getQueued());
+
+        var waiting = limiter.acquireAsync(5000).toFuture();
+        assertFalse(waiting.isDone());
+        held.release();
+        waiting.join().release();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void holdsAdmissionsForTheRetryDelay() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 4, 0.5);
+        limiter.acquire(0).throttled(200);
+
+        long start = System.nanoTime();
+        limiter.acquire(5000).success();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waitedMs >= 150, "waited " + waitedMs + " ms");
+        assertEquals(2, limiter.getLimit());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.foundry.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for request deadlines and their phase budgets.
+ */
+class DeadlineTest {
+
+    @Test
+    void unboundedDeadlineNeverExpiresOrCapsTimeouts() {
+        Deadline deadline = Deadline.after(0);
+
+        assertFalse(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertEquals(5000, deadline.cap(5000));
+        assertFalse(deadline.share(0.5).isBounded());
+        assertTrue(deadline.orAfter(1000).isBounded());
+    }
+
+    @Test
+    void sharesAndCapsWithinTheTimeLeft() throws InterruptedException {
+        Deadline deadline = Deadline.after(10_000);
+
+        assertTrue(deadline.cap(60_000) <= 10_000);
+        assertTrue(deadline.cap(100) <= 100);
+        assertTrue(deadline.share(0.2).remainingMs() <= 2_000);
+        assertSame(deadline, deadline.orAfter(60_000));
+        assertTrue(deadline.orAfter(100).remainingMs() <= 100);
+
+        Deadline phase = deadline.share(0.001);
+        Thread.sleep(20);
+
+        assertTrue(phase.isExpired());
+        assertEquals(0, phase.remainingMs());
+        assertFalse(deadline.isExpired());
+    }
+}
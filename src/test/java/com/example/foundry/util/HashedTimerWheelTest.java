@@ -0,0 +1,63 @@
+package com.example.foundry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for timer wheel scheduling, multi-round delays and cancellation.
+ */
+class HashedTimerWheelTest {
+
+    @Test
+    void runsTasksNoEarlierThanTheirDelayInDeadlineOrder() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        // Eight buckets of 5 ms: the 120 ms task goes around the wheel several times
+        try (HashedTimerWheel wheel = new HashedTimerWheel("test-timer", 5, 8, Runnable::run)) {
+            long start = System.nanoTime();
+            long[] firedAfterMs = new long[1];
+            wheel.schedule(() -> {
+                firedAfterMs[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                fired.add("late");
+                done.countDown();
+            }, 120, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> {
+                fired.add("middle");
+                done.countDown();
+            }, 30, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> {
+                fired.add("early");
+                done.countDown();
+            }, 0, TimeUnit.MILLISECONDS);
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("early", "middle", "late"), fired);
+            assertTrue(firedAfterMs[0] >= 120, "fired after " + firedAfterMs[0] + " ms");
+            assertEquals(0, wheel.getPending());
+        }
+    }
+
+    @Test
+    void cancelledTasksDoNotRun() throws InterruptedException {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (HashedTimerWheel wheel = new HashedTimerWheel("test-timer", 5, 8, Runnable::run)) {
+            HashedTimerWheel.Timeout cancelled = wheel.schedule(() -> fired.add("cancelled"), 20, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> {
+                fired.add("kept");
+                done.countDown();
+            }, 40, TimeUnit.MILLISECONDS);
+            cancelled.cancel();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("kept"), fired);
+            assertTrue(cancelled.isCancelled());
+        }
+    }
+}
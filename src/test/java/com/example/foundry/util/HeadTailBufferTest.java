@@ -0,0 +1,47 @@
+package com.example.foundry.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bounded head/tail byte buffer.
+ */
+class HeadTailBufferTest {
+
+    @Test
+    void keepsEverythingBelowCapacity() {
+        HeadTailBuffer buffer = new HeadTailBuffer(10);
+        write(buffer, "abcdefgh");
+
+        assertFalse(buffer.isTruncated());
+        assertEquals("abcdefgh", buffer.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keepsHeadAndTailAcrossManyWrites() {
+        HeadTailBuffer buffer = new HeadTailBuffer(8);
+        for (char c = 'a'; c <= 'z'; c++) {
+            write(buffer, String.valueOf(c));
+        }
+
+        assertTrue(buffer.isTruncated());
+        assertEquals(26, buffer.getTotalBytes());
+        assertEquals("abcd\n... [18 bytes truncated] ...\nwxyz", buffer.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keepsTailOfSingleLargeWrite() {
+        HeadTailBuffer buffer = new HeadTailBuffer(8);
+        write(buffer, "0123456789abcdef");
+
+        assertEquals("0123\n... [8 bytes truncated] ...\ncdef", buffer.toString(StandardCharsets.UTF_8));
+    }
+
+    private static void write(HeadTailBuffer buffer, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+}
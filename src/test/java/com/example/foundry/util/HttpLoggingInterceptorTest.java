@@ -0,0 +1,119 @@
+package com.example.foundry.util;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.BinaryData;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the asynchronous HTTP logging policy.
+ */
+class HttpLoggingInterceptorTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Test
+    void logsCappedBodiesWithoutConsumingThem() {
+        HttpLoggingInterceptor interceptor = interceptor(1.0, 0);
+        HttpRequest request = new HttpRequest(HttpMethod.POST, "https://example.test/threads")
+            .setHeader(HttpHeaderName.AUTHORIZATION, "Bearer secret")
+            .setBody(BinaryData.fromString("{\"role\":\"user\"}"));
+
+        HttpResponse response = pipeline(interceptor).send(request).block();
+        assertEquals("0123456789abcdefghij", response.getBodyAsString().block());
+        interceptor.close();
+
+        String log = output.toString(StandardCharsets.UTF_8);
+        assertTrue(log.contains("URL: https://example.test/threads"));
+        assertTrue(log.contains("Authorization: ***MASKED***"));
+        assertTrue(log.contains("{\"role\":\"u... [5 more bytes]"));
+        assertTrue(log.contains("0123456789... [10 more bytes]"));
+        assertEquals(1, interceptor.getLoggedCount());
+        assertEquals(0, interceptor.getDroppedCount());
+    }
+
+    @Test
+    void skipsFastRequestsAndUnsampledRequests() {
+        HttpLoggingInterceptor slowOnly = interceptor(1.0, 60000);
+        pipeline(slowOnly).send(new HttpRequest(HttpMethod.GET, "https://example.test/runs")).block()
+            .getBodyAsString().block();
+        slowOnly.close();
+
+        HttpLoggingInterceptor unsampled = interceptor(0.0, 0);
+        pipeline(unsampled).send(new HttpRequest(HttpMethod.GET, "https://example.test/runs")).block()
+            .getBodyAsString().block();
+        unsampled.close();
+
+        assertEquals(0, slowOnly.getLoggedCount() + unsampled.getLoggedCount());
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+    }
+
+    private HttpLoggingInterceptor interceptor(double sampleRate, long slowThresholdMs) {
+        return new HttpLoggingInterceptor(true, true, sampleRate, slowThresholdMs, 10, 16,
+            new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    private static HttpPipeline pipeline(HttpLoggingInterceptor interceptor) {
+        return new HttpPipelineBuilder()
+            .httpClient(request -> Mono.just(response(request, "0123456789abcdefghij")))
+            .policies(interceptor)
+            .build();
+    }
+
+    private static HttpResponse response(HttpRequest request, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return new HttpResponse(request) {
+            @Override
+            public int getStatusCode() {
+                return 200;
+            }
+
+            @Override
+            @Deprecated
+            public String getHeaderValue(String name) {
+                return null;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+
+            @Override
+            public Flux<ByteBuffer> getBody() {
+                // Delivered in two chunks, as a network response would be
+                return Flux.just(ByteBuffer.wrap(bytes, 0, 8), ByteBuffer.wrap(bytes, 8, bytes.length - 8));
+            }
+
+            @Override
+            public Mono<byte[]> getBodyAsByteArray() {
+                return Mono.just(bytes);
+            }
+
+            @Override
+            public Mono<String> getBodyAsString() {
+                return Mono.just(body);
+            }
+
+            @Override
+            public Mono<String> getBodyAsString(Charset charset) {
+                return Mono.just(body);
+            }
+        };
+    }
+}